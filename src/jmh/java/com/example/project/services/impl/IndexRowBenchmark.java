@@ -0,0 +1,48 @@
+package com.example.project.services.impl;
+
+import com.example.project.utils.SyntheticPaths;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Разбор ключа объекта на строку индекса: выполняется для каждого объекта при переиндексации
+ * и при поиске без индекса
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IndexRowBenchmark {
+
+    private static final int BATCH = 1024;
+
+    private List<String> objectNames;
+
+    @Setup
+    public void setUp() {
+        objectNames = SyntheticPaths.objectNames(BATCH);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void toRow(Blackhole blackhole) {
+        for (String objectName : objectNames) {
+            blackhole.consume(StorageIndexServiceImpl.toRow(1, objectName, 1024));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.project.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.minio.Xml;
+import io.minio.messages.Item;
+import io.minio.messages.ListBucketResultV2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Преобразование страницы листинга MinIO в ответы API. Объекты получаются разбором
+ * настоящего XML ListObjectsV2, как их отдаёт SDK
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListingMappingBenchmark {
+
+    private static final String PREFIX = "documents/Проект Альфа/2024/";
+
+    @Param({"100", "1000"})
+    private int pageSize;
+
+    private DirectoryListingWriter directoryListingWriter;
+    private List<StoredObject> page;
+
+    @Setup
+    public void setUp() throws Exception {
+        directoryListingWriter = new DirectoryListingWriter(new ObjectMapper());
+        StringBuilder xml = new StringBuilder()
+                .append("<ListBucketResult xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\">")
+                .append("<Name>bench-1</Name><Prefix>").append(PREFIX).append("</Prefix>")
+                .append("<KeyCount>").append(pageSize).append("</KeyCount>")
+                .append("<MaxKeys>1000</MaxKeys><IsTruncated>false</IsTruncated>");
+        List<String> names = SyntheticPaths.directoryPage(PREFIX, pageSize);
+        for (int i = 0; i < names.size(); i++) {
+            xml.append("<Contents><Key>").append(names.get(i)).append("</Key>")
+                    .append("<LastModified>2024-05-01T10:15:30.000Z</LastModified>")
+                    .append("<ETag>\"d41d8cd98f00b204e9800998ecf8427e\"</ETag>")
+                    .append("<Size>").append(names.get(i).endsWith("/") ? 0 : 1024L * (i + 1)).append("</Size>")
+                    .append("<StorageClass>STANDARD</StorageClass></Contents>");
+        }
+        xml.append("</ListBucketResult>");
+        page = new ArrayList<>(pageSize);
+        for (Item item : Xml.unmarshal(ListBucketResultV2.class, xml.toString()).contents()) {
+            page.add(MinioStorageBackend.toStoredObject(item));
+        }
+    }
+
+    @Benchmark
+    public void toChild(Blackhole blackhole) {
+        for (StoredObject object : page) {
+            blackhole.consume(directoryListingWriter.toChild("", PREFIX, object));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.project.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Разбор путей, который выполняется на каждом запросе к хранилищу
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathBenchmark {
+
+    private static final int BATCH = 1024;
+
+    private List<String> requestPaths;
+    private List<StoragePath> storagePaths;
+    private List<ResourceDescriptor> descriptors;
+    private List<String> usernames;
+
+    @Setup
+    public void setUp() {
+        requestPaths = SyntheticPaths.requestPaths(BATCH);
+        storagePaths = requestPaths.stream()
+                .map(StoragePath::of)
+                .toList();
+        descriptors = storagePaths.stream()
+                .map(path -> new ResourceDescriptor(path, Resource.FILE, 1024, null, null, null))
+                .toList();
+        usernames = SyntheticPaths.usernames(BATCH);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void parse(Blackhole blackhole) {
+        for (String path : requestPaths) {
+            blackhole.consume(StoragePath.of(path));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void parentAndName(Blackhole blackhole) {
+        for (StoragePath path : storagePaths) {
+            blackhole.consume(path.parent());
+            blackhole.consume(path.name());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void descriptorToResponse(Blackhole blackhole) {
+        for (ResourceDescriptor descriptor : descriptors) {
+            blackhole.consume(descriptor.toResponse());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void toValidBucketName(Blackhole blackhole) {
+        for (int i = 0; i < usernames.size(); i++) {
+            blackhole.consume(BucketPerUserLayout.toValidBucketName(usernames.get(i), i));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.project.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Наборы путей, похожие на пользовательские: вложенность 1–6, кириллица, пробелы,
+ * расширения, лишние слеши по краям. Генерация детерминированная, чтобы прогоны были сравнимы
+ */
+public final class SyntheticPaths {
+
+    private static final String[] SEGMENTS = {
+            "documents", "Фото", "2024", "отпуск в горах", "backup", "src", "main", "java",
+            "Проект Альфа", "reports", "q3", "invoices", "видео", "drafts", "archive-old", "music"
+    };
+
+    private static final String[] EXTENSIONS = {".txt", ".pdf", ".jpg", ".docx", ".mp4", ".java", ""};
+
+    private SyntheticPaths() {
+    }
+
+    /**
+     * Пути в том виде, в каком их присылает клиент: часть со слешами в начале или в конце
+     */
+    public static List<String> requestPaths(int count) {
+        Random random = new Random(42);
+        List<String> paths = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String path = objectName(random, i);
+            switch (random.nextInt(4)) {
+                case 0 -> path = "/" + path;
+                case 1 -> path = path + "/";
+                case 2 -> path = "//" + path + "/";
+                default -> {
+                }
+            }
+            paths.add(path);
+        }
+        return paths;
+    }
+
+    /**
+     * Ключи объектов MinIO: около 20% — маркеры папок со слешем на конце
+     */
+    public static List<String> objectNames(int count) {
+        Random random = new Random(7);
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = objectName(random, i);
+            names.add(random.nextInt(5) == 0 ? name + "/" : name);
+        }
+        return names;
+    }
+
+    /**
+     * Содержимое одной папки: общий префикс и непосредственные потомки
+     */
+    public static List<String> directoryPage(String prefix,
+                                             int count) {
+        Random random = new Random(13);
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = SEGMENTS[random.nextInt(SEGMENTS.length)] + "-" + i;
+            names.add(random.nextInt(5) == 0
+                    ? prefix + name + "/"
+                    : prefix + name + EXTENSIONS[random.nextInt(EXTENSIONS.length)]);
+        }
+        return names;
+    }
+
+    public static List<String> usernames(int count) {
+        Random random = new Random(99);
+        String[] samples = {"luntik", "Ivan.Petrov", "--admin--", "user_2024", "Мария", "John Smith", "QA-Team"};
+        List<String> usernames = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            usernames.add(samples[random.nextInt(samples.length)] + i);
+        }
+        return usernames;
+    }
+
+    private static String objectName(Random random,
+                                     int index) {
+        int depth = 1 + random.nextInt(6);
+        StringBuilder path = new StringBuilder();
+        for (int level = 0; level < depth - 1; level++) {
+            path.append(SEGMENTS[random.nextInt(SEGMENTS.length)]).append('/');
+        }
+        return path.append("file-").append(index).append(EXTENSIONS[random.nextInt(EXTENSIONS.length)]).toString();
+    }
+}
@@ -6,6 +6,7 @@ import com.example.project.dto.response.ResourceInfoResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.headers.Header;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -21,7 +22,9 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 @Operation(
         summary = "Получение информации о содержимом папки",
-        description = "Коллекция ресурсов, лежащих в папке (не рекурсивно)"
+        description = "Коллекция ресурсов, лежащих в папке (не рекурсивно). Без limit отдаётся всё содержимое потоком. "
+                + "С limit отдаётся одна страница; если есть продолжение, в заголовке X-Continuation-Token приходит токен "
+                + "для следующего запроса."
 )
 @Parameter(
         name = "path",
@@ -30,10 +33,33 @@ import java.lang.annotation.Target;
         in = ParameterIn.QUERY,
         schema = @Schema(type = "string",example = "folder1/folder2/")
 )
+@Parameter(
+        name = "limit",
+        description = "Размер страницы, от 1 до 1000. Если не указан, отдаётся всё содержимое.",
+        in = ParameterIn.QUERY,
+        schema = @Schema(type = "integer", example = "200")
+)
+@Parameter(
+        name = "continuationToken",
+        description = "Значение заголовка X-Continuation-Token из предыдущего ответа.",
+        in = ParameterIn.QUERY,
+        schema = @Schema(type = "string")
+)
+@Parameter(
+        name = "sort",
+        description = "name - порядок по имени (по умолчанию); type - папки перед файлами в пределах страницы, только вместе с limit.",
+        in = ParameterIn.QUERY,
+        schema = @Schema(type = "string", allowableValues = {"name", "type"}, defaultValue = "name")
+)
 @ApiResponses(value = {
         @ApiResponse(
                 responseCode = "200",
                 description = "Информация о содержимом успешно получена",
+                headers = @Header(
+                        name = "X-Continuation-Token",
+                        description = "Токен следующей страницы, есть только если содержимое не закончилось",
+                        schema = @Schema(type = "string")
+                ),
                 content = @Content(
                         mediaType = "application/json",
                         schema = @Schema(implementation = ResourceInfoResponse.class),
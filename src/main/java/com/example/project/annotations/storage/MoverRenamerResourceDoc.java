@@ -1,6 +1,7 @@
 package com.example.project.annotations.storage;
 
 import com.example.project.dto.response.ErrorResponse;
+import com.example.project.dto.response.MoveReportResponse;
 import com.example.project.dto.response.ResourceInfoResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -55,6 +56,31 @@ import java.lang.annotation.Target;
                         )
                 )
         ),
+        @ApiResponse(
+                responseCode = "207",
+                description = "Папка скопирована полностью, но часть исходных объектов удалить не удалось",
+                content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = MoveReportResponse.class),
+                        examples = @ExampleObject(
+                                value = """
+                                        {
+                                            "moved": {
+                                                "path": "folder1/",
+                                                "name": "folder3/",
+                                                "type": "DIRECTORY"
+                                            },
+                                            "failed": [
+                                                {
+                                                    "path": "folder1/folder2/locked.txt",
+                                                    "message": "Access Denied."
+                                                }
+                                            ]
+                                        }
+                                        """
+                        )
+                )
+        ),
         @ApiResponse(
                 responseCode = "400",
                 description = "Невалидный или отсутствующий путь",
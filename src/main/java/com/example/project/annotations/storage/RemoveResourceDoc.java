@@ -1,8 +1,10 @@
 package com.example.project.annotations.storage;
 
 
+import com.example.project.dto.response.DeleteReportResponse;
 import com.example.project.dto.response.ErrorResponse;
 import com.example.project.dto.response.ResourceInfoResponse;
+import com.example.project.dto.response.StorageJobResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
@@ -11,7 +13,6 @@ import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
-import org.checkerframework.checker.units.qual.C;
 
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
@@ -22,7 +23,8 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 @Operation(
         summary = "Удаление ресурса",
-        description = "Удаляет файл или папку по указанному пути."
+        description = "Удаляет файл или папку по указанному пути. Папки удаляются пачками через multi-delete; " +
+                "с параметром async=true удаление выполняется в фоне, а в ответ возвращается id задачи."
 )
 @Parameter(
         name = "path",
@@ -31,6 +33,12 @@ import java.lang.annotation.Target;
         in = ParameterIn.QUERY,
         schema = @Schema(type = "string", example = "folder1/loli.png")
 )
+@Parameter(
+        name = "async",
+        description = "Выполнить удаление в фоне. Статус задачи доступен по /api/resource/jobs/{id}.",
+        in = ParameterIn.QUERY,
+        schema = @Schema(type = "boolean", defaultValue = "false")
+)
 @ApiResponses(value = {
         @ApiResponse(
                 responseCode = "204",
@@ -42,6 +50,44 @@ import java.lang.annotation.Target;
                         )
                 )
         ),
+        @ApiResponse(
+                responseCode = "202",
+                description = "Удаление запущено в фоне",
+                content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = StorageJobResponse.class),
+                        examples = @ExampleObject(
+                                value = """
+                                        {
+                                            "id": "4f1c2a9e-8d3b-4c51-9a57-3e2f0c6d7b18",
+                                            "status": "RUNNING"
+                                        }
+                                        """
+                        )
+                )
+        ),
+        @ApiResponse(
+                responseCode = "207",
+                description = "Папка удалена частично, в отчёте перечислены объекты, которые удалить не удалось",
+                content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = DeleteReportResponse.class),
+                        examples = @ExampleObject(
+                                value = """
+                                        {
+                                            "path": "folder1/",
+                                            "deleted": 998,
+                                            "failed": [
+                                                {
+                                                    "path": "folder1/locked.txt",
+                                                    "message": "Access Denied."
+                                                }
+                                            ]
+                                        }
+                                        """
+                        )
+                )
+        ),
         @ApiResponse(
                 responseCode = "400",
                 description = "Невалидный или отсутствующий путь",
@@ -20,7 +20,8 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 @Operation(
         summary = "Поиск ресурса",
-        description = "Возвращает все найденные совпадения в имени по запросу."
+        description = "Возвращает найденные совпадения в имени по запросу. Поиск выполняется по индексу, " +
+                "результат выдаётся постранично."
 )
 @Parameter(
         name = "query",
@@ -29,6 +30,18 @@ import java.lang.annotation.Target;
         in = ParameterIn.QUERY,
         schema = @Schema(type = "string", example = "Диплом")
 )
+@Parameter(
+        name = "limit",
+        description = "Максимальное количество результатов (от 1 до 1000).",
+        in = ParameterIn.QUERY,
+        schema = @Schema(type = "integer", defaultValue = "100", example = "100")
+)
+@Parameter(
+        name = "offset",
+        description = "Сколько результатов пропустить от начала выдачи.",
+        in = ParameterIn.QUERY,
+        schema = @Schema(type = "integer", defaultValue = "0", example = "0")
+)
 @ApiResponses(value = {
         @ApiResponse(
                 responseCode = "200",
@@ -0,0 +1,108 @@
+package com.example.project.annotations.storage;
+
+import com.example.project.dto.response.ErrorResponse;
+import com.example.project.dto.response.ResourceInfoResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Operation(
+        summary = "Потоковый поиск ресурса",
+        description = "Отдаёт совпадения в формате NDJSON (один JSON-объект на строку) по мере нахождения и " +
+                "останавливается после limit результатов. Порядок не гарантируется; если ничего не найдено, тело пустое."
+)
+@Parameter(
+        name = "query",
+        description = "Поисковый запрос в URL-encoded формате.",
+        required = true,
+        in = ParameterIn.QUERY,
+        schema = @Schema(type = "string", example = "Диплом")
+)
+@Parameter(
+        name = "limit",
+        description = "Максимальное количество результатов (от 1 до 1000).",
+        in = ParameterIn.QUERY,
+        schema = @Schema(type = "integer", defaultValue = "100", example = "100")
+)
+@ApiResponses(value = {
+        @ApiResponse(
+                responseCode = "200",
+                description = "Поток найденных ресурсов",
+                content = @Content(
+                        mediaType = "application/x-ndjson",
+                        schema = @Schema(implementation = ResourceInfoResponse.class),
+                        examples = @ExampleObject(
+                                value = """
+                                        {"path":"folder1/","name":"Диплом.docx","size":2048,"type":"FILE"}
+                                        {"path":"","name":"Дипломы/","type":"DIRECTORY"}
+                                        """
+                        )
+                )
+        ),
+        @ApiResponse(
+                responseCode = "400",
+                description = "Невалидный или отсутствующий поисковой запрос",
+                content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class),
+                        examples = @ExampleObject(
+                                value = """
+                    {
+                      "message": "Невалидный или отсутствующий поисковой запрос",
+                      "statusCode": 400,
+                      "timestamp": 1713203213000
+                    }
+                    """
+                        )
+                )
+        ),
+        @ApiResponse(
+                responseCode = "401",
+                description = "Пользователь не авторизован",
+                content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class),
+                        examples = @ExampleObject(
+                                value = """
+                    {
+                      "message": "Пользователь не авторизован",
+                      "statusCode": 401,
+                      "timestamp": 1713203213000
+                    }
+                    """
+                        )
+                )
+        ),
+        @ApiResponse(
+                responseCode = "500",
+                description = "Внутренняя ошибка сервера",
+                content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class),
+                        examples = @ExampleObject(
+                                value = """
+                    {
+                      "message": "Ошибка при получении информации о ресурсе",
+                      "statusCode": 500,
+                      "timestamp": 1713203213000
+                    }
+                    """
+                        )
+                )
+        )
+})
+
+public @interface SearchResourceStreamDoc {
+}
@@ -0,0 +1,109 @@
+package com.example.project.annotations.storage;
+
+import com.example.project.dto.response.ErrorResponse;
+import com.example.project.dto.response.UploadedPartResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Operation(
+        summary = "Загрузка части файла",
+        description = "Принимает содержимое части телом запроса с обязательным Content-Length, тело передаётся в хранилище потоком. Повторная загрузка части с тем же номером заменяет её."
+)
+@Parameter(
+        name = "id",
+        description = "Идентификатор сессии загрузки.",
+        required = true,
+        in = ParameterIn.PATH,
+        schema = @Schema(type = "string", example = "4f1c2a9e-8d3b-4c51-9a57-3e2f0c6d7b18")
+)
+@Parameter(
+        name = "partNumber",
+        description = "Номер части, от 1 до 10000",
+        required = true,
+        in = ParameterIn.PATH,
+        example = "3"
+)
+@ApiResponses(value = {
+        @ApiResponse(
+                responseCode = "200",
+                description = "Часть загружена",
+                content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = UploadedPartResponse.class),
+                        examples = @ExampleObject(
+                                value = """
+                                        {
+                                            "number": 3,
+                                            "size": 67108864
+                                        }
+                                        """
+                        )
+                )
+        ),
+        @ApiResponse(
+                responseCode = "400",
+                description = "Невалидный номер или размер части",
+                content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class),
+                        examples = @ExampleObject(
+                                value = """
+                                        {
+                                            "message": "Номер части должен быть от 1 до 10000",
+                                            "statusCode": 400,
+                                            "timestamp": 1748299190693
+                                        }
+                                        """
+                        )
+                )
+        ),
+        @ApiResponse(
+                responseCode = "401",
+                description = "Пользователь не авторизован",
+                content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class),
+                        examples = @ExampleObject(
+                                value = """
+                                        {
+                                            "message": "Пользователь не авторизован",
+                                            "statusCode": 401,
+                                            "timestamp": 1748299190693
+                                        }
+                                        """
+                        )
+                )
+        ),
+        @ApiResponse(
+                responseCode = "404",
+                description = "Сессия загрузки не найдена или истекла",
+                content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class),
+                        examples = @ExampleObject(
+                                value = """
+                                        {
+                                            "message": "Сессия загрузки не найдена",
+                                            "statusCode": 404,
+                                            "timestamp": 1748299190693
+                                        }
+                                        """
+                        )
+                )
+        )
+})
+public @interface UploadPartDoc {
+}
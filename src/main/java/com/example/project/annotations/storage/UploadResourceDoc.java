@@ -2,6 +2,7 @@ package com.example.project.annotations.storage;
 
 import com.example.project.dto.response.ErrorResponse;
 import com.example.project.dto.response.ResourceInfoResponse;
+import com.example.project.dto.response.UploadReportResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
@@ -20,7 +21,8 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 @Operation(
         summary = "Загрузка ресурсов",
-        description = "Загружает один или несколько файлов/папок. В имени файла может быть указана поддиректория для создания вложенных структур."
+        description = "Загружает один или несколько файлов/папок. В имени файла может быть указана поддиректория для создания вложенных структур. "
+                + "Файлы загружаются параллельно, ошибка по одному файлу не прерывает загрузку остальных."
 )
 @ApiResponses(value = {
         @ApiResponse(
@@ -49,6 +51,34 @@ import java.lang.annotation.Target;
                         )
                 )
         ),
+        @ApiResponse(
+                responseCode = "207",
+                description = "Часть файлов не загружена, в отчёте перечислены загруженные файлы и ошибки по остальным",
+                content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = UploadReportResponse.class),
+                        examples = @ExampleObject(
+                                value = """
+                                        {
+                                            "uploaded": [
+                                                {
+                                                    "path": "folder1/upload_target/",
+                                                    "name": "image.jpg",
+                                                    "size": 10240,
+                                                    "type": "FILE"
+                                                }
+                                            ],
+                                            "failed": [
+                                                {
+                                                    "path": "folder1/upload_target/document.pdf",
+                                                    "message": "Connection reset"
+                                                }
+                                            ]
+                                        }
+                                        """
+                        )
+                )
+        ),
         @ApiResponse(
                 responseCode = "400",
                 description = "Невалидный путь или некорректное тело запроса",
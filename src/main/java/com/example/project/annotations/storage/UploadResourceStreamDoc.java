@@ -0,0 +1,122 @@
+package com.example.project.annotations.storage;
+
+import com.example.project.dto.response.ErrorResponse;
+import com.example.project.dto.response.ResourceInfoResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Operation(
+        summary = "Потоковая загрузка файла",
+        description = "Загружает один файл, содержимое которого передаётся телом запроса без multipart-обёртки. "
+                + "Тело не буферизуется на сервере и сразу отправляется в хранилище, поэтому размер файла не ограничен лимитами multipart."
+)
+@Parameter(
+        name = "path",
+        description = "Полный путь загружаемого файла",
+        in = ParameterIn.QUERY,
+        required = true,
+        example = "folder1/video.mp4"
+)
+@ApiResponses(value = {
+        @ApiResponse(
+                responseCode = "201",
+                description = "Файл успешно загружен",
+                content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = ResourceInfoResponse.class),
+                        examples = @ExampleObject(
+                                value = """
+                                        {
+                                          "path": "folder1/",
+                                          "name": "video.mp4",
+                                          "size": 2147483648,
+                                          "type": "FILE"
+                                        }
+                                        """
+                        )
+                )
+        ),
+        @ApiResponse(
+                responseCode = "400",
+                description = "Невалидный путь или тело передано как multipart/form-data",
+                content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class),
+                        examples = @ExampleObject(
+                                value = """
+                    {
+                      "message": "Невалидный путь или неверный формат запроса",
+                      "statusCode": 400,
+                      "timestamp": 1713203213000
+                    }
+                    """
+                        )
+                )
+        ),
+        @ApiResponse(
+                responseCode = "401",
+                description = "Пользователь не авторизован",
+                content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class),
+                        examples = @ExampleObject(
+                                value = """
+                    {
+                      "message": "Пользователь не авторизован",
+                      "statusCode": 401,
+                      "timestamp": 1713203213000
+                    }
+                    """
+                        )
+                )
+        ),
+        @ApiResponse(
+                responseCode = "409",
+                description = "Файл с таким именем уже существует",
+                content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class),
+                        examples = @ExampleObject(
+                                value = """
+                    {
+                      "message": "Файл 'existing_file.txt' уже существует",
+                      "statusCode": 409,
+                      "timestamp": 1713203213000
+                    }
+                    """
+                        )
+                )
+        ),
+        @ApiResponse(
+                responseCode = "500",
+                description = "Внутренняя ошибка сервера",
+                content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class),
+                        examples = @ExampleObject(
+                                value = """
+                    {
+                      "message": "Ошибка при загрузке ресурса",
+                      "statusCode": 500,
+                      "timestamp": 1713203213000
+                    }
+                    """
+                        )
+                )
+        )
+})
+public @interface UploadResourceStreamDoc {
+}
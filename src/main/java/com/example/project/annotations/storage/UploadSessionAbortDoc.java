@@ -0,0 +1,72 @@
+package com.example.project.annotations.storage;
+
+import com.example.project.dto.response.ErrorResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Operation(
+        summary = "Отмена возобновляемой загрузки",
+        description = "Отменяет загрузку и освобождает уже загруженные части."
+)
+@Parameter(
+        name = "id",
+        description = "Идентификатор сессии загрузки.",
+        required = true,
+        in = ParameterIn.PATH,
+        schema = @Schema(type = "string", example = "4f1c2a9e-8d3b-4c51-9a57-3e2f0c6d7b18")
+)
+@ApiResponses(value = {
+        @ApiResponse(
+                responseCode = "204",
+                description = "Загрузка отменена"
+        ),
+        @ApiResponse(
+                responseCode = "401",
+                description = "Пользователь не авторизован",
+                content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class),
+                        examples = @ExampleObject(
+                                value = """
+                                        {
+                                            "message": "Пользователь не авторизован",
+                                            "statusCode": 401,
+                                            "timestamp": 1748299190693
+                                        }
+                                        """
+                        )
+                )
+        ),
+        @ApiResponse(
+                responseCode = "404",
+                description = "Сессия загрузки не найдена или истекла",
+                content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class),
+                        examples = @ExampleObject(
+                                value = """
+                                        {
+                                            "message": "Сессия загрузки не найдена",
+                                            "statusCode": 404,
+                                            "timestamp": 1748299190693
+                                        }
+                                        """
+                        )
+                )
+        )
+})
+public @interface UploadSessionAbortDoc {
+}
@@ -0,0 +1,121 @@
+package com.example.project.annotations.storage;
+
+import com.example.project.dto.response.ErrorResponse;
+import com.example.project.dto.response.ResourceInfoResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Operation(
+        summary = "Завершение возобновляемой загрузки",
+        description = "Собирает загруженные части в файл. Части должны идти подряд начиная с первой, все кроме последней не меньше 5MB."
+)
+@Parameter(
+        name = "id",
+        description = "Идентификатор сессии загрузки.",
+        required = true,
+        in = ParameterIn.PATH,
+        schema = @Schema(type = "string", example = "4f1c2a9e-8d3b-4c51-9a57-3e2f0c6d7b18")
+)
+@ApiResponses(value = {
+        @ApiResponse(
+                responseCode = "201",
+                description = "Файл собран",
+                content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = ResourceInfoResponse.class),
+                        examples = @ExampleObject(
+                                value = """
+                                        {
+                                            "path": "folder1/",
+                                            "name": "video.mp4",
+                                            "size": 2147483648,
+                                            "type": "FILE"
+                                        }
+                                        """
+                        )
+                )
+        ),
+        @ApiResponse(
+                responseCode = "400",
+                description = "Не хватает частей или часть слишком мала",
+                content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class),
+                        examples = @ExampleObject(
+                                value = """
+                                        {
+                                            "message": "Не загружена часть 2",
+                                            "statusCode": 400,
+                                            "timestamp": 1748299190693
+                                        }
+                                        """
+                        )
+                )
+        ),
+        @ApiResponse(
+                responseCode = "401",
+                description = "Пользователь не авторизован",
+                content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class),
+                        examples = @ExampleObject(
+                                value = """
+                                        {
+                                            "message": "Пользователь не авторизован",
+                                            "statusCode": 401,
+                                            "timestamp": 1748299190693
+                                        }
+                                        """
+                        )
+                )
+        ),
+        @ApiResponse(
+                responseCode = "404",
+                description = "Сессия загрузки не найдена или истекла",
+                content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class),
+                        examples = @ExampleObject(
+                                value = """
+                                        {
+                                            "message": "Сессия загрузки не найдена",
+                                            "statusCode": 404,
+                                            "timestamp": 1748299190693
+                                        }
+                                        """
+                        )
+                )
+        ),
+        @ApiResponse(
+                responseCode = "409",
+                description = "Пока шла загрузка, по этому пути появился другой ресурс",
+                content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class),
+                        examples = @ExampleObject(
+                                value = """
+                                        {
+                                            "message": "Ресурс, лежащий по пути 'video/movie.mp4' уже существует",
+                                            "statusCode": 409,
+                                            "timestamp": 1748299190693
+                                        }
+                                        """
+                        )
+                )
+        )
+})
+public @interface UploadSessionCompleteDoc {
+}
@@ -0,0 +1,112 @@
+package com.example.project.annotations.storage;
+
+import com.example.project.dto.response.ErrorResponse;
+import com.example.project.dto.response.UploadSessionResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Operation(
+        summary = "Начало возобновляемой загрузки",
+        description = "Создаёт сессию загрузки файла по частям. Части можно загружать в любом порядке и параллельно, после обрыва связи загрузку можно продолжить с недостающих частей."
+)
+@Parameter(
+        name = "path",
+        description = "Полный путь загружаемого файла",
+        in = ParameterIn.QUERY,
+        required = true,
+        example = "folder1/video.mp4"
+)
+@Parameter(
+        name = "contentType",
+        description = "MIME-тип файла; если не указан, определяется по расширению",
+        in = ParameterIn.QUERY,
+        example = "video/mp4"
+)
+@ApiResponses(value = {
+        @ApiResponse(
+                responseCode = "201",
+                description = "Сессия создана",
+                content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = UploadSessionResponse.class),
+                        examples = @ExampleObject(
+                                value = """
+                                        {
+                                            "id": "4f1c2a9e-8d3b-4c51-9a57-3e2f0c6d7b18",
+                                            "path": "folder1/",
+                                            "name": "video.mp4",
+                                            "maxPartSize": 67108864,
+                                            "parts": [],
+                                            "expiresAt": 1748385590693
+                                        }
+                                        """
+                        )
+                )
+        ),
+        @ApiResponse(
+                responseCode = "400",
+                description = "Невалидный или отсутствующий путь",
+                content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class),
+                        examples = @ExampleObject(
+                                value = """
+                                        {
+                                            "message": "Невалидный или отсутствующий путь",
+                                            "statusCode": 400,
+                                            "timestamp": 1748299190693
+                                        }
+                                        """
+                        )
+                )
+        ),
+        @ApiResponse(
+                responseCode = "401",
+                description = "Пользователь не авторизован",
+                content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class),
+                        examples = @ExampleObject(
+                                value = """
+                                        {
+                                            "message": "Пользователь не авторизован",
+                                            "statusCode": 401,
+                                            "timestamp": 1748299190693
+                                        }
+                                        """
+                        )
+                )
+        ),
+        @ApiResponse(
+                responseCode = "409",
+                description = "Ресурс с таким именем уже существует",
+                content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class),
+                        examples = @ExampleObject(
+                                value = """
+                                        {
+                                            "message": "Ресурс, лежащий по пути 'folder1/video.mp4' уже существует",
+                                            "statusCode": 409,
+                                            "timestamp": 1748299190693
+                                        }
+                                        """
+                        )
+                )
+        )
+})
+public @interface UploadSessionInitiateDoc {
+}
@@ -1,15 +1,29 @@
 package com.example.project.config;
 
+import com.example.project.utils.InstrumentedMinioClient;
+import com.example.project.utils.MinioMetrics;
+import com.example.project.utils.MultipartMinioClient;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.minio.MinioAsyncClient;
 import io.minio.MinioClient;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 @Slf4j
 @Configuration
-@Profile("!test")
+@Profile("!test & !local-storage")
 public class MinioConfig {
 
     @Value("${minio.url}")
@@ -21,11 +35,89 @@ public class MinioConfig {
     @Value("${minio.secret-key}")
     private String secretKey;
 
+    @Value("${minio.http.max-idle-connections:64}")
+    private int maxIdleConnections;
+
+    @Value("${minio.http.keep-alive:5m}")
+    private Duration keepAlive;
+
+    @Value("${minio.http.max-requests:256}")
+    private int maxRequests;
+
+    @Value("${minio.http.max-requests-per-host:128}")
+    private int maxRequestsPerHost;
+
+    @Value("${minio.http.connect-timeout:10s}")
+    private Duration connectTimeout;
+
+    @Value("${minio.http.read-timeout:5m}")
+    private Duration readTimeout;
+
+    @Value("${minio.http.write-timeout:5m}")
+    private Duration writeTimeout;
+
+    @Value("${minio.http.h2c:false}")
+    private boolean h2c;
+
+    /**
+     * Общий HTTP-клиент обоих клиентов MinIO. SDK выполняет запросы через очередь OkHttp,
+     * поэтому лимиты диспетчера (по умолчанию 5 запросов на хост) ограничивают параллелизм всего хранилища
+     */
     @Bean
-    public MinioClient minioClient() {
-        return MinioClient.builder()
+    public OkHttpClient minioHttpClient() {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+
+        log.info("HTTP-клиент MinIO: пул {} соединений, {} запросов на хост, h2c: {}",
+                maxIdleConnections, maxRequestsPerHost, h2c);
+        return new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAlive.toMillis(), TimeUnit.MILLISECONDS))
+                .connectTimeout(connectTimeout)
+                .readTimeout(readTimeout)
+                .writeTimeout(writeTimeout)
+                .protocols(h2c ? List.of(Protocol.H2_PRIOR_KNOWLEDGE) : List.of(Protocol.HTTP_1_1))
+                .build();
+    }
+
+    @Bean
+    public MinioClient minioClient(OkHttpClient minioHttpClient,
+                                   MinioMetrics minioMetrics) {
+        return new InstrumentedMinioClient(MinioClient.builder()
                 .endpoint(url)
                 .credentials(accessKey, secretKey)
-                .build();
+                .httpClient(minioHttpClient)
+                .build(), minioMetrics);
+    }
+
+    @Bean
+    public MultipartMinioClient multipartMinioClient(OkHttpClient minioHttpClient,
+                                                     MinioMetrics minioMetrics) {
+        return new MultipartMinioClient(MinioAsyncClient.builder()
+                .endpoint(url)
+                .credentials(accessKey, secretKey)
+                .httpClient(minioHttpClient)
+                .build(), minioHttpClient, minioMetrics);
+    }
+
+    @Bean
+    public MeterBinder minioHttpClientMetrics(OkHttpClient minioHttpClient) {
+        ConnectionPool pool = minioHttpClient.connectionPool();
+        Dispatcher dispatcher = minioHttpClient.dispatcher();
+        return registry -> {
+            Gauge.builder("minio.http.connections", pool, ConnectionPool::connectionCount)
+                    .description("Открытые соединения с MinIO")
+                    .register(registry);
+            Gauge.builder("minio.http.connections.idle", pool, ConnectionPool::idleConnectionCount)
+                    .description("Простаивающие соединения с MinIO")
+                    .register(registry);
+            Gauge.builder("minio.http.requests.running", dispatcher, Dispatcher::runningCallsCount)
+                    .description("Запросы к MinIO в работе")
+                    .register(registry);
+            Gauge.builder("minio.http.requests.queued", dispatcher, Dispatcher::queuedCallsCount)
+                    .description("Запросы к MinIO, ждущие свободного слота диспетчера")
+                    .register(registry);
+        };
     }
 }
@@ -1,24 +1,28 @@
 package com.example.project.config;
 
-import com.example.project.services.impl.UserDetailsServiceImpl;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
@@ -27,26 +31,42 @@ public class SecurityConfig {
 
     public static final String ORIGIN_LOCAL = "http://localhost";
 
+    private static final String BCRYPT = "bcrypt";
+    private static final String PBKDF2 = "pbkdf2@SpringSecurity_v5_8";
+
+    /**
+     * Метрики отдаются без входа только на отдельном порту {@code management.server.port}, который не публикуется
+     * наружу и доступен лишь сборщику метрик. На основном порту {@code /actuator/prometheus} требует входа
+     */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   @Value("${management.server.port:-1}") int managementPort) throws Exception {
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .cors(cors -> cors.configurationSource(corsConfiguration()))
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                        .requestMatchers(request -> managementPort > 0 && request.getLocalPort() == managementPort)
+                        .permitAll()
                         .requestMatchers(
                                 "/api/auth/sign-up",
                                 "/api/auth/sign-in",
                                 "/api/auth/sign-out",
                                 "/error",
+                                "/actuator/health",
                                 "/api/user/me",
                                 "/v3/api-docs/**",
                                 "/swagger-ui/**",
                                 "/swagger-ui.html",
                                 "/api/resource",
                                 "/api/resource/download",
+                                "/api/resource/stream",
+                                "/api/resource/uploads",
+                                "/api/resource/uploads/**",
                                 "/api/resource/move",
                                 "/api/resource/search",
+                                "/api/resource/search/stream",
+                                "/api/resource/jobs/*",
                                 "/api/directory"
                         ).permitAll()
                         .anyRequest().authenticated()
@@ -61,9 +81,25 @@ public class SecurityConfig {
     }
 
 
+    /**
+     * Хэши хранятся с префиксом алгоритма, новые считаются алгоритмом {@code auth.password.encoder}.
+     * Старые хэши без префикса проверяются BCrypt. После успешного входа хэш пересчитывается, если он без префикса,
+     * другого алгоритма или BCrypt с меньшей стоимостью, чем {@code auth.password.bcrypt-strength}.
+     * Уменьшение стоимости действует только на новые хэши
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${auth.password.encoder:bcrypt}") String encoderId,
+                                           @Value("${auth.password.bcrypt-strength:10}") int bcryptStrength) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(BCRYPT, bcrypt);
+        encoders.put(PBKDF2, Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        if (!encoders.containsKey(encoderId)) {
+            throw new IllegalStateException(String.format("Неизвестный алгоритм хэширования паролей '%s'", encoderId));
+        }
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(encoderId, encoders);
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
     }
 
     @Bean
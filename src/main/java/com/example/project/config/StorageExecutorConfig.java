@@ -0,0 +1,53 @@
+package com.example.project.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Общий пул для фоновых обращений к MinIO (предзагрузка при скачивании папок и т.п.).
+ * Ограничение параллелизма конкретной операции задаётся самой операцией, пул только даёт потоки.
+ * При {@code spring.threads.virtual.enabled=true} вместо пула используются виртуальные потоки,
+ * как и у Tomcat
+ */
+@Slf4j
+@Configuration
+public class StorageExecutorConfig {
+
+    @Value("${storage.executor.threads:16}")
+    private int threads;
+
+    @Value("${storage.jobs.threads:2}")
+    private int jobThreads;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService storageExecutor() {
+        if (virtualThreads) {
+            log.info("Пул потоков хранилища: виртуальные потоки");
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("storage-", 0).factory());
+        }
+        log.info("Пул потоков хранилища: {} потоков", threads);
+        return Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("storage-", 0).factory());
+    }
+
+    /**
+     * Отдельный пул для долгих фоновых задач: они сами ждут задачи из {@link #storageExecutor()},
+     * и в общем пуле могли бы занять все потоки. Размер пула ограничивает число одновременных задач
+     * и в режиме виртуальных потоков
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService storageJobExecutor() {
+        ThreadFactory factory = virtualThreads
+                ? Thread.ofVirtual().name("storage-job-", 0).factory()
+                : Thread.ofPlatform().name("storage-job-", 0).factory();
+        return Executors.newFixedThreadPool(jobThreads, factory);
+    }
+}
@@ -6,7 +6,6 @@ import com.example.project.annotations.auth.UserSignUpDoc;
 import com.example.project.dto.request.UserDTO;
 import com.example.project.dto.response.UsernameResponse;
 import com.example.project.services.AuthService;
-import com.example.project.validations.AuthValidation;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -27,13 +26,11 @@ import java.util.Map;
 public class AuthController {
 
     private final AuthService authService;
-    private final AuthValidation authValidation;
 
     @UserSignUpDoc
     @PostMapping("/sign-up")
     public ResponseEntity<UsernameResponse> signUp(@RequestBody @Valid UserDTO userDTO,
                                     HttpServletRequest request) {
-        authValidation.uniqueLoginErrors(userDTO);
         authService.registerAndAuthenticateUser(userDTO, request);
         UsernameResponse usernameResponse = new UsernameResponse(userDTO.getUsername());
         return ResponseEntity
@@ -45,7 +42,6 @@ public class AuthController {
     @PostMapping("/sign-in")
     public ResponseEntity<UsernameResponse> signIn(@RequestBody @Valid UserDTO userDTO,
                                     HttpServletRequest request) {
-        authValidation.usernameExistenceErrors(userDTO);
         authService.authenticate(userDTO,request);
         UsernameResponse usernameResponse = new UsernameResponse(userDTO.getUsername());
         return ResponseEntity
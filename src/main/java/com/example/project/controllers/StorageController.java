@@ -1,8 +1,16 @@
 package com.example.project.controllers;
 
 import com.example.project.annotations.storage.*;
+import com.example.project.dto.response.DeleteReportResponse;
+import com.example.project.dto.response.MoveReportResponse;
 import com.example.project.dto.response.ResourceInfoResponse;
+import com.example.project.dto.response.StorageJobResponse;
+import com.example.project.dto.response.UploadReportResponse;
+import com.example.project.dto.response.UploadSessionResponse;
+import com.example.project.dto.response.UploadedPartResponse;
 import com.example.project.services.StorageService;
+import com.example.project.services.UploadSessionService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -11,7 +19,6 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
-import java.util.Set;
 
 @RestController
 @RequiredArgsConstructor
@@ -19,6 +26,7 @@ import java.util.Set;
 public class StorageController {
 
     private final StorageService storageService;
+    private final UploadSessionService uploadSessionService;
 
     @ResourceInfoDoc
     @GetMapping("/resource")
@@ -29,60 +37,154 @@ public class StorageController {
 
     @RemoveResourceDoc
     @DeleteMapping("/resource")
-    public ResponseEntity<Void> removeResource(@RequestParam("path") String path) {
-        storageService.removeResource(path);
+    public ResponseEntity<?> removeResource(@RequestParam("path") String path,
+                                            @RequestParam(value = "async", defaultValue = "false") boolean async) {
+        if (async) {
+            StorageJobResponse job = storageService.removeResourceAsync(path);
+            return ResponseEntity
+                    .status(HttpStatus.ACCEPTED)
+                    .body(job);
+        }
+        DeleteReportResponse report = storageService.removeResource(path);
+        if (!report.failed().isEmpty()) {
+            return ResponseEntity
+                    .status(HttpStatus.MULTI_STATUS)
+                    .body(report);
+        }
         return ResponseEntity
                 .status(HttpStatus.NO_CONTENT)
                 .build();
     }
 
+    @StorageJobDoc
+    @GetMapping("/resource/jobs/{id}")
+    public ResponseEntity<StorageJobResponse> jobStatus(@PathVariable("id") String id) {
+        StorageJobResponse response = storageService.jobStatus(id);
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(response);
+    }
+
     @UploadResourceDoc
     @PostMapping("/resource")
-    public ResponseEntity<Set<ResourceInfoResponse>> uploadResource(@RequestParam("path") String path,
+    public ResponseEntity<?> uploadResource(@RequestParam("path") String path,
                                             @RequestParam(value = "object") MultipartFile[] objects) {
-        Set<ResourceInfoResponse> responses = storageService.uploadResource(path, objects);
+        UploadReportResponse report = storageService.uploadResource(path, objects);
+        if (!report.failed().isEmpty()) {
+            return ResponseEntity
+                    .status(HttpStatus.MULTI_STATUS)
+                    .body(report);
+        }
         return ResponseEntity
                 .status(HttpStatus.CREATED)
-                .body(responses);
+                .body(report.uploaded());
     }
 
-    @DownloadResourceDoc
-    @GetMapping("/resource/download")
-    public ResponseEntity<Void> downloadResource(@RequestParam("path") String path,
-                                                       HttpServletResponse response) {
-        storageService.downloadResource(path, response);
+    @UploadResourceStreamDoc
+    @PutMapping("/resource/stream")
+    public ResponseEntity<ResourceInfoResponse> uploadResourceStream(@RequestParam("path") String path,
+                                                                     HttpServletRequest request) {
+        ResourceInfoResponse response = storageService.uploadResourceStream(path, request);
         return ResponseEntity
-                .status(HttpStatus.OK)
+                .status(HttpStatus.CREATED)
+                .body(response);
+    }
+
+    @UploadSessionInitiateDoc
+    @PostMapping("/resource/uploads")
+    public ResponseEntity<UploadSessionResponse> initiateUpload(@RequestParam("path") String path,
+                                                                @RequestParam(value = "contentType", required = false) String contentType) {
+        UploadSessionResponse response = uploadSessionService.initiate(path, contentType);
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(response);
+    }
+
+    @UploadPartDoc
+    @PutMapping("/resource/uploads/{id}/parts/{partNumber}")
+    public ResponseEntity<UploadedPartResponse> uploadPart(@PathVariable("id") String id,
+                                                           @PathVariable("partNumber") int partNumber,
+                                                           HttpServletRequest request) {
+        UploadedPartResponse response = uploadSessionService.uploadPart(id, partNumber, request);
+        return ResponseEntity.ok(response);
+    }
+
+    @UploadSessionStatusDoc
+    @GetMapping("/resource/uploads/{id}")
+    public ResponseEntity<UploadSessionResponse> uploadStatus(@PathVariable("id") String id) {
+        UploadSessionResponse response = uploadSessionService.status(id);
+        return ResponseEntity.ok(response);
+    }
+
+    @UploadSessionCompleteDoc
+    @PostMapping("/resource/uploads/{id}/complete")
+    public ResponseEntity<ResourceInfoResponse> completeUpload(@PathVariable("id") String id) {
+        ResourceInfoResponse response = uploadSessionService.complete(id);
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(response);
+    }
+
+    @UploadSessionAbortDoc
+    @DeleteMapping("/resource/uploads/{id}")
+    public ResponseEntity<Void> abortUpload(@PathVariable("id") String id) {
+        uploadSessionService.abort(id);
+        return ResponseEntity
+                .status(HttpStatus.NO_CONTENT)
                 .build();
     }
 
+    @DownloadResourceDoc
+    @GetMapping("/resource/download")
+    public void downloadResource(@RequestParam("path") String path,
+                                 HttpServletRequest request,
+                                 HttpServletResponse response) {
+        storageService.downloadResource(path, request, response);
+    }
+
     // from - старый путь, to - новый путь
     @MoverRenamerResourceDoc
     @GetMapping("/resource/move")
-    public ResponseEntity<ResourceInfoResponse> moverRenamerResource(@RequestParam("from") String from,
+    public ResponseEntity<?> moverRenamerResource(@RequestParam("from") String from,
                                                   @RequestParam("to") String to) {
-        ResourceInfoResponse response = storageService.moverOrRename(from, to);
+        MoveReportResponse report = storageService.moverOrRename(from, to);
+        if (!report.failed().isEmpty()) {
+            return ResponseEntity
+                    .status(HttpStatus.MULTI_STATUS)
+                    .body(report);
+        }
         return ResponseEntity
                 .status(HttpStatus.OK)
-                .body(response);
+                .body(report.moved());
     }
 
     @SearchResourceDoc
     @GetMapping("/resource/search")
-    public ResponseEntity<List<ResourceInfoResponse>> searchResource(@RequestParam("query") String query) {
-        List<ResourceInfoResponse> response = storageService.searchResource(query);
+    public ResponseEntity<List<ResourceInfoResponse>> searchResource(@RequestParam("query") String query,
+                                                                     @RequestParam(value = "limit", defaultValue = "100") int limit,
+                                                                     @RequestParam(value = "offset", defaultValue = "0") int offset) {
+        List<ResourceInfoResponse> response = storageService.searchResource(query, limit, offset);
         return ResponseEntity
                 .status(HttpStatus.OK)
                 .body(response);
     }
 
+    @SearchResourceStreamDoc
+    @GetMapping("/resource/search/stream")
+    public void searchResourceStream(@RequestParam("query") String query,
+                                     @RequestParam(value = "limit", defaultValue = "100") int limit,
+                                     HttpServletResponse response) {
+        storageService.searchResourceStream(query, limit, response);
+    }
+
     @DirectoryContentsDoc
     @GetMapping("/directory")
-    public ResponseEntity<List<ResourceInfoResponse>> directoryContents(@RequestParam("path") String path) {
-        List<ResourceInfoResponse> response = storageService.directoryContents(path);
-        return ResponseEntity
-                .status(HttpStatus.OK)
-                .body(response);
+    public void directoryContents(@RequestParam("path") String path,
+                                  @RequestParam(value = "limit", required = false) Integer limit,
+                                  @RequestParam(value = "continuationToken", required = false) String continuationToken,
+                                  @RequestParam(value = "sort", defaultValue = "name") String sort,
+                                  HttpServletResponse response) {
+        storageService.directoryContents(path, limit, continuationToken, sort, response);
     }
     @CreateEmptyFolderDoc
     @PostMapping("/directory")
@@ -0,0 +1,5 @@
+package com.example.project.dto.response;
+
+import java.util.List;
+
+public record DeleteReportResponse(String path, long deleted, List<FailedObjectResponse> failed) {}
@@ -0,0 +1,3 @@
+package com.example.project.dto.response;
+
+public record FailedObjectResponse(String path, String message) {}
@@ -0,0 +1,7 @@
+package com.example.project.dto.response;
+
+import com.example.project.utils.JobStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record StorageJobResponse(String id, JobStatus status, DeleteReportResponse report, String message) {}
@@ -0,0 +1,5 @@
+package com.example.project.dto.response;
+
+import java.util.List;
+
+public record UploadReportResponse(List<ResourceInfoResponse> uploaded, List<FailedObjectResponse> failed) {}
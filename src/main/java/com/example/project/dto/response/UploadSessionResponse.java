@@ -0,0 +1,10 @@
+package com.example.project.dto.response;
+
+import java.util.List;
+
+public record UploadSessionResponse(String id,
+                                    String path,
+                                    String name,
+                                    long maxPartSize,
+                                    List<UploadedPartResponse> parts,
+                                    long expiresAt) {}
@@ -0,0 +1,5 @@
+package com.example.project.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+public record UploadedPartResponse(int number, long size, @JsonIgnore String etag) {}
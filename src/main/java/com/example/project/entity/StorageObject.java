@@ -0,0 +1,46 @@
+package com.example.project.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Запись индекса объектов пользователя. Хранит ключ объекта относительно бакета
+ * и уже разобранные путь/имя, чтобы поиск не требовал листинга MinIO
+ */
+@Entity
+@Table(name = "storage_objects")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StorageObject {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "user_id")
+    private int userId;
+
+    @Column(name = "object_name")
+    private String objectName;
+
+    @Column(name = "parent_path")
+    private String parentPath;
+
+    @Column(name = "name")
+    private String name;
+
+    @Column(name = "size")
+    private long size;
+
+    @Column(name = "is_directory")
+    private boolean directory;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -29,8 +29,10 @@ public class User implements Serializable {
 
     private static final int LOGIN_MIN_LENGTH = 5;
     private static final int LOGIN_MAX_LENGTH = 30;
-    private static final int PASSWORD_MIN_LENGTH = 6;
-    private static final int PASSWORD_MAX_LENGTH = 60;
+    /**
+     * Хранится хэш с префиксом алгоритма ({@code {bcrypt}...}), его длина зависит от алгоритма, а не от пароля
+     */
+    private static final int PASSWORD_HASH_MAX_LENGTH = 255;
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -44,7 +46,7 @@ public class User implements Serializable {
     private String username;
 
     @NotEmpty(message = "Пароль не должен быть пустым")
-    @Size(min = PASSWORD_MIN_LENGTH,max = PASSWORD_MAX_LENGTH,message = "Пароля должен быть в диапазоне от 6 до 50 символом")
+    @Size(max = PASSWORD_HASH_MAX_LENGTH, message = "Хэш пароля не должен быть длиннее 255 символов")
     @Column(name = "password_hash")
     private String password;
 
@@ -53,6 +55,9 @@ public class User implements Serializable {
     @Column(name = "role")
     private Role role;
 
+    @Column(name = "storage_indexed")
+    private boolean storageIndexed;
+
     public User(String username,
                 String password,
                 Role role) {
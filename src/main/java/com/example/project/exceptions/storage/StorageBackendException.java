@@ -0,0 +1,8 @@
+package com.example.project.exceptions.storage;
+
+public class StorageBackendException extends RuntimeException {
+    public StorageBackendException(String message,
+                                   Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.project.repositories;
+
+import com.example.project.entity.StorageObject;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StorageObjectRepository extends JpaRepository<StorageObject, Long> {
+
+    boolean existsByUserIdAndObjectName(int userId, String objectName);
+
+    @Query(value = """
+            SELECT * FROM storage_objects
+            WHERE user_id = :userId AND lower(name) LIKE lower(:pattern)
+            ORDER BY is_directory DESC, object_name
+            LIMIT :limit OFFSET :offset
+            """, nativeQuery = true)
+    List<StorageObject> searchByName(@Param("userId") int userId,
+                                     @Param("pattern") String pattern,
+                                     @Param("limit") int limit,
+                                     @Param("offset") int offset);
+
+    @Query(value = """
+            SELECT * FROM storage_objects
+            WHERE user_id = :userId AND lower(object_name) LIKE lower(:pattern)
+            ORDER BY is_directory DESC, object_name
+            LIMIT :limit OFFSET :offset
+            """, nativeQuery = true)
+    List<StorageObject> searchByObjectName(@Param("userId") int userId,
+                                           @Param("pattern") String pattern,
+                                           @Param("limit") int limit,
+                                           @Param("offset") int offset);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM storage_objects WHERE user_id = :userId AND object_name IN (:objectNames)",
+            nativeQuery = true)
+    void deleteObjects(@Param("userId") int userId,
+                       @Param("objectNames") Collection<String> objectNames);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM storage_objects WHERE user_id = :userId AND object_name LIKE :prefixPattern",
+            nativeQuery = true)
+    void deleteByPrefix(@Param("userId") int userId,
+                        @Param("prefixPattern") String prefixPattern);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM storage_objects WHERE user_id = :userId", nativeQuery = true)
+    void deleteAllByUser(@Param("userId") int userId);
+
+    /**
+     * Переносит всё содержимое папки под новый префикс одной командой.
+     * Сам маркер папки (ключ, равный старому префиксу) не трогается — у него меняется имя, а не только путь
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE storage_objects
+            SET object_name = :newPrefix || substring(object_name FROM char_length(:oldPrefix) + 1),
+                parent_path = :newPrefix || substring(parent_path FROM char_length(:oldPrefix) + 1),
+                updated_at = CURRENT_TIMESTAMP
+            WHERE user_id = :userId
+              AND object_name LIKE :oldPrefixPattern
+              AND object_name <> :oldPrefix
+            """, nativeQuery = true)
+    void movePrefix(@Param("userId") int userId,
+                    @Param("oldPrefix") String oldPrefix,
+                    @Param("oldPrefixPattern") String oldPrefixPattern,
+                    @Param("newPrefix") String newPrefix);
+}
@@ -2,7 +2,11 @@ package com.example.project.repositories;
 
 import com.example.project.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -10,4 +14,48 @@ import java.util.Optional;
 public interface UserRepository extends JpaRepository<User, Integer> {
 
     Optional<User> findByUsername(String username);
+
+    @Query("SELECT u.storageIndexed FROM User u WHERE u.id = :id")
+    boolean isStorageIndexed(@Param("id") int id);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.storageIndexed = :indexed WHERE u.id = :id")
+    void updateStorageIndexed(@Param("id") int id,
+                              @Param("indexed") boolean indexed);
+
+    @Query(value = "SELECT storage_index_version FROM users WHERE id = :id", nativeQuery = true)
+    long getStorageIndexVersion(@Param("id") int id);
+
+    /**
+     * Отмечает запись в индекс, пока он устаревший: перестройка, начатая до этой записи, не будет зафиксирована
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE users SET storage_index_version = storage_index_version + 1
+            WHERE id = :id AND storage_indexed = false
+            """, nativeQuery = true)
+    void bumpStorageIndexVersion(@Param("id") int id);
+
+    /**
+     * Compare-and-set: помечает индекс построенным, только если он ещё не был помечен
+     * и с начала перестройки в индекс никто не писал
+     *
+     * @return 1, если флаг изменён этим вызовом
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE users SET storage_indexed = true
+            WHERE id = :id AND storage_indexed = false AND storage_index_version = :version
+            """, nativeQuery = true)
+    int markStorageIndexed(@Param("id") int id,
+                           @Param("version") long version);
+
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE User u SET u.password = :passwordHash WHERE u.id = :id")
+    void updatePassword(@Param("id") int id,
+                        @Param("passwordHash") String passwordHash);
 }
@@ -0,0 +1,93 @@
+package com.example.project.security;
+
+import com.example.project.services.impl.UserDetailsServiceImpl;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Провайдер входа по логину и паролю. Пользователь загружается одним запросом через {@link UserDetailsServiceImpl},
+ * устаревший хэш пересчитывается после успешного входа.
+ * Опционально помнит недавно проверенные пары логин/пароль, чтобы клиенты, которые часто входят заново,
+ * не платили за BCrypt каждый раз. В кэше лежит только HMAC пароля вместе с текущим хэшем из БД на случайном ключе узла:
+ * смена пароля или пересчёт хэша сами делают запись недействительной, а пользователь всё равно читается из БД
+ */
+@Slf4j
+@Component
+public class CachingAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final char SEPARATOR = '\0';
+
+    private final Cache<String, Boolean> verified;
+    private final boolean cacheEnabled;
+    private final SecretKeySpec key;
+
+    public CachingAuthenticationProvider(UserDetailsServiceImpl userDetailsService,
+                                         PasswordEncoder passwordEncoder,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${auth.credentials-cache.enabled:false}") boolean cacheEnabled,
+                                         @Value("${auth.credentials-cache.ttl:5m}") Duration ttl,
+                                         @Value("${auth.credentials-cache.max-size:10000}") long maxSize) {
+        setPasswordEncoder(passwordEncoder);
+        setUserDetailsService(userDetailsService);
+        setUserDetailsPasswordService(userDetailsService);
+        this.cacheEnabled = cacheEnabled;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verified, "auth.credentials");
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, HMAC_ALGORITHM);
+    }
+
+    @Override
+    protected void additionalAuthenticationChecks(UserDetails userDetails,
+                                                  UsernamePasswordAuthenticationToken authentication) throws AuthenticationException {
+        if (!cacheEnabled || authentication.getCredentials() == null) {
+            super.additionalAuthenticationChecks(userDetails, authentication);
+            return;
+        }
+        String cacheKey = cacheKey(userDetails, authentication.getCredentials().toString());
+        if (verified.getIfPresent(cacheKey) != null) {
+            log.debug("Пароль пользователя '{}' недавно проверен, хэш не пересчитывается", userDetails.getUsername());
+            return;
+        }
+        super.additionalAuthenticationChecks(userDetails, authentication);
+        verified.put(cacheKey, Boolean.TRUE);
+    }
+
+    private String cacheKey(UserDetails userDetails,
+                            String rawPassword) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            mac.update(userDetails.getPassword().getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) SEPARATOR);
+            byte[] digest = mac.doFinal(rawPassword.getBytes(StandardCharsets.UTF_8));
+            return userDetails.getUsername() + SEPARATOR + Base64.getEncoder().encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC недоступен", e);
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package com.example.project.security;
 
 import com.example.project.entity.User;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -11,11 +10,26 @@ import java.util.Collection;
 import java.util.Collections;
 
 @Slf4j
-@RequiredArgsConstructor
 public class UserDetailsImpl implements UserDetails {
 
     private final User user;
 
+    public UserDetailsImpl(User user) {
+        this.user = user;
+    }
+
+    public int getId() {
+        return user.getId();
+    }
+
+    /**
+     * Копия с новым хэшем пароля, остальные поля пользователя не меняются
+     */
+    public UserDetailsImpl withPassword(String passwordHash) {
+        return new UserDetailsImpl(new User(user.getId(), user.getUsername(), passwordHash,
+                user.getRole(), user.isStorageIndexed()));
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         String role = "ROLE_" + user.getRole().name();
@@ -0,0 +1,82 @@
+package com.example.project.services;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Метаданные дедупликации в Postgres: блобы с подсчётом ссылок и ссылки на них по ключам бакетов
+ */
+public interface ContentStoreService {
+
+    boolean blobExists(String hash);
+
+    /**
+     * Берёт одну ссылку на блоб, создавая запись о нём при необходимости
+     *
+     * @return {@code true}, если записи о блобе не было и байты нужно положить в хранилище
+     */
+    boolean acquire(String hash, long size);
+
+    /**
+     * Отдаёт ссылку, взятую {@link #acquire}, но так и не привязанную к ключу
+     */
+    void release(String hash);
+
+    /**
+     * Привязывает ключ к блобу, на который уже взята ссылка. Прежний блоб ключа отпускается
+     */
+    void link(String bucketName, String key, String hash, long size, String contentType);
+
+    Optional<BlobReference> find(String bucketName, String key);
+
+    /**
+     * @param from  наименьший ключ, который можно вернуть
+     * @param after ключ, после которого читать, или {@code null}
+     * @return не больше {@code limit} ссылок под {@code prefix} в порядке возрастания ключей
+     */
+    List<BlobReference> list(String bucketName, String prefix, String from, String after, int limit);
+
+    boolean hasReferences(String bucketName);
+
+    /**
+     * Ссылка на тот же блоб под новым ключом, байты не копируются
+     *
+     * @return {@code false}, если исходный ключ не ссылка
+     */
+    boolean copy(String sourceBucket, String sourceKey, String targetBucket, String targetKey);
+
+    /**
+     * @return {@code false}, если ключ не ссылка
+     */
+    boolean unlink(String bucketName, String key);
+
+    /**
+     * @return ключи, которые были ссылками и удалены
+     */
+    Set<String> unlinkAll(String bucketName, Collection<String> keys);
+
+    /**
+     * Удаляет записи о блобах без ссылок, отпущенных раньше {@code releasedBefore}. Записи блокируются
+     * на время удаления байтов, так что одновременная загрузка того же содержимого дождётся
+     * и положит байты заново
+     *
+     * @param remover удаляет байты блоба, {@code false} — оставить запись до следующего раза
+     * @return сколько блобов удалено
+     */
+    int sweep(Instant releasedBefore, int limit, Predicate<String> remover);
+
+    /**
+     * @param key полный ключ в бакете
+     */
+    record BlobReference(String key,
+                         String hash,
+                         long size,
+                         String contentType,
+                         ZonedDateTime updatedAt) {
+    }
+}
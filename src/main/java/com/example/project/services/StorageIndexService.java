@@ -0,0 +1,29 @@
+package com.example.project.services;
+
+import com.example.project.dto.response.ResourceInfoResponse;
+import com.example.project.utils.UserStorage;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface StorageIndexService {
+
+    void indexFile(int userId, String objectName, long size);
+
+    void indexDirectory(int userId, String objectName);
+
+    void removeObjects(int userId, Collection<String> objectNames);
+
+    void removeDirectory(int userId, String prefix);
+
+    void moveFile(int userId, String oldObjectName, String newObjectName, long size);
+
+    void moveDirectory(int userId, String oldPrefix, String newPrefix);
+
+    void markStale(int userId);
+
+    List<ResourceInfoResponse> search(int userId, UserStorage storage, String query, int limit, int offset);
+
+    int searchStream(int userId, UserStorage storage, String query, int limit, Consumer<ResourceInfoResponse> sink);
+}
@@ -1,27 +1,39 @@
 package com.example.project.services;
 
+import com.example.project.dto.response.DeleteReportResponse;
+import com.example.project.dto.response.MoveReportResponse;
 import com.example.project.dto.response.ResourceInfoResponse;
+import com.example.project.dto.response.StorageJobResponse;
+import com.example.project.dto.response.UploadReportResponse;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
-import java.util.Set;
 
 public interface StorageService {
 
-    void removeResource(String path);
+    DeleteReportResponse removeResource(String path);
 
-    void downloadResource(String path, HttpServletResponse response);
+    StorageJobResponse removeResourceAsync(String path);
+
+    StorageJobResponse jobStatus(String id);
+
+    void downloadResource(String path, HttpServletRequest request, HttpServletResponse response);
 
     ResourceInfoResponse resourceInfo(String path);
 
-    ResourceInfoResponse moverOrRename(String from, String to);
+    MoveReportResponse moverOrRename(String from, String to);
+
+    List<ResourceInfoResponse> searchResource(String query, int limit, int offset);
+
+    void searchResourceStream(String query, int limit, HttpServletResponse response);
 
-    List<ResourceInfoResponse> searchResource(String query);
+    void directoryContents(String path, Integer limit, String continuationToken, String sort, HttpServletResponse response);
 
-    List<ResourceInfoResponse> directoryContents(String path);
+    UploadReportResponse uploadResource(String path, MultipartFile[] objects);
 
-    Set<ResourceInfoResponse> uploadResource(String path, MultipartFile[] objects);
+    ResourceInfoResponse uploadResourceStream(String path, HttpServletRequest request);
 
     ResourceInfoResponse createEmptyFolder(String path);
 }
@@ -0,0 +1,19 @@
+package com.example.project.services;
+
+import com.example.project.dto.response.ResourceInfoResponse;
+import com.example.project.dto.response.UploadSessionResponse;
+import com.example.project.dto.response.UploadedPartResponse;
+import jakarta.servlet.http.HttpServletRequest;
+
+public interface UploadSessionService {
+
+    UploadSessionResponse initiate(String path, String contentType);
+
+    UploadedPartResponse uploadPart(String id, int partNumber, HttpServletRequest request);
+
+    UploadSessionResponse status(String id);
+
+    ResourceInfoResponse complete(String id);
+
+    void abort(String id);
+}
@@ -4,17 +4,18 @@ import com.example.project.dto.request.UserDTO;
 import com.example.project.entity.User;
 import com.example.project.exceptions.auth.AuthenticationCredentialsNotFoundException;
 import com.example.project.exceptions.auth.SpongeBobSquarePants;
-import com.example.project.exceptions.storage.BucketNotFoundException;
+import com.example.project.exceptions.auth.UniqueUsernameException;
 import com.example.project.repositories.UserRepository;
+import com.example.project.security.UserDetailsImpl;
 import com.example.project.services.AuthService;
-import io.minio.BucketExistsArgs;
-import io.minio.MakeBucketArgs;
-import io.minio.MinioClient;
+import com.example.project.utils.StorageLayout;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -24,7 +25,6 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @Slf4j
@@ -32,12 +32,24 @@ import org.springframework.transaction.annotation.Transactional;
 @Primary
 public class AuthServiceImpl implements AuthService {
 
+    /**
+     * Имя, которое Postgres дал ограничению {@code UNIQUE} на users.username
+     */
+    private static final String USERNAME_CONSTRAINT = "users_username_key";
+
     private final PasswordEncoder passwordEncoder;
     private final UserRepository userRepository;
     private final AuthenticationManager authenticationManager;
-    private final MinioClient minioClient;
-
-    @Transactional
+    private final StorageLayout storageLayout;
+
+    /**
+     * Занятость логина определяет уникальный индекс users.username, без предварительного запроса;
+     * нарушения других ограничений пробрасываются как есть.
+     * Вставка — отдельная короткая транзакция: хранилище в MinIO готовится уже после неё, чтобы соединение с БД
+     * не держалось на время обращения к MinIO. Если хранилище подготовить не удалось, пользователь удаляется,
+     * и регистрацию можно просто повторить. Сессия заполняется только что сохранённым пользователем,
+     * без повторной проверки пароля
+     */
     @Override
     public void registerAndAuthenticateUser(UserDTO userDTO,
                                             HttpServletRequest request) {
@@ -48,10 +60,34 @@ public class AuthServiceImpl implements AuthService {
         }
 
         final User user = User.createUserFromDTO(userDTO, passwordEncoder);
-            userRepository.save(user);
-            log.info("Пользователь '{}' сохранён в базу данных", user.getUsername());
-            createBucketByUsername(user);
-            setupAuthenticationAndSession(userDTO,request);
+        try {
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (!isUsernameTaken(e)) {
+                throw e;
+            }
+            log.warn("Логин '{}' уже занят", userDTO.getUsername());
+            throw new UniqueUsernameException(String.format("Пользователь с логином '%s' уже зарегистрирован", userDTO.getUsername()));
+        }
+        log.info("Пользователь '{}' сохранён в базу данных", user.getUsername());
+
+        try {
+            storageLayout.provision(storageLayout.resolve(user.getId(), user.getUsername()));
+        } catch (RuntimeException e) {
+            try {
+                userRepository.deleteById(user.getId());
+                log.warn("Пользователь '{}' удалён, так как для него не создано хранилище", user.getUsername());
+            } catch (RuntimeException deleteError) {
+                log.error("Не удалось удалить пользователя '{}' без хранилища: {}",
+                        user.getUsername(), deleteError.getMessage());
+                e.addSuppressed(deleteError);
+            }
+            throw e;
+        }
+
+        UserDetailsImpl userDetails = new UserDetailsImpl(user);
+        storeAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                userDetails, null, userDetails.getAuthorities()), request);
     }
 
     @Override
@@ -82,6 +118,15 @@ public class AuthServiceImpl implements AuthService {
         }
     }
 
+    private static boolean isUsernameTaken(DataIntegrityViolationException e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return USERNAME_CONSTRAINT.equalsIgnoreCase(violation.getConstraintName());
+            }
+        }
+        return false;
+    }
+
     private void setupAuthenticationAndSession(UserDTO userDTO,
                                                HttpServletRequest request) {
         Authentication authentication = new UsernamePasswordAuthenticationToken(
@@ -89,44 +134,18 @@ public class AuthServiceImpl implements AuthService {
 
         Authentication authenticationUser = authenticationManager.authenticate(authentication);
         log.debug("Аутентификация пользователя '{}' прошла успешно", userDTO.getUsername());
+        storeAuthentication(authenticationUser, request);
+    }
 
+    private void storeAuthentication(Authentication authentication,
+                                     HttpServletRequest request) {
         SecurityContext context = SecurityContextHolder.createEmptyContext();
-        context.setAuthentication(authenticationUser);
+        context.setAuthentication(authentication);
         SecurityContextHolder.setContext(context);
         log.debug("Создание и заполнение нового контекста прошли успешно");
 
         HttpSession session = request.getSession(true);
         session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY, context);
-        log.info("Сессия для пользователя '{}' была успешно создана", userDTO.getUsername());
-    }
-
-    private void createBucketByUsername(User user) {
-        String bucketName = toValidBucketName(user.getUsername(), user.getId());
-        try {
-            boolean exists = minioClient.bucketExists(
-                    BucketExistsArgs.builder().bucket(bucketName).build()
-            );
-            if (!exists) {
-                minioClient.makeBucket(
-                        MakeBucketArgs.builder().bucket(bucketName).build()
-                );
-                log.info("Бакет с названием '{}' создан", bucketName);
-            } else {
-                log.info("Бакет с названием '{}' уже существует", bucketName);
-            }
-        } catch (Exception e) {
-            log.error("Не удалось создать бакет для пользователя '{}': {}", user.getUsername(), e.toString());
-            throw new BucketNotFoundException("Не удалось создать бакет для нового пользователя");
-        }
-    }
-
-    public static String toValidBucketName(String username,
-                                           int userId) {
-        return username
-                .toLowerCase()
-                .replaceAll("[^a-z0-9-]", "-")
-                .replaceAll("^-+", "")
-                .replaceAll("-+$", "")
-                + "-" + userId;
+        log.info("Сессия для пользователя '{}' была успешно создана", authentication.getName());
     }
 }
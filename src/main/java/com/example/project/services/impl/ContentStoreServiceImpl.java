@@ -0,0 +1,243 @@
+package com.example.project.services.impl;
+
+import com.example.project.services.ContentStoreService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * Счётчики ссылок меняются одной командой UPDATE, без чтения в приложение. Несколько блобов
+ * всегда обновляются в порядке хэшей, чтобы параллельные удаления не ловили взаимную блокировку
+ */
+@Service
+@RequiredArgsConstructor
+public class ContentStoreServiceImpl implements ContentStoreService {
+
+    /**
+     * {@code xmax = 0} только у строки, которую команда вставила, а не обновила
+     */
+    private static final String ACQUIRE_SQL = """
+            INSERT INTO content_blobs (hash, size, ref_count)
+            VALUES (?, ?, 1)
+            ON CONFLICT (hash)
+            DO UPDATE SET ref_count = content_blobs.ref_count + 1, released_at = NULL
+            RETURNING xmax = 0
+            """;
+
+    private static final String RETAIN_SQL = """
+            UPDATE content_blobs SET ref_count = ref_count + 1, released_at = NULL
+            WHERE hash = ?
+            """;
+
+    private static final String RELEASE_SQL = """
+            UPDATE content_blobs
+            SET ref_count = ref_count - ?,
+                released_at = CASE WHEN ref_count = ? THEN CURRENT_TIMESTAMP ELSE released_at END
+            WHERE hash = ?
+            """;
+
+    private static final String LOCK_REFERENCE_SQL = """
+            SELECT hash FROM blob_refs
+            WHERE bucket_name = ? AND object_key = ?
+            FOR UPDATE
+            """;
+
+    private static final String UPSERT_REFERENCE_SQL = """
+            INSERT INTO blob_refs (bucket_name, object_key, hash, size, content_type)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (bucket_name, object_key)
+            DO UPDATE SET hash = EXCLUDED.hash, size = EXCLUDED.size, content_type = EXCLUDED.content_type,
+                          updated_at = CURRENT_TIMESTAMP
+            """;
+
+    private static final String FIND_REFERENCE_SQL = """
+            SELECT object_key, hash, size, content_type, updated_at FROM blob_refs
+            WHERE bucket_name = ? AND object_key = ?
+            """;
+
+    private static final String LIST_REFERENCES_SQL = """
+            SELECT object_key, hash, size, content_type, updated_at FROM blob_refs
+            WHERE bucket_name = ? AND object_key LIKE ? AND object_key >= ? AND object_key > ?
+            ORDER BY object_key
+            LIMIT ?
+            """;
+
+    private static final String DELETE_REFERENCE_SQL = """
+            DELETE FROM blob_refs WHERE bucket_name = ? AND object_key = ?
+            RETURNING hash
+            """;
+
+    private static final String DELETE_REFERENCES_SQL = """
+            DELETE FROM blob_refs WHERE bucket_name = ? AND object_key = ANY (?)
+            RETURNING object_key, hash
+            """;
+
+    private static final String LOCK_RELEASED_SQL = """
+            SELECT hash FROM content_blobs
+            WHERE ref_count = 0 AND released_at < ?
+            ORDER BY released_at
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+            """;
+
+    private static final RowMapper<BlobReference> REFERENCE_MAPPER = (rs, rowNum) -> new BlobReference(
+            rs.getString("object_key"),
+            rs.getString("hash"),
+            rs.getLong("size"),
+            rs.getString("content_type"),
+            rs.getTimestamp("updated_at").toInstant().atZone(ZoneOffset.UTC));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public boolean blobExists(String hash) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM content_blobs WHERE hash = ?)", Boolean.class, hash));
+    }
+
+    @Override
+    public boolean acquire(String hash,
+                           long size) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(ACQUIRE_SQL, Boolean.class, hash, size));
+    }
+
+    @Override
+    public void release(String hash) {
+        jdbcTemplate.update(RELEASE_SQL, 1, 1, hash);
+    }
+
+    @Override
+    @Transactional
+    public void link(String bucketName,
+                     String key,
+                     String hash,
+                     long size,
+                     String contentType) {
+        List<String> previous = jdbcTemplate.queryForList(LOCK_REFERENCE_SQL, String.class, bucketName, key);
+        jdbcTemplate.update(UPSERT_REFERENCE_SQL, bucketName, key, hash, size, contentType);
+        if (!previous.isEmpty()) {
+            jdbcTemplate.update(RELEASE_SQL, 1, 1, previous.get(0));
+        }
+    }
+
+    @Override
+    public Optional<BlobReference> find(String bucketName,
+                                        String key) {
+        return jdbcTemplate.query(FIND_REFERENCE_SQL, REFERENCE_MAPPER, bucketName, key).stream().findFirst();
+    }
+
+    @Override
+    public List<BlobReference> list(String bucketName,
+                                    String prefix,
+                                    String from,
+                                    String after,
+                                    int limit) {
+        return jdbcTemplate.query(LIST_REFERENCES_SQL, REFERENCE_MAPPER,
+                bucketName, escapeLike(prefix) + "%", from, after == null ? "" : after, limit);
+    }
+
+    @Override
+    public boolean hasReferences(String bucketName) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM blob_refs WHERE bucket_name = ?)", Boolean.class, bucketName));
+    }
+
+    @Override
+    @Transactional
+    public boolean copy(String sourceBucket,
+                        String sourceKey,
+                        String targetBucket,
+                        String targetKey) {
+        Optional<BlobReference> source = find(sourceBucket, sourceKey);
+        if (source.isEmpty()) {
+            return false;
+        }
+        BlobReference reference = source.get();
+        jdbcTemplate.update(RETAIN_SQL, reference.hash());
+        link(targetBucket, targetKey, reference.hash(), reference.size(), reference.contentType());
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public boolean unlink(String bucketName,
+                          String key) {
+        List<String> hashes = jdbcTemplate.queryForList(DELETE_REFERENCE_SQL, String.class, bucketName, key);
+        if (hashes.isEmpty()) {
+            return false;
+        }
+        jdbcTemplate.update(RELEASE_SQL, 1, 1, hashes.get(0));
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public Set<String> unlinkAll(String bucketName,
+                                 Collection<String> keys) {
+        Set<String> unlinked = new HashSet<>();
+        Map<String, Integer> released = new TreeMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(DELETE_REFERENCES_SQL);
+            statement.setString(1, bucketName);
+            statement.setArray(2, connection.createArrayOf("varchar", keys.toArray()));
+            return statement;
+        }, rs -> {
+            unlinked.add(rs.getString("object_key"));
+            released.merge(rs.getString("hash"), 1, Integer::sum);
+        });
+        List<Object[]> batch = new ArrayList<>(released.size());
+        for (Map.Entry<String, Integer> entry : released.entrySet()) {
+            batch.add(new Object[]{entry.getValue(), entry.getValue(), entry.getKey()});
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(RELEASE_SQL, batch);
+        }
+        return unlinked;
+    }
+
+    /**
+     * Байты удаляются внутри транзакции: пока запись заблокирована, {@link #acquire} того же хэша ждёт,
+     * а после фиксации вставит запись заново и сам положит байты
+     */
+    @Override
+    @Transactional
+    public int sweep(Instant releasedBefore,
+                     int limit,
+                     Predicate<String> remover) {
+        List<String> hashes = jdbcTemplate.queryForList(LOCK_RELEASED_SQL, String.class,
+                Timestamp.from(releasedBefore), limit);
+        List<Object[]> removed = new ArrayList<>(hashes.size());
+        for (String hash : hashes) {
+            if (remover.test(hash)) {
+                removed.add(new Object[]{hash});
+            }
+        }
+        if (!removed.isEmpty()) {
+            jdbcTemplate.batchUpdate("DELETE FROM content_blobs WHERE hash = ?", removed);
+        }
+        return removed.size();
+    }
+
+    private static String escapeLike(String value) {
+        return value
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
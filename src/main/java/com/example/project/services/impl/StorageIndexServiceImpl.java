@@ -0,0 +1,346 @@
+package com.example.project.services.impl;
+
+import com.example.project.dto.response.ResourceInfoResponse;
+import com.example.project.entity.StorageObject;
+import com.example.project.repositories.StorageObjectRepository;
+import com.example.project.repositories.UserRepository;
+import com.example.project.services.StorageIndexService;
+import com.example.project.exceptions.storage.StorageBackendException;
+import com.example.project.utils.MinioHelperService;
+import com.example.project.utils.StoredObject;
+import com.example.project.utils.UserStorage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Индекс объектов пользователя в Postgres. MinIO остаётся источником истины,
+ * индекс обновляется после каждой успешной мутации и перестраивается целиком,
+ * если синхронизация хотя бы раз не удалась
+ */
+@Service
+@Slf4j
+public class StorageIndexServiceImpl implements StorageIndexService {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO storage_objects (user_id, object_name, parent_path, name, size, is_directory)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT (user_id, object_name)
+            DO UPDATE SET size = EXCLUDED.size, updated_at = CURRENT_TIMESTAMP
+            """;
+
+    /**
+     * Без ORDER BY: Postgres отдаёт строки по мере нахождения и останавливается на LIMIT
+     */
+    private static final String STREAM_BY_NAME_SQL = """
+            SELECT parent_path, name, size, is_directory FROM storage_objects
+            WHERE user_id = ? AND lower(name) LIKE lower(?)
+            LIMIT ?
+            """;
+
+    private static final String STREAM_BY_OBJECT_NAME_SQL = """
+            SELECT parent_path, name, size, is_directory FROM storage_objects
+            WHERE user_id = ? AND lower(object_name) LIKE lower(?)
+            LIMIT ?
+            """;
+
+    private static final int STREAM_FETCH_SIZE = 50;
+
+    private final StorageObjectRepository storageObjectRepository;
+    private final UserRepository userRepository;
+    private final MinioHelperService minioHelperService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    public StorageIndexServiceImpl(StorageObjectRepository storageObjectRepository,
+                                   UserRepository userRepository,
+                                   MinioHelperService minioHelperService,
+                                   JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager) {
+        this.storageObjectRepository = storageObjectRepository;
+        this.userRepository = userRepository;
+        this.minioHelperService = minioHelperService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    @Override
+    public void indexFile(int userId,
+                          String objectName,
+                          long size) {
+        sync(userId, () -> upsert(userId, objectName, size));
+    }
+
+    @Override
+    public void indexDirectory(int userId,
+                               String objectName) {
+        sync(userId, () -> upsert(userId, objectName, 0));
+    }
+
+    @Override
+    public void removeObjects(int userId,
+                              Collection<String> objectNames) {
+        if (objectNames.isEmpty()) {
+            return;
+        }
+        sync(userId, () -> storageObjectRepository.deleteObjects(userId, objectNames));
+    }
+
+    @Override
+    public void removeDirectory(int userId,
+                                String prefix) {
+        sync(userId, () -> storageObjectRepository.deleteByPrefix(userId, escapeLike(prefix) + "%"));
+    }
+
+    @Override
+    public void moveFile(int userId,
+                         String oldObjectName,
+                         String newObjectName,
+                         long size) {
+        sync(userId, () -> {
+            storageObjectRepository.deleteObjects(userId, List.of(oldObjectName));
+            upsert(userId, newObjectName, size);
+        });
+    }
+
+    @Override
+    public void moveDirectory(int userId,
+                              String oldPrefix,
+                              String newPrefix) {
+        sync(userId, () -> {
+            storageObjectRepository.movePrefix(userId, oldPrefix, escapeLike(oldPrefix) + "%", newPrefix);
+            if (storageObjectRepository.existsByUserIdAndObjectName(userId, oldPrefix)) {
+                storageObjectRepository.deleteObjects(userId, List.of(oldPrefix));
+                upsert(userId, newPrefix, 0);
+            }
+        });
+    }
+
+    /**
+     * Для мутаций, результат которых в хранилище известен не полностью: индекс перестроится по листингу
+     * при следующем поиске
+     */
+    @Override
+    public void markStale(int userId) {
+        sync(userId, () -> userRepository.updateStorageIndexed(userId, false));
+    }
+
+    /**
+     * Без транзакции: перестройка индекса сама решает, когда ей нужна транзакция, а поиск — один запрос
+     */
+    @Override
+    public List<ResourceInfoResponse> search(int userId,
+                                             UserStorage storage,
+                                             String query,
+                                             int limit,
+                                             int offset) {
+        if (!userRepository.isStorageIndexed(userId)) {
+            rebuild(userId, storage);
+        }
+        String pattern = "%" + escapeLike(query) + "%";
+        List<StorageObject> found = query.contains("/")
+                ? storageObjectRepository.searchByObjectName(userId, pattern, limit, offset)
+                : storageObjectRepository.searchByName(userId, pattern, limit, offset);
+
+        List<ResourceInfoResponse> responseList = new ArrayList<>(found.size());
+        for (StorageObject object : found) {
+            responseList.add(object.isDirectory()
+                    ? ResourceInfoResponse.forDirectory(object.getParentPath(), object.getName() + "/")
+                    : ResourceInfoResponse.forFile(object.getParentPath(), object.getName(), object.getSize()));
+        }
+        return responseList;
+    }
+
+    /**
+     * Отдаёт совпадения в {@code sink} по одному, как только они найдены. Если индекс ещё не построен,
+     * не ждём перестройки, а идём по листингу бакета и прекращаем его на {@code limit}.
+     * Транзакция открывается только для курсора по индексу: листинг хранилища соединение с БД не держит
+     *
+     * @return сколько совпадений отдано
+     */
+    @Override
+    public int searchStream(int userId,
+                            UserStorage storage,
+                            String query,
+                            int limit,
+                            Consumer<ResourceInfoResponse> sink) {
+        if (!userRepository.isStorageIndexed(userId)) {
+            return scanBucket(storage, query, limit, sink);
+        }
+        Integer emitted = readOnlyTransactionTemplate.execute(status -> streamIndex(userId, query, limit, sink));
+        return emitted == null ? 0 : emitted;
+    }
+
+    /**
+     * Курсор Postgres с {@code fetchSize} работает только внутри транзакции
+     */
+    private int streamIndex(int userId,
+                            String query,
+                            int limit,
+                            Consumer<ResourceInfoResponse> sink) {
+        String sql = query.contains("/") ? STREAM_BY_OBJECT_NAME_SQL : STREAM_BY_NAME_SQL;
+        String pattern = "%" + escapeLike(query) + "%";
+
+        int emitted = 0;
+        try (Stream<ResourceInfoResponse> rows = jdbcTemplate.queryForStream(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+            statement.setInt(1, userId);
+            statement.setString(2, pattern);
+            statement.setInt(3, limit);
+            return statement;
+        }, (rs, rowNum) -> rs.getBoolean("is_directory")
+                ? ResourceInfoResponse.forDirectory(rs.getString("parent_path"), rs.getString("name") + "/")
+                : ResourceInfoResponse.forFile(rs.getString("parent_path"), rs.getString("name"), rs.getLong("size")))) {
+            Iterator<ResourceInfoResponse> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                sink.accept(iterator.next());
+                emitted++;
+            }
+        }
+        return emitted;
+    }
+
+    /**
+     * Ленивый листинг хранилища: выход из цикла означает, что следующие страницы не запрашиваются
+     */
+    private int scanBucket(UserStorage storage,
+                           String query,
+                           int limit,
+                           Consumer<ResourceInfoResponse> sink) {
+        String lowerQuery = query.toLowerCase(Locale.ROOT);
+        boolean byObjectName = query.contains("/");
+        int emitted = 0;
+        Iterator<StoredObject> objects = minioHelperService.listAllObjects(storage).iterator();
+        while (objects.hasNext()) {
+            StoredObject object;
+            try {
+                object = objects.next();
+            } catch (StorageBackendException e) {
+                log.error("Ошибка при обработке объекта: {}", e.getMessage());
+                continue;
+            }
+            String objectName = storage.relative(object.key());
+            Object[] row = toRow(0, objectName, object.size());
+            String parentPath = (String) row[2];
+            String name = (String) row[3];
+            boolean directory = (boolean) row[5];
+            String haystack = byObjectName ? objectName : name;
+            if (!haystack.toLowerCase(Locale.ROOT).contains(lowerQuery)) {
+                continue;
+            }
+            sink.accept(directory
+                    ? ResourceInfoResponse.forDirectory(parentPath, name + "/")
+                    : ResourceInfoResponse.forFile(parentPath, name, object.size()));
+            if (++emitted == limit) {
+                break;
+            }
+        }
+        return emitted;
+    }
+
+    /**
+     * Полная перестройка индекса по листингу бакета. Нужна для пользователей, зарегистрированных
+     * до появления индекса, и после неудачной синхронизации.
+     * Листинг читается целиком до транзакции, чтобы соединение с БД не держалось на время обращений к хранилищу;
+     * при любой ошибке листинга индекс остаётся устаревшим. Запись идёт одной транзакцией, которая начинается
+     * с compare-and-set флага {@code storage_indexed} и версии индекса, прочитанной до листинга:
+     * из одновременных перестроек индекс заменит только первая, а если за время листинга в индекс
+     * писала мутация, которую листинг мог не увидеть, перестройка отбрасывается и индекс остаётся устаревшим
+     */
+    private void rebuild(int userId,
+                         UserStorage storage) {
+        log.info("Перестраиваем индекс объектов пользователя с id {}", userId);
+        long version = userRepository.getStorageIndexVersion(userId);
+        List<Object[]> rows = new ArrayList<>();
+        Iterator<StoredObject> objects = minioHelperService.listAllObjects(storage).iterator();
+        try {
+            while (objects.hasNext()) {
+                StoredObject object = objects.next();
+                String objectName = storage.relative(object.key());
+                rows.add(toRow(userId, objectName, object.isDirectory() ? 0 : object.size()));
+            }
+        } catch (StorageBackendException e) {
+            log.error("Индекс пользователя с id {} не перестроен, листинг прерван: {}", userId, e.getMessage());
+            return;
+        }
+
+        Boolean rebuilt = transactionTemplate.execute(status -> {
+            if (userRepository.markStorageIndexed(userId, version) == 0) {
+                return false;
+            }
+            storageObjectRepository.deleteAllByUser(userId);
+            for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(UPSERT_SQL, rows.subList(from, Math.min(rows.size(), from + BATCH_SIZE)));
+            }
+            return true;
+        });
+        if (Boolean.TRUE.equals(rebuilt)) {
+            log.info("Индекс пользователя с id {} перестроен, объектов: {}", userId, rows.size());
+        } else {
+            log.info("Индекс пользователя с id {} уже перестроен другим запросом или изменился во время перестройки",
+                    userId);
+        }
+    }
+
+    private void upsert(int userId,
+                        String objectName,
+                        long size) {
+        jdbcTemplate.update(UPSERT_SQL, toRow(userId, objectName, size));
+    }
+
+    /**
+     * Ошибка индекса не должна ломать уже выполненную операцию в MinIO,
+     * поэтому индекс просто помечается устаревшим и перестроится при следующем поиске.
+     * Версия увеличивается до записи в индекс, но после записи в хранилище: перестройка, прочитавшая версию
+     * раньше, могла не увидеть эту мутацию в листинге и не будет зафиксирована
+     */
+    private void sync(int userId,
+                      Runnable operation) {
+        try {
+            userRepository.bumpStorageIndexVersion(userId);
+            operation.run();
+        } catch (Exception e) {
+            log.error("Не удалось обновить индекс пользователя с id {}: {}", userId, e.getMessage());
+            try {
+                userRepository.updateStorageIndexed(userId, false);
+            } catch (Exception ex) {
+                log.error("Не удалось пометить индекс пользователя с id {} устаревшим: {}", userId, ex.getMessage());
+            }
+        }
+    }
+
+    static Object[] toRow(int userId,
+                          String objectName,
+                          long size) {
+        boolean directory = objectName.endsWith("/");
+        String trimmed = directory ? objectName.substring(0, objectName.length() - 1) : objectName;
+        int lastSlashIndex = trimmed.lastIndexOf('/');
+        String parentPath = trimmed.substring(0, lastSlashIndex + 1);
+        String name = trimmed.substring(lastSlashIndex + 1);
+        return new Object[]{userId, objectName, parentPath, name, size, directory};
+    }
+
+    private static String escapeLike(String value) {
+        return value
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
@@ -1,19 +1,43 @@
 package com.example.project.services.impl;
 
+import com.example.project.dto.response.DeleteReportResponse;
+import com.example.project.dto.response.MoveReportResponse;
 import com.example.project.dto.response.ResourceInfoResponse;
+import com.example.project.dto.response.StorageJobResponse;
+import com.example.project.dto.response.UploadReportResponse;
 import com.example.project.exceptions.storage.*;
+import com.example.project.services.StorageIndexService;
 import com.example.project.services.StorageService;
+import com.example.project.utils.BatchObjectRemover;
+import com.example.project.utils.DirectoryListingCache;
+import com.example.project.utils.DirectoryListingWriter;
+import com.example.project.utils.DirectorySort;
 import com.example.project.utils.MinioHelperService;
-import com.example.project.utils.Resource;
-import io.minio.*;
-import io.minio.messages.Item;
+import com.example.project.utils.NdjsonResponseWriter;
+import com.example.project.utils.ObjectMover;
+import com.example.project.utils.ParallelUploader;
+import com.example.project.utils.ResourceDescriptor;
+import com.example.project.utils.StorageChangedEvent;
+import com.example.project.utils.StorageJobRegistry;
+import com.example.project.utils.StoragePath;
+import com.example.project.utils.StoredObject;
+import com.example.project.utils.UserStorage;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.*;
 
 @Service
@@ -23,148 +47,305 @@ import java.util.*;
 public class StorageServiceImpl implements StorageService {
 
     private final MinioHelperService minioHelperService;
+    private final StorageIndexService storageIndexService;
+    private final BatchObjectRemover batchObjectRemover;
+    private final StorageJobRegistry storageJobRegistry;
+    private final ObjectMover objectMover;
+    private final ParallelUploader parallelUploader;
+    private final DirectoryListingWriter directoryListingWriter;
+    private final DirectoryListingCache directoryListingCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final NdjsonResponseWriter ndjsonResponseWriter;
 
     @Override
     public ResourceInfoResponse resourceInfo(String path){
         log.info("Вход в 'resourceInfo', путь {}", path);
-        String bucketName = minioHelperService.bucketExists();
-        String normalizedPath = minioHelperService.normalizedPath(path);
-        minioHelperService.validatePath(path, bucketName);
-        return minioHelperService.getResourceMetadata(normalizedPath, bucketName);
+        UserStorage storage = minioHelperService.getActiveUserStorage();
+        StoragePath resourcePath = StoragePath.of(path).requireNotRoot();
+        return minioHelperService.getResourceMetadata(resourcePath, storage);
     }
 
     @Override
-    public void removeResource(String path) {
+    public DeleteReportResponse removeResource(String path) {
         log.info("Вход в 'removeResource', путь: {}", path);
-        String bucketName = minioHelperService.bucketExists();
-        minioHelperService.validatePath(path, bucketName);
-        String normalizedPath = minioHelperService.normalizedPath(path);
-        ResourceInfoResponse resourceInfo = minioHelperService.getResourceMetadata(normalizedPath, bucketName);
-        if (!resourceInfo.name().endsWith("/")) {
-            minioHelperService.deleteFile(normalizedPath, bucketName);
-        } else {
-            minioHelperService.deleteDirectory(normalizedPath, bucketName);
+        UserStorage storage = minioHelperService.getActiveUserStorage();
+        StoragePath resourcePath = StoragePath.of(path).requireNotRoot();
+        int userId = minioHelperService.getActiveUserId();
+        ResourceDescriptor resource = minioHelperService.resolveResource(resourcePath, storage);
+        return remove(resource, storage, userId);
+    }
+
+    @Override
+    public StorageJobResponse removeResourceAsync(String path) {
+        log.info("Вход в 'removeResourceAsync', путь: {}", path);
+        UserStorage storage = minioHelperService.getActiveUserStorage();
+        StoragePath resourcePath = StoragePath.of(path).requireNotRoot();
+        int userId = minioHelperService.getActiveUserId();
+        ResourceDescriptor resource = minioHelperService.resolveResource(resourcePath, storage);
+        return storageJobRegistry.submit(userId, () -> remove(resource, storage, userId));
+    }
+
+    @Override
+    public StorageJobResponse jobStatus(String id) {
+        return storageJobRegistry.get(minioHelperService.getActiveUserId(), id);
+    }
+
+    private DeleteReportResponse remove(ResourceDescriptor resource,
+                                        UserStorage storage,
+                                        int userId) {
+        String normalizedPath = resource.path();
+        if (resource.isFile()) {
+            minioHelperService.deleteFile(normalizedPath, storage);
+            eventPublisher.publishEvent(StorageChangedEvent.object(storage.id(), normalizedPath));
+            storageIndexService.removeObjects(userId, List.of(normalizedPath));
+            return new DeleteReportResponse(normalizedPath, 1, List.of());
+        }
+        try {
+            return batchObjectRemover.removeDirectory(storage, normalizedPath,
+                    removed -> storageIndexService.removeObjects(userId, removed));
+        } finally {
+            eventPublisher.publishEvent(StorageChangedEvent.tree(storage.id(), normalizedPath + "/"));
         }
     }
 
     @Override
     public void downloadResource(String path,
+                                 HttpServletRequest request,
                                  HttpServletResponse response) {
         log.info("Вход в метод 'downloadResource', путь: {}", path);
-        String bucketName = minioHelperService.bucketExists();
-        if (path == null || path.trim().isEmpty()) {
+        UserStorage storage = minioHelperService.getActiveUserStorage();
+        StoragePath resourcePath = StoragePath.of(path);
+        if (resourcePath.isRoot()) {
             throw new PathNotFoundException("Невозможно скачать бакет");
         }
-        String normalizedPath = minioHelperService.normalizedPath(path);
-        ResourceInfoResponse resourceInfo = minioHelperService.getResourceMetadata(normalizedPath, bucketName);
-        if (resourceInfo.name().endsWith("/")) {
-            minioHelperService.downloadDirectory(normalizedPath,bucketName, response);
+        ResourceDescriptor resource = minioHelperService.resolveResource(resourcePath, storage);
+        if (resource.isFile()) {
+            minioHelperService.downloadFile(resource, storage, request, response);
         } else {
-            minioHelperService.downloadFile(normalizedPath,bucketName, response);
+            minioHelperService.downloadDirectory(resource.path(), storage, response);
         }
     }
 
     @Override
-    public ResourceInfoResponse moverOrRename(String oldPath,
-                                              String newPath) {
+    public MoveReportResponse moverOrRename(String oldPath,
+                                            String newPath) {
         log.info("Вошел в метод 'moverOrRename', старый путь: '{}', новый путь: '{}'", oldPath, newPath);
-        String bucketName = minioHelperService.bucketExists();
-        String normalizedOldPath = minioHelperService.normalizedPath(oldPath);
-        String normalizedNewPath = minioHelperService.normalizedPath(newPath);
+        UserStorage storage = minioHelperService.getActiveUserStorage();
+        StoragePath from = StoragePath.of(oldPath);
+        StoragePath to = StoragePath.of(newPath);
 
-        if (oldPath.isEmpty() || newPath.isEmpty()) {
+        if (from.isRoot() || to.isRoot()) {
+            log.warn("Невалидный или отсутствующий путь {}, {}", oldPath, newPath);
             throw new MissingOrInvalidPathException("Невалидный или отсутствующий путь");
         }
-        if (minioHelperService.doesResourceExist(normalizedNewPath, bucketName)) {
-            throw new ResourceAlreadyExistsException(normalizedNewPath);
-        }
-
-        ResourceInfoResponse directoryOrFile = minioHelperService.getResourceMetadata(normalizedOldPath, bucketName);
-        if (!directoryOrFile.name().endsWith("/")) {
-            minioHelperService.renameOrMoveFile(normalizedNewPath, normalizedOldPath, bucketName);
-            String nameFile = normalizedNewPath.substring(normalizedNewPath.lastIndexOf('/') + 1);
-            String pathToFile = normalizedOldPath.lastIndexOf('/') >= 0
-                    ? normalizedOldPath.substring(0, normalizedOldPath.lastIndexOf('/') + 1)
-                    : "";
-            Long size = directoryOrFile.size();
-            return ResourceInfoResponse.forFile(pathToFile,nameFile,size);
-        }
-        if (directoryOrFile.name().endsWith("/")) {
-            minioHelperService.renameOrMoveDirectory(normalizedNewPath, normalizedOldPath, bucketName);
-            String path;
-            String name;
-            String cleanPath = normalizedNewPath.endsWith("/")
-                    ? normalizedNewPath.substring(0, normalizedNewPath.length() - 1)
-                    : normalizedNewPath;
-
-            int lastSlashIndex = cleanPath.lastIndexOf('/');
-            if (lastSlashIndex == -1) {
-                path = "";
-                name = cleanPath;
-            } else {
-                path = cleanPath.substring(0, lastSlashIndex) + '/';
-                name = cleanPath.substring(lastSlashIndex + 1);
-            }
-            return ResourceInfoResponse.forDirectory(path, name);
+        if (minioHelperService.doesResourceExist(to, storage)) {
+            throw new ResourceAlreadyExistsException(to.path());
         }
-        log.warn("Невалидный или отсутствующий путь {}, {}", oldPath, newPath);
-        throw new MissingOrInvalidPathException("Невалидный или отсутствующий путь");
+
+        ResourceDescriptor directoryOrFile = minioHelperService.resolveResource(from, storage);
+        if (directoryOrFile.isFile()) {
+            objectMover.moveFile(storage, from.path(), to.path(), directoryOrFile.size());
+            eventPublisher.publishEvent(StorageChangedEvent.objects(storage.id(), List.of(from.path(), to.path())));
+            storageIndexService.moveFile(minioHelperService.getActiveUserId(),
+                    from.path(), to.path(), directoryOrFile.size());
+            return new MoveReportResponse(ResourceInfoResponse.forFile(from.parent(), to.name(), directoryOrFile.size()),
+                    List.of());
+        }
+        if (to.prefix().startsWith(from.prefix())) {
+            log.warn("Попытка переместить папку {} внутрь самой себя: {}", from.path(), to.path());
+            throw new MissingOrInvalidPathException("Нельзя переместить папку внутрь самой себя");
+        }
+        DeleteReportResponse removal;
+        try {
+            removal = objectMover.moveDirectory(storage, from.path(), to.path());
+        } finally {
+            eventPublisher.publishEvent(StorageChangedEvent.tree(storage.id(), from.prefix()));
+            eventPublisher.publishEvent(StorageChangedEvent.tree(storage.id(), to.prefix()));
+        }
+        int userId = minioHelperService.getActiveUserId();
+        if (removal.failed().isEmpty()) {
+            storageIndexService.moveDirectory(userId, from.prefix(), to.prefix());
+        } else {
+            // часть исходников осталась рядом с полной копией: индекс перестроится по листингу
+            storageIndexService.markStale(userId);
+        }
+        return new MoveReportResponse(ResourceInfoResponse.forDirectory(to.parent(), to.name()), removal.failed());
     }
 
     @Override
-    public List<ResourceInfoResponse> searchResource(String query) {
+    public List<ResourceInfoResponse> searchResource(String query,
+                                                     int limit,
+                                                     int offset) {
         log.info("Вошли в метод 'searchResource'");
-        String bucketName = minioHelperService.bucketExists();
-        String normalizedQuery = minioHelperService.normalizedPath(query);
-        Iterable<Result<Item>> results = minioHelperService.listAllObjects(bucketName);
-        return minioHelperService.resultSearch(results, normalizedQuery);
+        UserStorage storage = minioHelperService.getActiveUserStorage();
+        String normalizedQuery = StoragePath.strip(query);
+        minioHelperService.validateSearchQuery(normalizedQuery);
+        minioHelperService.validatePagination(limit, offset);
+
+        List<ResourceInfoResponse> responseList = storageIndexService.search(
+                minioHelperService.getActiveUserId(), storage, normalizedQuery, limit, offset);
+        if (responseList.isEmpty() && offset == 0) {
+            log.warn("Невалидный или отсутствующий поисковый запрос");
+            throw new MissingOrInvalidPathException("Невалидный или отсутствующий поисковый запрос");
+        }
+        log.info("Ресурс найден");
+        return responseList;
     }
 
     @Override
-    public Set<ResourceInfoResponse> uploadResource(String path,
-                                                    MultipartFile[] objects){
-        log.info("Вошли в метод 'uploadResource'");
-        String bucketName = minioHelperService.bucketExists();
-        String normalizedPath = minioHelperService.normalizedPath(path);
+    public void searchResourceStream(String query,
+                                     int limit,
+                                     HttpServletResponse response) {
+        log.info("Вошли в метод 'searchResourceStream'");
+        UserStorage storage = minioHelperService.getActiveUserStorage();
+        String normalizedQuery = StoragePath.strip(query);
+        minioHelperService.validateSearchQuery(normalizedQuery);
+        minioHelperService.validatePagination(limit, 0);
 
-        if (!normalizedPath.isEmpty() && !normalizedPath.endsWith("/")) {
-            normalizedPath += "/";
+        try {
+            int found = storageIndexService.searchStream(minioHelperService.getActiveUserId(), storage,
+                    normalizedQuery, limit, ndjsonResponseWriter.open(response));
+            response.flushBuffer();
+            log.info("Потоковый поиск '{}' завершён, найдено: {}", normalizedQuery, found);
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Потоковый поиск '{}' прерван: {}", normalizedQuery, e.getMessage());
         }
-        return minioHelperService.uploadResourceToBucket(bucketName,normalizedPath,objects);
     }
 
     @Override
-    public List<ResourceInfoResponse> directoryContents(String path) {
-        log.info("Вход в метод 'directoryContents', путь: {}", path);
-        String bucketName = minioHelperService.bucketExists();
-        String normalizedPath = minioHelperService.normalizedPath(path);
-        Resource directoryOrFile = minioHelperService.identifyResourceType(normalizedPath, bucketName);
-        Iterable<Result<Item>> results = minioHelperService.listTopLevelOrDirectory(bucketName, normalizedPath);
-        return minioHelperService.getFolderContent(normalizedPath, results, directoryOrFile);
+    public UploadReportResponse uploadResource(String path,
+                                               MultipartFile[] objects){
+        log.info("Вошли в метод 'uploadResource'");
+        UserStorage storage = minioHelperService.getActiveUserStorage();
+        UploadReportResponse report = parallelUploader.upload(storage, StoragePath.of(path).prefix(), objects);
+        int userId = minioHelperService.getActiveUserId();
+        List<String> uploadedPaths = new ArrayList<>(report.uploaded().size());
+        for (ResourceInfoResponse response : report.uploaded()) {
+            uploadedPaths.add(response.path() + response.name());
+            storageIndexService.indexFile(userId, response.path() + response.name(), response.size());
+        }
+        eventPublisher.publishEvent(StorageChangedEvent.objects(storage.id(), uploadedPaths));
+        return report;
     }
 
     @Override
-    public ResourceInfoResponse createEmptyFolder(String path) {
-        String bucketName = minioHelperService.bucketExists();
-        String normalizedPath = minioHelperService.normalizedPath(path);
+    public ResourceInfoResponse uploadResourceStream(String path,
+                                                     HttpServletRequest request) {
+        log.info("Вошли в метод 'uploadResourceStream', путь: {}", path);
+        UserStorage storage = minioHelperService.getActiveUserStorage();
+        StoragePath filePath = StoragePath.of(path).requireNotRoot();
+        if (path.endsWith("/")) {
+            throw new MissingOrInvalidPathException("Невалидный или отсутствующий путь");
+        }
+
+        String requestContentType = request.getContentType();
+        if (requestContentType != null && (requestContentType.startsWith(MediaType.MULTIPART_FORM_DATA_VALUE)
+                || requestContentType.startsWith(MediaType.APPLICATION_FORM_URLENCODED_VALUE))) {
+            throw new MissingOrInvalidPathException("Содержимое файла должно передаваться в теле запроса без multipart-обёртки");
+        }
+        String name = filePath.name();
+        String contentType = requestContentType == null || requestContentType.startsWith(MediaType.APPLICATION_OCTET_STREAM_VALUE)
+                ? MediaTypeFactory.getMediaType(name).orElse(MediaType.APPLICATION_OCTET_STREAM).toString()
+                : requestContentType;
+
+        long size;
+        try (InputStream body = request.getInputStream()) {
+            size = minioHelperService.uploadStreamToBucket(storage, filePath.path(), body,
+                    request.getContentLengthLong(), contentType);
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Ошибка при чтении тела запроса", e);
+        }
+        eventPublisher.publishEvent(StorageChangedEvent.object(storage.id(), filePath.path()));
+        storageIndexService.indexFile(minioHelperService.getActiveUserId(), filePath.path(), size);
+        log.info("Файл '{}' загружен потоком, размер: {}", filePath, size);
+        return ResourceInfoResponse.forFile(filePath.parent(), name, size);
+    }
 
-        if (minioHelperService.directoryExists(bucketName, path)) {
-            throw new ResourceAlreadyExistsException(normalizedPath);
+    @Override
+    public void directoryContents(String path,
+                                  Integer limit,
+                                  String continuationToken,
+                                  String sort,
+                                  HttpServletResponse response) {
+        log.info("Вход в метод 'directoryContents', путь: {}", path);
+        UserStorage storage = minioHelperService.getActiveUserStorage();
+        StoragePath directory = StoragePath.of(path);
+        DirectorySort directorySort = DirectorySort.from(sort);
+        if (limit != null) {
+            minioHelperService.validatePagination(limit, 0);
+        } else if (directorySort != DirectorySort.NAME) {
+            throw new MissingOrInvalidPathException("Сортировка доступна только при постраничной выдаче");
+        }
+        String prefix = directory.prefix();
+        String startAfter = directoryListingWriter.decodeToken(continuationToken, storage.key(prefix));
+        boolean cacheable = limit == null && startAfter == null;
+        long generation = 0;
+        if (cacheable) {
+            Optional<String> cached = directoryListingCache.find(storage.id(), prefix);
+            if (cached.isPresent()) {
+                log.info("Содержимое папки '{}' отдано из кэша", directory);
+                writeCachedListing(directory, cached.get(), response);
+                return;
+            }
+            generation = directoryListingCache.generation(storage.id());
         }
-        String parentFolder = minioHelperService.parentPathByFullPath(normalizedPath);
-        if (!parentFolder.isEmpty()) {
-            minioHelperService.parentDirectoryExists(parentFolder, bucketName);
+
+        // сначала сам листинг: у существующей папки в нём есть хотя бы маркер "path/",
+        // отдельная проверка нужна только чтобы отличить файл от несуществующего пути
+        Iterator<StoredObject> results = minioHelperService.listDirectoryPage(storage, prefix, startAfter,
+                limit == null ? null : limit + 1).iterator();
+        if (!directory.isRoot() && startAfter == null && !results.hasNext()) {
+            Optional<ResourceDescriptor> resource = minioHelperService.findResource(directory, storage);
+            if (resource.isPresent() && resource.get().isFile()) {
+                throw new MissingOrInvalidPathException("Невалидный или отсутствующий путь");
+            }
+            throw new PathNotFoundException("Папка не существует");
         }
-        if (minioHelperService.directoryExists(bucketName,normalizedPath)) {
-            throw new ResourceAlreadyExistsException(normalizedPath);
+
+        try {
+            if (limit == null) {
+                String json = directoryListingWriter.writeAll(storage.root(), prefix, results, response,
+                        cacheable ? directoryListingCache.maxBytes() : 0);
+                if (cacheable) {
+                    directoryListingCache.put(storage.id(), prefix, generation, json);
+                }
+            } else {
+                directoryListingWriter.writePage(storage.root(), prefix, results, limit, directorySort, response);
+            }
+        } catch (IOException e) {
+            log.error("Ошибка при отправке содержимого папки '{}': {}", directory, e.getMessage());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Ошибка при получении содержимого папки", e);
         }
-        if (path.isEmpty()) {
+    }
+
+    @Override
+    public ResourceInfoResponse createEmptyFolder(String path) {
+        UserStorage storage = minioHelperService.getActiveUserStorage();
+        StoragePath directory = StoragePath.of(path);
+        if (directory.isRoot()) {
             throw new MissingOrInvalidPathException("Невалидный или отсутсвующий путь");
         }
-        minioHelperService.createDirectory(normalizedPath, bucketName);
+        minioHelperService.parentDirectoryExists(directory, storage);
+        if (minioHelperService.doesResourceExist(directory, storage)) {
+            throw new ResourceAlreadyExistsException(directory.path());
+        }
+        minioHelperService.createDirectory(directory, storage);
+        eventPublisher.publishEvent(StorageChangedEvent.object(storage.id(), directory.prefix()));
+        storageIndexService.indexDirectory(minioHelperService.getActiveUserId(), directory.prefix());
+        return ResourceInfoResponse.forDirectory(directory.parent(), directory.name());
+    }
 
-        String finalPath = normalizedPath.isEmpty() ? "" : normalizedPath.substring(0, normalizedPath.lastIndexOf("/") + 1);
-        String name = normalizedPath.isEmpty() ? "" : normalizedPath.substring(normalizedPath.lastIndexOf('/') + 1);
-        return ResourceInfoResponse.forDirectory(finalPath, name);
+    private void writeCachedListing(StoragePath directory,
+                                    String json,
+                                    HttpServletResponse response) {
+        try {
+            directoryListingWriter.writeCached(json, response);
+        } catch (IOException e) {
+            log.error("Ошибка при отправке содержимого папки '{}': {}", directory, e.getMessage());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Ошибка при получении содержимого папки", e);
+        }
     }
-}
\ No newline at end of file
+}
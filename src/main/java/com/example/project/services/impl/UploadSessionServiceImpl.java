@@ -0,0 +1,214 @@
+package com.example.project.services.impl;
+
+import com.example.project.dto.response.ResourceInfoResponse;
+import com.example.project.dto.response.UploadSessionResponse;
+import com.example.project.dto.response.UploadedPartResponse;
+import com.example.project.exceptions.storage.MissingOrInvalidPathException;
+import com.example.project.exceptions.storage.PathNotFoundException;
+import com.example.project.exceptions.storage.ResourceAlreadyExistsException;
+import com.example.project.services.StorageIndexService;
+import com.example.project.services.UploadSessionService;
+import com.example.project.utils.MinioHelperService;
+import com.example.project.utils.StorageBackend;
+import com.example.project.utils.StorageChangedEvent;
+import com.example.project.utils.StoragePath;
+import com.example.project.utils.UploadSession;
+import com.example.project.utils.UploadSessionStore;
+import com.example.project.utils.UserStorage;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.InputStream;
+import java.util.List;
+
+@Service
+@Primary
+@Slf4j
+public class UploadSessionServiceImpl implements UploadSessionService {
+
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+    private static final long S3_MAX_PART_SIZE = 5L * 1024 * 1024 * 1024;
+    private static final int MAX_PART_NUMBER = 10_000;
+
+    private final MinioHelperService minioHelperService;
+    private final StorageIndexService storageIndexService;
+    private final StorageBackend storageBackend;
+    private final UploadSessionStore uploadSessionStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long maxPartSize;
+
+    public UploadSessionServiceImpl(MinioHelperService minioHelperService,
+                                    StorageIndexService storageIndexService,
+                                    StorageBackend storageBackend,
+                                    UploadSessionStore uploadSessionStore,
+                                    ApplicationEventPublisher eventPublisher,
+                                    @Value("${storage.upload.max-part-size:64MB}") DataSize maxPartSize) {
+        this.minioHelperService = minioHelperService;
+        this.storageIndexService = storageIndexService;
+        this.storageBackend = storageBackend;
+        this.uploadSessionStore = uploadSessionStore;
+        this.eventPublisher = eventPublisher;
+        this.maxPartSize = Math.min(S3_MAX_PART_SIZE, Math.max(MIN_PART_SIZE, maxPartSize.toBytes()));
+    }
+
+    @Override
+    public UploadSessionResponse initiate(String path,
+                                          String contentType) {
+        log.info("Вошли в метод 'initiate', путь: {}", path);
+        UserStorage storage = minioHelperService.getActiveUserStorage();
+        StoragePath filePath = StoragePath.of(path).requireNotRoot();
+        if (path.endsWith("/")) {
+            throw new MissingOrInvalidPathException("Невалидный или отсутствующий путь");
+        }
+        String normalizedPath = filePath.path();
+        if (minioHelperService.doesResourceExist(filePath, storage)) {
+            log.error("Ресурс '{}' уже существует", normalizedPath);
+            throw new ResourceAlreadyExistsException(normalizedPath);
+        }
+
+        String name = filePath.name();
+        String resolvedContentType = contentType == null || contentType.isBlank()
+                ? MediaTypeFactory.getMediaType(name).orElse(MediaType.APPLICATION_OCTET_STREAM).toString()
+                : contentType;
+
+        String uploadId;
+        try {
+            uploadId = storageBackend.createMultipartUpload(storage.bucketName(), storage.key(normalizedPath),
+                    resolvedContentType);
+        } catch (Exception e) {
+            log.error("Не удалось начать multipart-загрузку '{}': {}", normalizedPath, e.getMessage());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Ошибка при создании сессии загрузки", e);
+        }
+
+        UploadSession session = uploadSessionStore.create(minioHelperService.getActiveUserId(),
+                storage, normalizedPath, uploadId, resolvedContentType);
+        return toResponse(session, List.of());
+    }
+
+    @Override
+    public UploadedPartResponse uploadPart(String id,
+                                           int partNumber,
+                                           HttpServletRequest request) {
+        UploadSession session = activeUserSession(id);
+        if (partNumber < 1 || partNumber > MAX_PART_NUMBER) {
+            throw new MissingOrInvalidPathException("Номер части должен быть от 1 до " + MAX_PART_NUMBER);
+        }
+        long size = request.getContentLengthLong();
+        if (size < 0) {
+            throw new MissingOrInvalidPathException("Не указан размер части (Content-Length)");
+        }
+        if (size == 0) {
+            throw new MissingOrInvalidPathException("Пустая часть");
+        }
+        if (size > maxPartSize) {
+            throw new MissingOrInvalidPathException("Размер части превышает " + maxPartSize + " байт");
+        }
+
+        String etag;
+        try (InputStream body = request.getInputStream()) {
+            etag = storageBackend.uploadPart(session.bucketName(), session.objectKey(),
+                    session.uploadId(), partNumber, body, size);
+        } catch (Exception e) {
+            log.error("Часть {} сессии {} не загружена: {}", partNumber, id, e.getMessage());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Ошибка при загрузке части", e);
+        }
+        UploadedPartResponse part = new UploadedPartResponse(partNumber, size, etag);
+        uploadSessionStore.savePart(session, part);
+        log.info("Часть {} сессии {} загружена, размер: {}", partNumber, id, size);
+        return part;
+    }
+
+    @Override
+    public UploadSessionResponse status(String id) {
+        UploadSession session = activeUserSession(id);
+        return toResponse(session, uploadSessionStore.parts(id));
+    }
+
+    @Override
+    public ResourceInfoResponse complete(String id) {
+        log.info("Вошли в метод 'complete', сессия: {}", id);
+        UploadSession session = activeUserSession(id);
+        List<UploadedPartResponse> parts = uploadSessionStore.parts(id);
+        if (parts.isEmpty()) {
+            throw new MissingOrInvalidPathException("Не загружено ни одной части");
+        }
+
+        long size = 0;
+        for (int i = 0; i < parts.size(); i++) {
+            UploadedPartResponse part = parts.get(i);
+            if (part.number() != i + 1) {
+                throw new MissingOrInvalidPathException("Не загружена часть " + (i + 1));
+            }
+            if (i < parts.size() - 1 && part.size() < MIN_PART_SIZE) {
+                throw new MissingOrInvalidPathException("Все части, кроме последней, должны быть не меньше 5MB");
+            }
+            size += part.size();
+        }
+
+        // пока шла загрузка, путь мог занять другой запрос: завершение перезаписало бы его молча
+        StoragePath filePath = StoragePath.of(session.objectName());
+        if (minioHelperService.doesResourceExist(filePath, session.storage())) {
+            log.error("Ресурс '{}' появился во время загрузки {}", filePath, id);
+            throw new ResourceAlreadyExistsException(filePath.path());
+        }
+
+        try {
+            storageBackend.completeMultipartUpload(session.bucketName(), session.objectKey(),
+                    session.uploadId(), parts);
+        } catch (Exception e) {
+            log.error("Не удалось завершить загрузку {}: {}", id, e.getMessage());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Ошибка при завершении загрузки", e);
+        }
+        uploadSessionStore.delete(id);
+        eventPublisher.publishEvent(StorageChangedEvent.object(session.storage().id(), session.objectName()));
+        storageIndexService.indexFile(session.ownerId(), session.objectName(), size);
+
+        log.info("Загрузка {} завершена: '{}', размер: {}", id, filePath, size);
+        return ResourceInfoResponse.forFile(filePath.parent(), filePath.name(), size);
+    }
+
+    @Override
+    public void abort(String id) {
+        log.info("Вошли в метод 'abort', сессия: {}", id);
+        UploadSession session = activeUserSession(id);
+        try {
+            storageBackend.abortMultipartUpload(session.bucketName(), session.objectKey(), session.uploadId());
+        } catch (Exception e) {
+            log.error("Не удалось отменить multipart-загрузку {}: {}", id, e.getMessage());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Ошибка при отмене загрузки", e);
+        }
+        uploadSessionStore.delete(id);
+    }
+
+    private UploadSession activeUserSession(String id) {
+        int userId = minioHelperService.getActiveUserId();
+        return uploadSessionStore.find(id)
+                .filter(session -> session.ownerId() == userId)
+                .orElseThrow(() -> new PathNotFoundException("Сессия загрузки не найдена"));
+    }
+
+    private UploadSessionResponse toResponse(UploadSession session,
+                                             List<UploadedPartResponse> parts) {
+        StoragePath filePath = StoragePath.of(session.objectName());
+        return new UploadSessionResponse(
+                session.id(),
+                filePath.parent(),
+                filePath.name(),
+                maxPartSize,
+                parts,
+                session.expiresAt());
+    }
+}
@@ -2,23 +2,29 @@ package com.example.project.services.impl;
 
 
 import com.example.project.entity.User;
-import com.example.project.exceptions.auth.UniqueUsernameException;
 import com.example.project.repositories.UserRepository;
 import com.example.project.security.UserDetailsImpl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.Serializable;
 import java.util.Optional;
 
+/**
+ * Загрузка пользователя для входа — единственный запрос в БД на весь sign-in.
+ * Отсутствие пользователя сообщается {@link UsernameNotFoundException}, которое провайдер превращает в обычное
+ * "Неверный логин или пароль". Если хэш пароля устарел (старый алгоритм или меньшая стоимость),
+ * провайдер после успешной проверки вызывает {@link #updatePassword} с хэшем по текущим настройкам
+ */
 @Slf4j
 @RequiredArgsConstructor
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
@@ -29,9 +35,18 @@ public class UserDetailsServiceImpl implements UserDetailsService {
        log.info("Попытка найти пользователя с логином '{}'",login);
         if (maybeUser.isEmpty()) {
             log.warn("Не удалось найти пользователя с логином '{}' ", login);
-            throw new UniqueUsernameException(String.format("Пользотваль с логином: '%s' не найден", login));
+            throw new UsernameNotFoundException(String.format("Пользователь с логином: '%s' не найден", login));
         }
         log.info("Пользователя с логином '{}' найден",login);
         return new UserDetailsImpl(maybeUser.get());
     }
+
+    @Override
+    public UserDetails updatePassword(UserDetails user,
+                                      String newPassword) {
+        UserDetailsImpl userDetails = (UserDetailsImpl) user;
+        userRepository.updatePassword(userDetails.getId(), newPassword);
+        log.info("Хэш пароля пользователя '{}' пересчитан по текущим настройкам", userDetails.getUsername());
+        return userDetails.withPassword(newPassword);
+    }
 }
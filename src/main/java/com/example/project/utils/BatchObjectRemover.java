@@ -0,0 +1,188 @@
+package com.example.project.utils;
+
+import com.example.project.dto.response.DeleteReportResponse;
+import com.example.project.dto.response.FailedObjectResponse;
+import com.example.project.exceptions.storage.PathNotFoundException;
+import com.example.project.exceptions.storage.StorageBackendException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Удаление папки пачками ({@link StorageBackend#removeAll}, в MinIO — S3 multi-delete): ключи собираются
+ * в пачки по 1000 (максимум для одного DeleteObjects), пачки удаляются параллельно. Ошибка по отдельному ключу не прерывает удаление,
+ * а попадает в отчёт. Ошибка листинга останавливает удаление: уже отправленные пачки дорабатывают,
+ * а в отчёт попадает сама папка, чтобы клиент не принял частичное удаление за полное
+ */
+@Slf4j
+@Component
+public class BatchObjectRemover {
+
+    public static final int BATCH_SIZE = 1000;
+
+    private final StorageBackend storageBackend;
+    private final ExecutorService storageExecutor;
+    private final int parallelBatches;
+
+    public BatchObjectRemover(StorageBackend storageBackend,
+                              ExecutorService storageExecutor,
+                              @Value("${storage.delete.parallel-batches:4}") int parallelBatches) {
+        this.storageBackend = storageBackend;
+        this.storageExecutor = storageExecutor;
+        this.parallelBatches = Math.max(1, parallelBatches);
+    }
+
+    /**
+     * @param onBatchRemoved получает пути внутри хранилища пользователя, которые действительно удалены, после каждой пачки
+     */
+    public DeleteReportResponse removeDirectory(UserStorage storage,
+                                                String normalizedPath,
+                                                Consumer<List<String>> onBatchRemoved) {
+        String prefix = normalizedPath + "/";
+        Iterator<StoredObject> results = storageBackend.list(storage.bucketName(), storage.key(prefix), true, null, 0)
+                .iterator();
+
+        if (!results.hasNext()) {
+            log.error("Путь: {} ничего не содержит", normalizedPath);
+            throw new PathNotFoundException("Ресурс не найден");
+        }
+
+        BatchRun run = new BatchRun(storage, onBatchRemoved);
+        try {
+            while (results.hasNext()) {
+                run.add(results.next().key());
+            }
+        } catch (StorageBackendException e) {
+            log.error("Листинг папки {} прерван, удаление остановлено: {}", normalizedPath, e.getMessage());
+            run.failed.add(new FailedObjectResponse(prefix, "Не удалось прочитать содержимое папки: " + e.getMessage()));
+        }
+        run.finish();
+
+        log.info("Папка '{}' удалена: удалено объектов {}, ошибок {}", normalizedPath, run.deleted, run.failed.size());
+        return new DeleteReportResponse(prefix, run.deleted, run.failed);
+    }
+
+    /**
+     * Удаляет заранее известный набор ключей теми же пачками, в отчёте остаются полные ключи
+     */
+    public DeleteReportResponse removeObjects(String bucketName,
+                                              String path,
+                                              List<String> keys) {
+        return removeObjects(UserStorage.bucket(bucketName), path, keys);
+    }
+
+    /**
+     * То же в хранилище пользователя: в отчёте пути внутри хранилища, как у {@link #removeDirectory}
+     */
+    public DeleteReportResponse removeObjects(UserStorage storage,
+                                              String path,
+                                              List<String> keys) {
+        BatchRun run = new BatchRun(storage, removed -> {});
+        for (String key : keys) {
+            run.add(key);
+        }
+        run.finish();
+        return new DeleteReportResponse(path, run.deleted, run.failed);
+    }
+
+    private BatchResult removeBatch(UserStorage storage,
+                                    List<String> keys,
+                                    Consumer<List<String>> onBatchRemoved) {
+        List<FailedObjectResponse> failed = new ArrayList<>();
+        try {
+            for (Map.Entry<String, String> error : storageBackend.removeAll(storage.bucketName(), keys).entrySet()) {
+                failed.add(new FailedObjectResponse(storage.relative(error.getKey()), error.getValue()));
+            }
+        } catch (Exception e) {
+            log.error("Пачка из {} объектов не удалена: {}", keys.size(), e.getMessage());
+            List<FailedObjectResponse> batchFailed = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                batchFailed.add(new FailedObjectResponse(storage.relative(key), e.getMessage()));
+            }
+            return new BatchResult(0, batchFailed);
+        }
+
+        Set<String> failedKeys = new HashSet<>();
+        for (FailedObjectResponse failure : failed) {
+            failedKeys.add(failure.path());
+        }
+        List<String> removed = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            String path = storage.relative(key);
+            if (!failedKeys.contains(path)) {
+                removed.add(path);
+            }
+        }
+        onBatchRemoved.accept(removed);
+        return new BatchResult(removed.size(), failed);
+    }
+
+    /**
+     * Состояние одного удаления: текущая пачка и не больше {@code parallelBatches} пачек в работе
+     */
+    private final class BatchRun {
+        private final UserStorage storage;
+        private final Consumer<List<String>> onBatchRemoved;
+        private final Deque<Future<BatchResult>> inFlight = new ArrayDeque<>(parallelBatches);
+        private final List<FailedObjectResponse> failed = new ArrayList<>();
+        private List<String> batch = new ArrayList<>(BATCH_SIZE);
+        private long deleted;
+
+        private BatchRun(UserStorage storage,
+                         Consumer<List<String>> onBatchRemoved) {
+            this.storage = storage;
+            this.onBatchRemoved = onBatchRemoved;
+        }
+
+        private void add(String key) {
+            batch.add(key);
+            if (batch.size() == BATCH_SIZE) {
+                submitBatch();
+            }
+        }
+
+        private void finish() {
+            if (!batch.isEmpty()) {
+                submitBatch();
+            }
+            while (!inFlight.isEmpty()) {
+                collect(inFlight.pollFirst());
+            }
+        }
+
+        private void submitBatch() {
+            if (inFlight.size() == parallelBatches) {
+                collect(inFlight.pollFirst());
+            }
+            List<String> keys = batch;
+            inFlight.addLast(storageExecutor.submit(() -> removeBatch(storage, keys, onBatchRemoved)));
+            batch = new ArrayList<>(BATCH_SIZE);
+        }
+
+        private void collect(Future<BatchResult> future) {
+            try {
+                BatchResult result = future.get();
+                failed.addAll(result.failed());
+                deleted += result.deleted();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                        "Удаление было прервано", e);
+            } catch (ExecutionException e) {
+                throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                        "Произошла ошибка при удаление ресурса", e.getCause());
+            }
+        }
+    }
+
+    private record BatchResult(long deleted, List<FailedObjectResponse> failed) {
+    }
+}
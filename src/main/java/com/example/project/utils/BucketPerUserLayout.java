@@ -0,0 +1,49 @@
+package com.example.project.utils;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Отдельный бакет на каждого пользователя, ключи объектов совпадают с путями
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "storage.layout.type", havingValue = "bucket-per-user", matchIfMissing = true)
+public class BucketPerUserLayout implements StorageLayout {
+
+    private final BucketProvisioner bucketProvisioner;
+
+    @Override
+    public UserStorage resolve(int userId,
+                               String username) {
+        return UserStorage.bucket(toValidBucketName(username, userId));
+    }
+
+    @Override
+    public void provision(UserStorage storage) {
+        bucketProvisioner.ensureBucket(storage.bucketName());
+    }
+
+    /**
+     * Символы вне [a-z0-9-] заменяются дефисом, дефисы по краям отбрасываются, в конец дописывается id
+     */
+    public static String toValidBucketName(String username,
+                                           int userId) {
+        String lowerCase = username.toLowerCase();
+        StringBuilder bucketName = new StringBuilder(lowerCase.length() + 12);
+        for (int i = 0; i < lowerCase.length(); i++) {
+            char c = lowerCase.charAt(i);
+            char mapped = c >= 'a' && c <= 'z' || c >= '0' && c <= '9' ? c : '-';
+            if (mapped != '-' || !bucketName.isEmpty()) {
+                bucketName.append(mapped);
+            }
+        }
+        int end = bucketName.length();
+        while (end > 0 && bucketName.charAt(end - 1) == '-') {
+            end--;
+        }
+        bucketName.setLength(end);
+        return bucketName.append('-').append(userId).toString();
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.project.utils;
+
+import com.example.project.exceptions.storage.BucketNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BucketProvisioner {
+
+    private final StorageBackend storageBackend;
+
+    /**
+     * Идемпотентно: уже существующий бакет считается успехом
+     */
+    public void ensureBucket(String bucketName) {
+        try {
+            if (storageBackend.createBucket(bucketName)) {
+                log.info("Бакет с названием '{}' создан", bucketName);
+            } else {
+                log.info("Бакет с названием '{}' уже существует", bucketName);
+            }
+        } catch (Exception e) {
+            log.error("Не удалось создать бакет '{}': {}", bucketName, e.toString());
+            throw new BucketNotFoundException("Не удалось создать бакет для нового пользователя");
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.project.utils;
+
+import com.example.project.services.ContentStoreService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Сборка мусора для {@link DeduplicatingStorageBackend}: удаляет блобы, на которые больше
+ * {@code storage.dedup.gc-grace} нет ни одной ссылки, и временные объекты загрузок, оборванных падением узла.
+ * Отсрочка оставляет блоб на месте, если тот же файл сразу загрузят заново, например после случайного удаления
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "storage.dedup.enabled", havingValue = "true")
+public class ContentBlobSweeper {
+
+    private static final int BATCH_SIZE = 100;
+
+    /**
+     * Временный объект живёт, пока идёт загрузка, а она бывает долгой
+     */
+    private static final Duration STAGING_TTL = Duration.ofDays(1);
+
+    private final DeduplicatingStorageBackend storageBackend;
+    private final ContentStoreService contentStoreService;
+    private final Duration grace;
+
+    public ContentBlobSweeper(DeduplicatingStorageBackend storageBackend,
+                              ContentStoreService contentStoreService,
+                              @Value("${storage.dedup.gc-grace:1h}") Duration grace) {
+        this.storageBackend = storageBackend;
+        this.contentStoreService = contentStoreService;
+        this.grace = grace;
+    }
+
+    @Scheduled(initialDelayString = "${storage.dedup.sweep-interval:10m}",
+            fixedDelayString = "${storage.dedup.sweep-interval:10m}")
+    public void sweep() {
+        Instant now = Instant.now();
+        int removed = 0;
+        int batch;
+        do {
+            batch = contentStoreService.sweep(now.minus(grace), BATCH_SIZE, storageBackend::removeBlob);
+            removed += batch;
+        } while (batch == BATCH_SIZE);
+        int staging = storageBackend.removeStaleStaging(now.minus(STAGING_TTL));
+        if (removed > 0 || staging > 0) {
+            log.info("Сборка мусора блобов: удалено блобов {}, временных объектов {}", removed, staging);
+        }
+    }
+}
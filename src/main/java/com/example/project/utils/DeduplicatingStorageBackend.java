@@ -0,0 +1,460 @@
+package com.example.project.utils;
+
+import com.example.project.dto.response.UploadedPartResponse;
+import com.example.project.exceptions.storage.StorageBackendException;
+import com.example.project.services.ContentStoreService;
+import com.example.project.services.ContentStoreService.BlobReference;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Дедупликация содержимого поверх настоящего {@link StorageBackend}, включается {@code storage.dedup.enabled=true}.
+ * Файл при записи хэшируется (SHA-256) прямо в потоке и ложится в бакет {@code storage.dedup.bucket} под ключом
+ * {@code sha256/{первые 2 символа}/{хэш}} — один раз на всё хранилище. В бакете пользователя вместо байтов остаётся
+ * ссылка в Postgres (см. {@link ContentStoreService}), поэтому копирование, перенос и удаление такого файла меняют
+ * только метаданные. Листинг сливает объекты хранилища и ссылки в один поток по возрастанию ключей.
+ * <p>
+ * Как есть, без ссылок, пишутся маркеры папок, файлы меньше {@code storage.dedup.min-size} и файлы, собранные
+ * из multipart-загрузки: чтобы узнать их хэш, пришлось бы прочитать их целиком ещё раз.
+ * Объекты, записанные до включения дедупликации, тоже остаются обычными объектами.
+ * Под одним ключом не бывает одновременно ссылки и обычного объекта, иначе после удаления одного из них
+ * снова появился бы другой: прямая запись снимает ссылку, а запись ссылки удаляет объект.
+ * Блобы без ссылок удаляет {@link ContentBlobSweeper}
+ */
+@Slf4j
+@Component
+@Primary
+@ConditionalOnProperty(name = "storage.dedup.enabled", havingValue = "true")
+public class DeduplicatingStorageBackend implements StorageBackend {
+
+    private static final String BLOBS_PREFIX = "sha256/";
+    private static final String STAGING_PREFIX = "staging/";
+    private static final int REFERENCE_PAGE_SIZE = 1000;
+
+    private final StorageBackend delegate;
+    private final ContentStoreService contentStoreService;
+    private final String contentBucket;
+    private final long minSize;
+    private volatile boolean provisioned;
+
+    public DeduplicatingStorageBackend(@Qualifier("objectStore") StorageBackend delegate,
+                                       ContentStoreService contentStoreService,
+                                       @Value("${storage.dedup.bucket:content-blobs}") String contentBucket,
+                                       @Value("${storage.dedup.min-size:64KB}") DataSize minSize) {
+        this.delegate = delegate;
+        this.contentStoreService = contentStoreService;
+        this.contentBucket = contentBucket;
+        this.minSize = minSize.toBytes();
+        log.info("Дедупликация файлов включена, блобы хранятся в бакете '{}'", contentBucket);
+    }
+
+    @Override
+    public boolean createBucket(String bucketName) throws Exception {
+        return delegate.createBucket(bucketName);
+    }
+
+    @Override
+    public boolean bucketExists(String bucketName) throws Exception {
+        return delegate.bucketExists(bucketName);
+    }
+
+    @Override
+    public void removeBucket(String bucketName) throws Exception {
+        if (contentStoreService.hasReferences(bucketName)) {
+            throw new IllegalStateException("Бакет '" + bucketName + "' не пуст: в нём остались ссылки на блобы");
+        }
+        delegate.removeBucket(bucketName);
+    }
+
+    @Override
+    public Optional<StoredObject> stat(String bucketName,
+                                       String key) throws Exception {
+        Optional<BlobReference> reference = findReference(bucketName, key);
+        if (reference.isPresent()) {
+            BlobReference blob = reference.get();
+            return Optional.of(new StoredObject(key, blob.size(), blob.hash(), blob.updatedAt(), blob.contentType()));
+        }
+        return delegate.stat(bucketName, key);
+    }
+
+    @Override
+    public Iterable<StoredObject> list(String bucketName,
+                                       String prefix,
+                                       boolean recursive,
+                                       String startAfter,
+                                       int pageSize) {
+        Iterable<StoredObject> objects = delegate.list(bucketName, prefix, recursive, startAfter, pageSize);
+        int referencePageSize = pageSize > 0 ? Math.min(pageSize, REFERENCE_PAGE_SIZE) : REFERENCE_PAGE_SIZE;
+        return () -> new MergedListing(objects.iterator(),
+                new ReferenceListing(bucketName, prefix, recursive, startAfter, referencePageSize));
+    }
+
+    @Override
+    public void read(String bucketName,
+                     String key,
+                     long offset,
+                     long length,
+                     OutputStream out) throws Exception {
+        Optional<BlobReference> reference = findReference(bucketName, key);
+        if (reference.isPresent()) {
+            delegate.read(contentBucket, blobKey(reference.get().hash()), offset, length, out);
+            return;
+        }
+        delegate.read(bucketName, key, offset, length, out);
+    }
+
+    @Override
+    public InputStream open(String bucketName,
+                            String key) throws Exception {
+        Optional<BlobReference> reference = findReference(bucketName, key);
+        if (reference.isPresent()) {
+            return delegate.open(contentBucket, blobKey(reference.get().hash()));
+        }
+        return delegate.open(bucketName, key);
+    }
+
+    /**
+     * Поток пишется во временный объект бакета блобов и одновременно хэшируется. Новое содержимое копируется
+     * под ключ блоба внутри хранилища, повтор уже известного просто удаляется. Байты блоба появляются раньше
+     * записи о нём, так что ссылка никогда не указывает на пустое место
+     */
+    @Override
+    public long write(String bucketName,
+                      String key,
+                      InputStream stream,
+                      long size,
+                      String contentType) throws Exception {
+        if (key.endsWith("/") || size >= 0 && size < minSize) {
+            long written = delegate.write(bucketName, key, stream, size, contentType);
+            contentStoreService.unlink(bucketName, key);
+            return written;
+        }
+        ensureContentBucket();
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        String stagingKey = STAGING_PREFIX + System.currentTimeMillis() + "-" + UUID.randomUUID();
+        try {
+            long written = delegate.write(contentBucket, stagingKey, new DigestInputStream(stream, digest), size,
+                    contentType);
+            String hash = HexFormat.of().formatHex(digest.digest());
+            boolean stored = false;
+            if (!contentStoreService.blobExists(hash)) {
+                delegate.copy(contentBucket, stagingKey, contentBucket, blobKey(hash), written);
+                stored = true;
+            }
+            boolean created = contentStoreService.acquire(hash, written);
+            try {
+                if (created && !stored) {
+                    // запись о блобе успела уйти в сборку мусора между проверкой и захватом ссылки
+                    delegate.copy(contentBucket, stagingKey, contentBucket, blobKey(hash), written);
+                    stored = true;
+                }
+                contentStoreService.link(bucketName, key, hash, written, contentType);
+            } catch (Exception e) {
+                contentStoreService.release(hash);
+                throw e;
+            }
+            delegate.remove(bucketName, key);
+            if (!stored) {
+                log.info("Содержимое '{}' уже есть в хранилище, сохранена только ссылка", key);
+            }
+            return written;
+        } finally {
+            removeQuietly(contentBucket, stagingKey);
+        }
+    }
+
+    @Override
+    public void copy(String sourceBucket,
+                     String sourceKey,
+                     String targetBucket,
+                     String targetKey,
+                     long size) throws Exception {
+        if (!sourceKey.endsWith("/") && contentStoreService.copy(sourceBucket, sourceKey, targetBucket, targetKey)) {
+            delegate.remove(targetBucket, targetKey);
+            return;
+        }
+        delegate.copy(sourceBucket, sourceKey, targetBucket, targetKey, size);
+        contentStoreService.unlink(targetBucket, targetKey);
+    }
+
+    @Override
+    public void remove(String bucketName,
+                       String key) throws Exception {
+        if (key.endsWith("/") || !contentStoreService.unlink(bucketName, key)) {
+            delegate.remove(bucketName, key);
+        }
+    }
+
+    /**
+     * Ссылки пачки удаляются одной командой, в хранилище уходят только остальные ключи
+     */
+    @Override
+    public Map<String, String> removeAll(String bucketName,
+                                         List<String> keys) throws Exception {
+        Set<String> unlinked = contentStoreService.unlinkAll(bucketName, keys);
+        if (unlinked.size() == keys.size()) {
+            return Map.of();
+        }
+        List<String> remaining = new ArrayList<>(keys.size() - unlinked.size());
+        for (String key : keys) {
+            if (!unlinked.contains(key)) {
+                remaining.add(key);
+            }
+        }
+        return delegate.removeAll(bucketName, remaining);
+    }
+
+    @Override
+    public String createMultipartUpload(String bucketName,
+                                        String key,
+                                        String contentType) throws Exception {
+        return delegate.createMultipartUpload(bucketName, key, contentType);
+    }
+
+    @Override
+    public String uploadPart(String bucketName,
+                             String key,
+                             String uploadId,
+                             int partNumber,
+                             InputStream stream,
+                             long size) throws Exception {
+        return delegate.uploadPart(bucketName, key, uploadId, partNumber, stream, size);
+    }
+
+    @Override
+    public void completeMultipartUpload(String bucketName,
+                                        String key,
+                                        String uploadId,
+                                        List<UploadedPartResponse> parts) throws Exception {
+        delegate.completeMultipartUpload(bucketName, key, uploadId, parts);
+        contentStoreService.unlink(bucketName, key);
+    }
+
+    @Override
+    public void abortMultipartUpload(String bucketName,
+                                     String key,
+                                     String uploadId) throws Exception {
+        delegate.abortMultipartUpload(bucketName, key, uploadId);
+    }
+
+    /**
+     * @return {@code false}, если байты удалить не удалось и запись о блобе нужно оставить
+     */
+    boolean removeBlob(String hash) {
+        try {
+            delegate.remove(contentBucket, blobKey(hash));
+            return true;
+        } catch (Exception e) {
+            log.error("Не удалось удалить блоб {}: {}", hash, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Временные объекты остаются, только если узел упал посреди загрузки
+     *
+     * @return сколько временных объектов старше {@code before} удалено
+     */
+    int removeStaleStaging(Instant before) {
+        int removed = 0;
+        try {
+            for (StoredObject object : delegate.list(contentBucket, STAGING_PREFIX, true, null, 0)) {
+                String name = object.key().substring(STAGING_PREFIX.length());
+                int dash = name.indexOf('-');
+                if (dash > 0 && Long.parseLong(name.substring(0, dash)) < before.toEpochMilli()
+                        && removeQuietly(contentBucket, object.key())) {
+                    removed++;
+                }
+            }
+        } catch (StorageBackendException | NumberFormatException e) {
+            log.error("Не удалось очистить временные объекты бакета '{}': {}", contentBucket, e.getMessage());
+        }
+        return removed;
+    }
+
+    private Optional<BlobReference> findReference(String bucketName,
+                                                  String key) {
+        return key.endsWith("/") ? Optional.empty() : contentStoreService.find(bucketName, key);
+    }
+
+    private void ensureContentBucket() throws Exception {
+        if (!provisioned) {
+            delegate.createBucket(contentBucket);
+            provisioned = true;
+        }
+    }
+
+    private boolean removeQuietly(String bucketName,
+                                  String key) {
+        try {
+            delegate.remove(bucketName, key);
+            return true;
+        } catch (Exception e) {
+            log.warn("Не удалось удалить временный объект '{}': {}", key, e.getMessage());
+            return false;
+        }
+    }
+
+    private static String blobKey(String hash) {
+        return BLOBS_PREFIX + hash.substring(0, 2) + "/" + hash;
+    }
+
+    /**
+     * Слияние двух отсортированных потоков. Ключ, который есть в обоих, отдаётся один раз: у папки это одна
+     * и та же папка, а у файла ссылка перекрывает объект
+     */
+    private static final class MergedListing implements Iterator<StoredObject> {
+
+        private final Iterator<StoredObject> objects;
+        private final Iterator<StoredObject> references;
+        private StoredObject object;
+        private StoredObject reference;
+
+        private MergedListing(Iterator<StoredObject> objects,
+                              Iterator<StoredObject> references) {
+            this.objects = objects;
+            this.references = references;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return object != null || reference != null || objects.hasNext() || references.hasNext();
+        }
+
+        @Override
+        public StoredObject next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (object == null && objects.hasNext()) {
+                object = objects.next();
+            }
+            if (reference == null && references.hasNext()) {
+                reference = references.next();
+            }
+            int comparison = object == null ? 1 : reference == null ? -1 : object.key().compareTo(reference.key());
+            StoredObject result;
+            if (comparison < 0) {
+                result = object;
+                object = null;
+            } else {
+                if (comparison == 0) {
+                    object = null;
+                }
+                result = reference;
+                reference = null;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Ссылки читаются страницами по ключу. Без рекурсии каждая вложенная папка отдаётся одним элементом,
+     * а следующая страница начинается сразу за её префиксом, так что содержимое папки не читается
+     */
+    private final class ReferenceListing implements Iterator<StoredObject> {
+
+        private final String bucketName;
+        private final String prefix;
+        private final boolean recursive;
+        private final int pageSize;
+        private String from;
+        private String after;
+        private Iterator<BlobReference> page = Collections.emptyIterator();
+        private boolean exhausted;
+        private StoredObject next;
+        private StorageBackendException failure;
+
+        private ReferenceListing(String bucketName,
+                                 String prefix,
+                                 boolean recursive,
+                                 String startAfter,
+                                 int pageSize) {
+            this.bucketName = bucketName;
+            this.prefix = prefix;
+            this.recursive = recursive;
+            this.pageSize = pageSize;
+            this.from = prefix;
+            this.after = startAfter;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && failure == null) {
+                advance();
+            }
+            return next != null || failure != null;
+        }
+
+        @Override
+        public StoredObject next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (failure != null) {
+                StorageBackendException e = failure;
+                failure = null;
+                throw e;
+            }
+            StoredObject result = next;
+            next = null;
+            return result;
+        }
+
+        private void advance() {
+            while (true) {
+                if (!page.hasNext()) {
+                    if (exhausted) {
+                        return;
+                    }
+                    try {
+                        List<BlobReference> references = contentStoreService.list(bucketName, prefix, from, after,
+                                pageSize);
+                        exhausted = references.size() < pageSize;
+                        page = references.iterator();
+                    } catch (DataAccessException e) {
+                        exhausted = true;
+                        failure = new StorageBackendException("Ошибка при листинге ссылок '" + prefix + "': "
+                                + e.getMessage(), e);
+                        return;
+                    }
+                    if (!page.hasNext()) {
+                        return;
+                    }
+                }
+                BlobReference reference = page.next();
+                String key = reference.key();
+                int slash = recursive ? -1 : key.indexOf('/', prefix.length());
+                if (slash < 0) {
+                    after = key;
+                    next = StoredObject.listed(key, reference.size());
+                    return;
+                }
+                String directory = key.substring(0, slash + 1);
+                // следующий после всех ключей папки: '0' идёт сразу за '/'
+                from = key.substring(0, slash) + '0';
+                page = Collections.emptyIterator();
+                exhausted = false;
+                if (after != null && directory.compareTo(after) <= 0) {
+                    continue;
+                }
+                after = directory;
+                next = StoredObject.listed(directory, 0);
+                return;
+            }
+        }
+    }
+}
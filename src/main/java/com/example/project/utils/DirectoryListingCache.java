@@ -0,0 +1,293 @@
+package com.example.project.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Кэш полного содержимого папок в Redis: ключ {@code storage:listing:{storageId}:{prefix}}, значение — готовый JSON ответа.
+ * Сбрасывается по {@link StorageChangedEvent}: любая запись в хранилище удаляет листинги всех папок-предков изменённого пути, а удаление и перенос папки —
+ * ещё и всех её подпапок (их префиксы хранятся в отдельном множестве хранилища).
+ * Чтобы листинг, прочитанный до записи, не попал в кэш после неё, каждая инвалидация увеличивает
+ * поколение хранилища, и {@link #put} сохраняет значение только если поколение не изменилось —
+ * проверка и запись выполняются одним скриптом.
+ * Ошибки Redis не ломают запрос: кэш просто пропускается. Если не удалось сбросить листинги после записи,
+ * узел перестаёт читать кэш этого хранилища и раз в {@code storage.cache.listing.retry-interval} пытается
+ * сбросить его целиком; через {@code ttl} после сбоя устаревшие листинги истекают сами
+ */
+@Slf4j
+@Component
+public class DirectoryListingCache {
+
+    private static final String KEY_PREFIX = "storage:listing:";
+    private static final String GENERATION_SUFFIX = ":generation";
+    private static final String PREFIXES_SUFFIX = ":prefixes";
+
+    /**
+     * KEYS: поколение, листинг, множество префиксов; ARGV: ожидаемое поколение, JSON, ttl в мс, префикс
+     */
+    private static final RedisScript<Long> PUT_SCRIPT = new DefaultRedisScript<>("""
+            if (redis.call('GET', KEYS[1]) or '0') ~= ARGV[1] then
+                return 0
+            end
+            redis.call('SET', KEYS[2], ARGV[2], 'PX', ARGV[3])
+            redis.call('SADD', KEYS[3], ARGV[4])
+            redis.call('PEXPIRE', KEYS[3], ARGV[3])
+            return 1
+            """, Long.class);
+
+    /**
+     * KEYS: поколение, множество префиксов, листинги; ARGV: префиксы этих листингов
+     */
+    private static final RedisScript<Long> EVICT_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('INCR', KEYS[1])
+            for i = 3, #KEYS do
+                redis.call('DEL', KEYS[i])
+            end
+            for i = 1, #ARGV do
+                redis.call('SREM', KEYS[2], ARGV[i])
+            end
+            return #KEYS - 2
+            """, Long.class);
+
+    /**
+     * KEYS: поколение, множество префиксов; ARGV: начало ключей листингов хранилища
+     */
+    private static final RedisScript<Long> EVICT_ALL_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('INCR', KEYS[1])
+            local prefixes = redis.call('SMEMBERS', KEYS[2])
+            for _, prefix in ipairs(prefixes) do
+                redis.call('DEL', ARGV[1] .. prefix)
+            end
+            redis.call('DEL', KEYS[2])
+            return #prefixes
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final int maxBytes;
+
+    /**
+     * Хранилища, чьи листинги не удалось сбросить, и время последнего сбоя
+     */
+    private final Map<String, Instant> failedEvictions = new ConcurrentHashMap<>();
+
+    public DirectoryListingCache(StringRedisTemplate redisTemplate,
+                                 @Value("${storage.cache.listing.enabled:true}") boolean enabled,
+                                 @Value("${storage.cache.listing.ttl:10m}") Duration ttl,
+                                 @Value("${storage.cache.listing.max-bytes:256KB}") DataSize maxBytes) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.ttl = ttl;
+        this.maxBytes = (int) Math.min(Integer.MAX_VALUE, maxBytes.toBytes());
+    }
+
+    /**
+     * @return максимальный размер JSON, который имеет смысл собирать для кэша, 0 — кэш выключен
+     */
+    public int maxBytes() {
+        return enabled ? maxBytes : 0;
+    }
+
+    public Optional<String> find(String storageId,
+                                 String prefix) {
+        if (!enabled || !retryFailedEviction(storageId)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.ofNullable(redisTemplate.opsForValue().get(listingKey(storageId, prefix)));
+        } catch (DataAccessException e) {
+            log.warn("Кэш листингов недоступен: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @return поколение хранилища, которое нужно передать в {@link #put} после чтения листинга
+     */
+    public long generation(String storageId) {
+        if (!enabled) {
+            return 0;
+        }
+        try {
+            String generation = redisTemplate.opsForValue().get(KEY_PREFIX + storageId + GENERATION_SUFFIX);
+            return generation == null ? 0 : Long.parseLong(generation);
+        } catch (DataAccessException e) {
+            log.warn("Кэш листингов недоступен: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    public void put(String storageId,
+                    String prefix,
+                    long generation,
+                    String json) {
+        if (!enabled || json == null || generation < 0 || failedEvictions.containsKey(storageId)) {
+            return;
+        }
+        String prefixesKey = KEY_PREFIX + storageId + PREFIXES_SUFFIX;
+        try {
+            Long stored = redisTemplate.execute(PUT_SCRIPT,
+                    List.of(KEY_PREFIX + storageId + GENERATION_SUFFIX, listingKey(storageId, prefix), prefixesKey),
+                    Long.toString(generation), json, Long.toString(ttl.toMillis()), prefix);
+            if (stored == null || stored == 0) {
+                log.info("Листинг '{}' изменился во время чтения, в кэш не сохраняется", prefix);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Не удалось сохранить листинг '{}' в кэш: {}", prefix, e.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onStorageChanged(StorageChangedEvent event) {
+        if (event.tree()) {
+            for (String prefix : event.paths()) {
+                evictTree(event.storageId(), prefix);
+            }
+        } else {
+            evictPaths(event.storageId(), event.paths());
+        }
+    }
+
+    /**
+     * Запись или удаление объектов: меняются листинги всех папок на пути к ним
+     *
+     * @param paths ключи файлов или префиксы папок
+     */
+    public void evictPaths(String storageId,
+                           Collection<String> paths) {
+        Set<String> prefixes = new LinkedHashSet<>();
+        for (String path : paths) {
+            prefixes.addAll(ancestorPrefixes(path));
+        }
+        evict(storageId, new ArrayList<>(prefixes));
+    }
+
+    /**
+     * Удаление или перенос папки: вдобавок к предкам устаревают листинги самой папки и всех вложенных
+     *
+     * @param prefix префикс папки со слешем на конце
+     */
+    public void evictTree(String storageId,
+                          String prefix) {
+        if (!enabled) {
+            return;
+        }
+        List<String> prefixes = ancestorPrefixes(prefix);
+        prefixes.add(prefix);
+        try {
+            Set<String> cached = redisTemplate.opsForSet().members(KEY_PREFIX + storageId + PREFIXES_SUFFIX);
+            if (cached != null) {
+                for (String cachedPrefix : cached) {
+                    if (cachedPrefix.startsWith(prefix)) {
+                        prefixes.add(cachedPrefix);
+                    }
+                }
+            }
+        } catch (DataAccessException e) {
+            evictionFailed(storageId, e);
+            return;
+        }
+        evict(storageId, prefixes);
+    }
+
+    /**
+     * Повторяет сброс для хранилищ, после записи в которые Redis был недоступен: пока он не удался,
+     * другие узлы могут отдавать из кэша устаревшие листинги
+     */
+    @Scheduled(initialDelayString = "${storage.cache.listing.retry-interval:5s}",
+            fixedDelayString = "${storage.cache.listing.retry-interval:5s}")
+    public void retryFailedEvictions() {
+        for (String storageId : failedEvictions.keySet()) {
+            retryFailedEviction(storageId);
+        }
+    }
+
+    private void evict(String storageId,
+                       List<String> prefixes) {
+        if (!enabled) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(prefixes.size() + 2);
+        keys.add(KEY_PREFIX + storageId + GENERATION_SUFFIX);
+        keys.add(KEY_PREFIX + storageId + PREFIXES_SUFFIX);
+        for (String prefix : prefixes) {
+            keys.add(listingKey(storageId, prefix));
+        }
+        try {
+            redisTemplate.execute(EVICT_SCRIPT, keys, prefixes.toArray());
+        } catch (DataAccessException e) {
+            evictionFailed(storageId, e);
+        }
+    }
+
+    private void evictionFailed(String storageId,
+                                DataAccessException e) {
+        log.error("Не удалось сбросить кэш листингов хранилища '{}', кэш хранилища отключён до повторного сброса: {}",
+                storageId, e.getMessage());
+        failedEvictions.put(storageId, Instant.now());
+    }
+
+    /**
+     * @return {@code true}, если кэшу хранилища снова можно доверять
+     */
+    private boolean retryFailedEviction(String storageId) {
+        Instant failedAt = failedEvictions.get(storageId);
+        if (failedAt == null) {
+            return true;
+        }
+        if (failedAt.plus(ttl).isBefore(Instant.now())) {
+            // всё, что было сохранено до сбоя, уже истекло
+            failedEvictions.remove(storageId, failedAt);
+            return true;
+        }
+        try {
+            redisTemplate.execute(EVICT_ALL_SCRIPT,
+                    List.of(KEY_PREFIX + storageId + GENERATION_SUFFIX, KEY_PREFIX + storageId + PREFIXES_SUFFIX),
+                    KEY_PREFIX + storageId + ":");
+        } catch (DataAccessException e) {
+            log.warn("Повторный сброс кэша листингов хранилища '{}' не удался: {}", storageId, e.getMessage());
+            return false;
+        }
+        failedEvictions.remove(storageId, failedAt);
+        log.info("Кэш листингов хранилища '{}' сброшен после сбоя", storageId);
+        return true;
+    }
+
+    /**
+     * Для "a/b/c.txt" и для "a/b/c/" — это "", "a/", "a/b/"
+     */
+    private static List<String> ancestorPrefixes(String path) {
+        List<String> prefixes = new ArrayList<>();
+        prefixes.add("");
+        int end = path.endsWith("/") ? path.length() - 1 : path.length();
+        for (int i = path.indexOf('/'); i >= 0 && i < end; i = path.indexOf('/', i + 1)) {
+            prefixes.add(path.substring(0, i + 1));
+        }
+        return prefixes;
+    }
+
+    private static String listingKey(String storageId,
+                                     String prefix) {
+        return KEY_PREFIX + storageId + ":" + prefix;
+    }
+}
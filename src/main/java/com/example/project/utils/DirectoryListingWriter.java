@@ -0,0 +1,228 @@
+package com.example.project.utils;
+
+import com.example.project.dto.response.ResourceInfoResponse;
+import com.example.project.exceptions.storage.MissingOrInvalidPathException;
+import com.example.project.exceptions.storage.StorageBackendException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Пишет содержимое папки в ответ JSON-массивом по мере чтения листинга хранилища, не собирая его в память.
+ * При постраничной выдаче в памяти лежит только одна страница, а ключ последнего объекта уходит клиенту
+ * в заголовке {@value #CONTINUATION_TOKEN_HEADER} и при следующем запросе превращается в startAfter.
+ * Ошибка чтения листинга не пропускается: запрос падает, а не отдаёт неполный, но законченный на вид ответ
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DirectoryListingWriter {
+
+    public static final String CONTINUATION_TOKEN_HEADER = "X-Continuation-Token";
+
+    private static final int FLUSH_EVERY = 256;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param prefix префикс папки в виде ключа хранилища
+     * @return ключ, после которого продолжать листинг, или {@code null} для первой страницы
+     */
+    public String decodeToken(String continuationToken,
+                              String prefix) {
+        if (continuationToken == null || continuationToken.isEmpty()) {
+            return null;
+        }
+        String startAfter;
+        try {
+            startAfter = new String(Base64.getUrlDecoder().decode(continuationToken), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new MissingOrInvalidPathException("Невалидный токен продолжения");
+        }
+        if (!startAfter.startsWith(prefix)) {
+            throw new MissingOrInvalidPathException("Невалидный токен продолжения");
+        }
+        return startAfter;
+    }
+
+    /**
+     * @param root         префикс хранилища пользователя, который отрезается от ключей
+     * @param prefix       путь папки внутри хранилища
+     * @param captureLimit сколько байт ответа сохранить для кэша, 0 — не сохранять
+     * @return весь отданный JSON, если он уместился в {@code captureLimit}, иначе {@code null}
+     * @throws StorageBackendException если листинг оборвался; если ответ ещё не ушёл клиенту, он очищается,
+     *                                 иначе массив остаётся незакрытым и клиент видит оборванный ответ
+     */
+    public String writeAll(String root,
+                           String prefix,
+                           Iterator<StoredObject> results,
+                           HttpServletResponse response,
+                           int captureLimit) throws IOException {
+        prepare(response);
+        ObjectWriter writer = childWriter();
+        CapturingOutputStream out = new CapturingOutputStream(response.getOutputStream(), captureLimit);
+        // при ошибке close() не должен дописать "]" и закрыть поток ответа
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            generator.writeStartArray();
+            int written = 0;
+            while (results.hasNext()) {
+                ResourceInfoResponse child = toChild(root, prefix, results.next());
+                if (child == null) {
+                    continue;
+                }
+                writer.writeValue(generator, child);
+                if (++written % FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+            generator.writeEndArray();
+            log.info("Содержимое папки '{}' отдано целиком: {} элементов", prefix, written);
+        } catch (StorageBackendException e) {
+            log.error("Листинг папки '{}' оборвался: {}", prefix, e.getMessage());
+            if (!response.isCommitted()) {
+                response.resetBuffer();
+            }
+            throw e;
+        }
+        return out.captured();
+    }
+
+    public void writeCached(String json,
+                            HttpServletResponse response) throws IOException {
+        prepare(response);
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    public void writePage(String root,
+                          String prefix,
+                          Iterator<StoredObject> results,
+                          int limit,
+                          DirectorySort sort,
+                          HttpServletResponse response) throws IOException {
+        List<ResourceInfoResponse> page = new ArrayList<>(limit);
+        String lastKey = null;
+        // страница собирается до записи ответа, так что ошибка листинга просто проваливает запрос
+        while (page.size() < limit && results.hasNext()) {
+            StoredObject object = results.next();
+            lastKey = object.key();
+            ResourceInfoResponse child = toChild(root, prefix, object);
+            if (child != null) {
+                page.add(child);
+            }
+        }
+        if (lastKey != null && results.hasNext()) {
+            response.setHeader(CONTINUATION_TOKEN_HEADER, Base64.getUrlEncoder()
+                    .withoutPadding()
+                    .encodeToString(lastKey.getBytes(StandardCharsets.UTF_8)));
+        }
+        if (sort == DirectorySort.TYPE) {
+            page.sort(Comparator.comparing((ResourceInfoResponse child) -> !"DIRECTORY".equals(child.type())));
+        }
+
+        prepare(response);
+        ObjectWriter writer = childWriter();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.writeStartArray();
+            for (ResourceInfoResponse child : page) {
+                writer.writeValue(generator, child);
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    /**
+     * Без сброса после каждого элемента, иначе каждый объект уходит клиенту отдельным чанком
+     */
+    private ObjectWriter childWriter() {
+        return objectMapper.writerFor(ResourceInfoResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    private void prepare(HttpServletResponse response) {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    }
+
+    /**
+     * @return {@code null} для маркера самой папки
+     */
+    ResourceInfoResponse toChild(String root,
+                                 String prefix,
+                                 StoredObject object) {
+        String name = object.key().substring(root.length() + prefix.length());
+        if (name.isEmpty()) {
+            return null;
+        }
+        return object.isDirectory()
+                ? ResourceInfoResponse.forDirectory(prefix, name)
+                : ResourceInfoResponse.forFile(prefix, name, object.size());
+    }
+
+    /**
+     * Пишет в ответ и параллельно копирует байты в буфер, пока они укладываются в лимит
+     */
+    private static final class CapturingOutputStream extends FilterOutputStream {
+
+        private final int limit;
+        private ByteArrayOutputStream copy;
+
+        private CapturingOutputStream(OutputStream out,
+                                      int limit) {
+            super(out);
+            this.limit = limit;
+            this.copy = limit > 0 ? new ByteArrayOutputStream(Math.min(limit, 8192)) : null;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            capture(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b,
+                          int off,
+                          int len) throws IOException {
+            out.write(b, off, len);
+            capture(b, off, len);
+        }
+
+        private void capture(byte[] b,
+                             int off,
+                             int len) {
+            if (copy == null) {
+                return;
+            }
+            if (copy.size() + len > limit) {
+                copy = null;
+                return;
+            }
+            copy.write(b, off, len);
+        }
+
+        private String captured() {
+            return copy == null ? null : copy.toString(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.project.utils;
+
+import com.example.project.exceptions.storage.MissingOrInvalidPathException;
+
+public enum DirectorySort {
+    /**
+     * Порядок хранилища (по имени), он же порядок курсора
+     */
+    NAME,
+    /**
+     * Папки перед файлами в пределах страницы
+     */
+    TYPE;
+
+    public static DirectorySort from(String value) {
+        for (DirectorySort sort : values()) {
+            if (sort.name().equalsIgnoreCase(value)) {
+                return sort;
+            }
+        }
+        throw new MissingOrInvalidPathException("Невалидный параметр сортировки");
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.project.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Собирает папку в zip прямо в выходной поток. Пока пишется текущий файл, следующие
+ * небольшие объекты уже скачиваются из хранилища в фоне: окно ограничено по количеству
+ * ({@code prefetch-window}) и по памяти, общей на все скачивания ({@code prefetch-memory-budget}).
+ * Объекты крупнее доли бюджета не буферизуются и стримятся напрямую.
+ * Память предзагрузки возвращается в бюджет, только когда фоновое скачивание завершилось
+ * и его результат больше не нужен: при обрыве архива незапущенные скачивания пропускают чтение,
+ * а уже идущие дочитывают объект и сами освобождают место
+ */
+@Slf4j
+@Component
+public class DirectoryZipStreamer {
+
+    private static final Set<String> COMPRESSED_EXTENSIONS = Set.of(
+            "jpg", "jpeg", "png", "gif", "webp", "heic", "avif",
+            "mp3", "aac", "ogg", "flac", "mp4", "m4v", "mov", "avi", "mkv", "webm",
+            "zip", "gz", "tgz", "bz2", "xz", "7z", "rar", "zst",
+            "docx", "xlsx", "pptx", "odt", "jar", "apk", "pdf"
+    );
+
+    private final StorageBackend storageBackend;
+    private final ExecutorService storageExecutor;
+    private final int prefetchWindow;
+    private final int bufferSize;
+    private final long maxPrefetchObjectSize;
+    private final Semaphore prefetchBudget;
+
+    public DirectoryZipStreamer(StorageBackend storageBackend,
+                                ExecutorService storageExecutor,
+                                @Value("${storage.download.prefetch-window:8}") int prefetchWindow,
+                                @Value("${storage.download.prefetch-memory-budget:64MB}") DataSize prefetchMemoryBudget,
+                                @Value("${storage.download.buffer-size:64KB}") DataSize bufferSize) {
+        this.storageBackend = storageBackend;
+        this.storageExecutor = storageExecutor;
+        this.prefetchWindow = Math.max(1, prefetchWindow);
+        this.bufferSize = (int) bufferSize.toBytes();
+        int budget = (int) Math.min(Integer.MAX_VALUE, prefetchMemoryBudget.toBytes());
+        this.prefetchBudget = new Semaphore(budget);
+        this.maxPrefetchObjectSize = budget / this.prefetchWindow;
+    }
+
+    public void stream(UserStorage storage,
+                       String normalizedPath,
+                       OutputStream out) throws Exception {
+        String bucketName = storage.bucketName();
+        String prefix = storage.key(normalizedPath + "/");
+        Iterator<StoredObject> results = storageBackend.list(bucketName, prefix, true, null, 0).iterator();
+
+        Deque<PendingEntry> window = new ArrayDeque<>(prefetchWindow);
+        byte[] buffer = new byte[bufferSize];
+        int entries = 0;
+
+        try (ZipOutputStream zipOut = new ZipOutputStream(new BufferedOutputStream(out, bufferSize))) {
+            StoredObject next = nextFile(results);
+            while (next != null || !window.isEmpty()) {
+                while (next != null && window.size() < prefetchWindow) {
+                    PendingEntry pending = schedule(bucketName, next, window.isEmpty());
+                    if (pending == null) {
+                        break;
+                    }
+                    window.addLast(pending);
+                    next = nextFile(results);
+                }
+
+                PendingEntry head = window.pollFirst();
+                try {
+                    writeEntry(zipOut, head, prefix, bucketName, buffer);
+                } finally {
+                    release(head);
+                }
+                entries++;
+            }
+            zipOut.finish();
+        } finally {
+            for (PendingEntry pending : window) {
+                if (pending.lease() != null) {
+                    pending.lease().abandoned = true;
+                }
+                release(pending);
+            }
+        }
+        log.info("Папка '{}' упакована в zip, файлов: {}", normalizedPath, entries);
+    }
+
+    /**
+     * @return null, если бюджет памяти сейчас исчерпан и объект стоит подождать,
+     * пока освободится место после записи уже скачанных
+     */
+    private PendingEntry schedule(String bucketName,
+                                  StoredObject object,
+                                  boolean windowEmpty) {
+        long size = object.size();
+        if (size <= maxPrefetchObjectSize && prefetchBudget.tryAcquire((int) size)) {
+            PrefetchLease lease = new PrefetchLease((int) size);
+            Future<byte[]> content;
+            try {
+                content = storageExecutor.submit(() -> {
+                    try {
+                        return lease.abandoned ? null : readObject(bucketName, object.key());
+                    } finally {
+                        lease.release(prefetchBudget);
+                    }
+                });
+            } catch (RuntimeException e) {
+                prefetchBudget.release((int) size);
+                throw e;
+            }
+            return new PendingEntry(object, content, lease);
+        }
+        if (size > maxPrefetchObjectSize || windowEmpty) {
+            return new PendingEntry(object, null, null);
+        }
+        return null;
+    }
+
+    private void writeEntry(ZipOutputStream zipOut,
+                            PendingEntry entry,
+                            String prefix,
+                            String bucketName,
+                            byte[] buffer) throws Exception {
+        String objectName = entry.object().key();
+        String relativePath = objectName.substring(prefix.length());
+        boolean alreadyCompressed = isAlreadyCompressed(relativePath);
+
+        if (entry.content() != null) {
+            byte[] bytes = entry.content().get();
+            ZipEntry zipEntry = new ZipEntry(relativePath);
+            if (alreadyCompressed) {
+                CRC32 crc = new CRC32();
+                crc.update(bytes);
+                zipEntry.setMethod(ZipEntry.STORED);
+                zipEntry.setSize(bytes.length);
+                zipEntry.setCompressedSize(bytes.length);
+                zipEntry.setCrc(crc.getValue());
+            }
+            zipOut.putNextEntry(zipEntry);
+            zipOut.write(bytes);
+            zipOut.closeEntry();
+            return;
+        }
+
+        // Для STORED нужен CRC заранее, поэтому большие объекты пишутся DEFLATED без сжатия
+        zipOut.setLevel(alreadyCompressed ? Deflater.NO_COMPRESSION : Deflater.DEFAULT_COMPRESSION);
+        zipOut.putNextEntry(new ZipEntry(relativePath));
+        try (InputStream in = storageBackend.open(bucketName, objectName)) {
+            int length;
+            while ((length = in.read(buffer)) >= 0) {
+                zipOut.write(buffer, 0, length);
+            }
+        }
+        zipOut.closeEntry();
+        zipOut.setLevel(Deflater.DEFAULT_COMPRESSION);
+    }
+
+    private byte[] readObject(String bucketName,
+                              String objectName) throws Exception {
+        try (InputStream in = storageBackend.open(bucketName, objectName)) {
+            return in.readAllBytes();
+        }
+    }
+
+    private StoredObject nextFile(Iterator<StoredObject> results) {
+        while (results.hasNext()) {
+            StoredObject object = results.next();
+            if (!object.isDirectory()) {
+                return object;
+            }
+        }
+        return null;
+    }
+
+    private void release(PendingEntry entry) {
+        if (entry.lease() != null) {
+            entry.lease().release(prefetchBudget);
+        }
+    }
+
+    private static boolean isAlreadyCompressed(String relativePath) {
+        int dot = relativePath.lastIndexOf('.');
+        if (dot < 0 || dot < relativePath.lastIndexOf('/')) {
+            return false;
+        }
+        return COMPRESSED_EXTENSIONS.contains(relativePath.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * @param content null, если объект стримится напрямую без предзагрузки
+     */
+    private record PendingEntry(StoredObject object, Future<byte[]> content, PrefetchLease lease) {
+    }
+
+    /**
+     * Место в бюджете под одно скачивание. Его держат двое — фоновая задача и запись архива,
+     * и в бюджет оно возвращается, когда отпустили оба
+     */
+    private static final class PrefetchLease {
+
+        private final int size;
+        private final AtomicInteger holders = new AtomicInteger(2);
+        private volatile boolean abandoned;
+
+        private PrefetchLease(int size) {
+            this.size = size;
+        }
+
+        private void release(Semaphore budget) {
+            if (holders.decrementAndGet() == 0) {
+                budget.release(size);
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.project.utils;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Отдаёт файл по правилам HTTP: длина и валидаторы (ETag, Last-Modified) берутся из уже определённого
+ * {@link ResourceDescriptor},
+ * If-None-Match / If-Modified-Since отвечают 304, Range (в том числе несколько диапазонов)
+ * превращается в чтение со смещением, так что из хранилища читаются только нужные байты и каждый не больше одного раза
+ */
+@Slf4j
+@Component
+public class FileRangeStreamer {
+
+    private static final String BYTES = "bytes";
+    private static final String CRLF = "\r\n";
+
+    private final StorageBackend storageBackend;
+
+    public FileRangeStreamer(StorageBackend storageBackend) {
+        this.storageBackend = storageBackend;
+    }
+
+    public void stream(UserStorage storage,
+                       ResourceDescriptor file,
+                       HttpServletRequest request,
+                       HttpServletResponse response) throws Exception {
+        String normalizedPath = file.path();
+        String bucketName = storage.bucketName();
+        String key = storage.key(normalizedPath);
+        long size = file.size();
+        String etag = "\"" + file.etag() + "\"";
+        long lastModified = file.lastModified().toInstant().toEpochMilli();
+        String contentType = file.contentType() != null
+                ? file.contentType()
+                : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        String fileName = file.name();
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, BYTES);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(fileName, StandardCharsets.UTF_8)
+                .build()
+                .toString());
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            log.info("Файл '{}' не изменился, ответ 304", normalizedPath);
+            return;
+        }
+
+        List<long[]> ranges = resolveRanges(request, etag, lastModified, size);
+        if (ranges == null) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, BYTES + " */" + size);
+            return;
+        }
+
+        if (ranges.isEmpty()) {
+            response.setContentType(contentType);
+            response.setContentLengthLong(size);
+            copy(bucketName, key, 0, size, response.getOutputStream());
+            log.info("Файл по пути '{}' успешно скачен как '{}'", normalizedPath, fileName);
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        if (ranges.size() == 1) {
+            long[] range = ranges.get(0);
+            response.setContentType(contentType);
+            response.setContentLengthLong(range[1] - range[0] + 1);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, contentRange(range, size));
+            copy(bucketName, key, range[0], range[1] - range[0] + 1, response.getOutputStream());
+            return;
+        }
+
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        OutputStream out = response.getOutputStream();
+        for (long[] range : ranges) {
+            String partHeaders = CRLF + "--" + boundary + CRLF
+                    + HttpHeaders.CONTENT_TYPE + ": " + contentType + CRLF
+                    + HttpHeaders.CONTENT_RANGE + ": " + contentRange(range, size) + CRLF
+                    + CRLF;
+            out.write(partHeaders.getBytes(StandardCharsets.US_ASCII));
+            copy(bucketName, key, range[0], range[1] - range[0] + 1, out);
+        }
+        out.write((CRLF + "--" + boundary + "--" + CRLF).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Пересекающиеся и соседние диапазоны склеиваются и отдаются по возрастанию. Если сумма запрошенных
+     * диапазонов больше самого файла, Range игнорируется и отдаётся весь файл: так перекрывающиеся диапазоны
+     * не заставляют читать одни и те же байты много раз
+     *
+     * @return пустой список, если нужен весь файл; {@code null}, если диапазоны невыполнимы
+     */
+    private List<long[]> resolveRanges(HttpServletRequest request,
+                                       String etag,
+                                       long lastModified,
+                                       long size) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null || !ifRangeMatches(request, etag, lastModified)) {
+            return List.of();
+        }
+
+        List<long[]> ranges = new ArrayList<>();
+        long requested = 0;
+        try {
+            for (HttpRange range : HttpRange.parseRanges(rangeHeader)) {
+                long start = range.getRangeStart(size);
+                long end = range.getRangeEnd(size);
+                ranges.add(new long[]{start, end});
+                requested += end - start + 1;
+            }
+        } catch (IllegalArgumentException e) {
+            log.warn("Невыполнимый Range '{}' для файла размером {}", rangeHeader, size);
+            return null;
+        }
+        if (requested > size) {
+            log.warn("Range '{}' запрашивает {} байт из файла размером {}, отдаём файл целиком", rangeHeader, requested, size);
+            return List.of();
+        }
+        return merge(ranges);
+    }
+
+    private static List<long[]> merge(List<long[]> ranges) {
+        if (ranges.isEmpty()) {
+            return ranges;
+        }
+        ranges.sort(Comparator.comparingLong(range -> range[0]));
+        List<long[]> merged = new ArrayList<>(ranges.size());
+        long[] current = ranges.get(0);
+        for (int i = 1; i < ranges.size(); i++) {
+            long[] next = ranges.get(i);
+            if (next[0] <= current[1] + 1) {
+                current = new long[]{current[0], Math.max(current[1], next[1])};
+            } else {
+                merged.add(current);
+                current = next;
+            }
+        }
+        merged.add(current);
+        return merged;
+    }
+
+    /**
+     * Range учитывается только если If-Range отсутствует или совпадает с текущей версией файла
+     */
+    private boolean ifRangeMatches(HttpServletRequest request,
+                                   String etag,
+                                   long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private String contentRange(long[] range,
+                                long size) {
+        return BYTES + " " + range[0] + "-" + range[1] + "/" + size;
+    }
+
+    private void copy(String bucketName,
+                      String key,
+                      long offset,
+                      long length,
+                      OutputStream out) throws Exception {
+        if (length == 0) {
+            return;
+        }
+        storageBackend.read(bucketName, key, offset, length, out);
+    }
+}
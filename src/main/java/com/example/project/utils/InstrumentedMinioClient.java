@@ -0,0 +1,243 @@
+package com.example.project.utils;
+
+import io.micrometer.core.instrument.Timer;
+import io.minio.BucketExistsArgs;
+import io.minio.ComposeObjectArgs;
+import io.minio.CopyObjectArgs;
+import io.minio.GetObjectArgs;
+import io.minio.GetObjectResponse;
+import io.minio.ListObjectsArgs;
+import io.minio.MakeBucketArgs;
+import io.minio.MinioClient;
+import io.minio.ObjectWriteResponse;
+import io.minio.PutObjectArgs;
+import io.minio.RemoveObjectArgs;
+import io.minio.RemoveObjectsArgs;
+import io.minio.Result;
+import io.minio.StatObjectArgs;
+import io.minio.StatObjectResponse;
+import io.minio.errors.ErrorResponseException;
+import io.minio.errors.InsufficientDataException;
+import io.minio.errors.InternalException;
+import io.minio.errors.InvalidResponseException;
+import io.minio.errors.ServerException;
+import io.minio.errors.XmlParserException;
+import io.minio.messages.DeleteError;
+import io.minio.messages.Item;
+
+import java.io.IOException;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+
+/**
+ * MinioClient, снимающий метрики с каждого вызова через {@link MinioMetrics}.
+ * Подменяет обычный клиент в конфигурации, так что вызывающий код не меняется.
+ * Листинг ленивый: время считается только по ожиданию страниц внутри итератора,
+ * а запись делается, когда листинг дочитан до конца или вернул ошибку.
+ * Байты записи здесь не считаются: SDK не даёт подменить поток в уже собранных {@link PutObjectArgs},
+ * поэтому поток оборачивает тот, кто собирает аргументы, через {@link MinioMetrics#countUploaded}
+ */
+public class InstrumentedMinioClient extends MinioClient {
+
+    private final MinioMetrics metrics;
+
+    public InstrumentedMinioClient(MinioClient client,
+                                   MinioMetrics metrics) {
+        super(client);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public StatObjectResponse statObject(StatObjectArgs args) throws ErrorResponseException,
+            InsufficientDataException, InternalException, InvalidKeyException, InvalidResponseException,
+            IOException, NoSuchAlgorithmException, ServerException, XmlParserException {
+        Timer.Sample sample = metrics.start();
+        try {
+            StatObjectResponse response = super.statObject(args);
+            metrics.success(sample, "stat");
+            return response;
+        } catch (Exception e) {
+            metrics.failure(sample, "stat", e);
+            throw e;
+        }
+    }
+
+    @Override
+    public GetObjectResponse getObject(GetObjectArgs args) throws ErrorResponseException,
+            InsufficientDataException, InternalException, InvalidKeyException, InvalidResponseException,
+            IOException, NoSuchAlgorithmException, ServerException, XmlParserException {
+        Timer.Sample sample = metrics.start();
+        try {
+            GetObjectResponse response = super.getObject(args);
+            metrics.success(sample, "get");
+            return new GetObjectResponse(response.headers(), response.bucket(), response.region(),
+                    response.object(), metrics.countDownloaded(response));
+        } catch (Exception e) {
+            metrics.failure(sample, "get", e);
+            throw e;
+        }
+    }
+
+    @Override
+    public ObjectWriteResponse putObject(PutObjectArgs args) throws ErrorResponseException,
+            InsufficientDataException, InternalException, InvalidKeyException, InvalidResponseException,
+            IOException, NoSuchAlgorithmException, ServerException, XmlParserException {
+        Timer.Sample sample = metrics.start();
+        try {
+            ObjectWriteResponse response = super.putObject(args);
+            metrics.success(sample, "put");
+            return response;
+        } catch (Exception e) {
+            metrics.failure(sample, "put", e);
+            throw e;
+        }
+    }
+
+    @Override
+    public ObjectWriteResponse copyObject(CopyObjectArgs args) throws ErrorResponseException,
+            InsufficientDataException, InternalException, InvalidKeyException, InvalidResponseException,
+            IOException, NoSuchAlgorithmException, ServerException, XmlParserException {
+        Timer.Sample sample = metrics.start();
+        try {
+            ObjectWriteResponse response = super.copyObject(args);
+            metrics.success(sample, "copy");
+            return response;
+        } catch (Exception e) {
+            metrics.failure(sample, "copy", e);
+            throw e;
+        }
+    }
+
+    @Override
+    public ObjectWriteResponse composeObject(ComposeObjectArgs args) throws ErrorResponseException,
+            InsufficientDataException, InternalException, InvalidKeyException, InvalidResponseException,
+            IOException, NoSuchAlgorithmException, ServerException, XmlParserException {
+        Timer.Sample sample = metrics.start();
+        try {
+            ObjectWriteResponse response = super.composeObject(args);
+            metrics.success(sample, "compose");
+            return response;
+        } catch (Exception e) {
+            metrics.failure(sample, "compose", e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void removeObject(RemoveObjectArgs args) throws ErrorResponseException,
+            InsufficientDataException, InternalException, InvalidKeyException, InvalidResponseException,
+            IOException, NoSuchAlgorithmException, ServerException, XmlParserException {
+        Timer.Sample sample = metrics.start();
+        try {
+            super.removeObject(args);
+            metrics.success(sample, "remove");
+        } catch (Exception e) {
+            metrics.failure(sample, "remove", e);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean bucketExists(BucketExistsArgs args) throws ErrorResponseException,
+            InsufficientDataException, InternalException, InvalidKeyException, InvalidResponseException,
+            IOException, NoSuchAlgorithmException, ServerException, XmlParserException {
+        Timer.Sample sample = metrics.start();
+        try {
+            boolean exists = super.bucketExists(args);
+            metrics.success(sample, "bucket_exists");
+            return exists;
+        } catch (Exception e) {
+            metrics.failure(sample, "bucket_exists", e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void makeBucket(MakeBucketArgs args) throws ErrorResponseException,
+            InsufficientDataException, InternalException, InvalidKeyException, InvalidResponseException,
+            IOException, NoSuchAlgorithmException, ServerException, XmlParserException {
+        Timer.Sample sample = metrics.start();
+        try {
+            super.makeBucket(args);
+            metrics.success(sample, "make_bucket");
+        } catch (Exception e) {
+            metrics.failure(sample, "make_bucket", e);
+            throw e;
+        }
+    }
+
+    @Override
+    public Iterable<Result<Item>> listObjects(ListObjectsArgs args) {
+        Iterable<Result<Item>> results = super.listObjects(args);
+        return () -> new TimedIterator<>(results.iterator(), "list", Math.max(args.maxKeys(), 1), true);
+    }
+
+    /**
+     * SDK удаляет объекты только при обходе результата, поэтому и время считается по обходу
+     */
+    @Override
+    public Iterable<Result<DeleteError>> removeObjects(RemoveObjectsArgs args) {
+        Iterable<Result<DeleteError>> results = super.removeObjects(args);
+        return () -> new TimedIterator<>(results.iterator(), "remove_batch", 1, false);
+    }
+
+    private final class TimedIterator<T> implements Iterator<Result<T>> {
+
+        private final Iterator<Result<T>> delegate;
+        private final String operation;
+        private final int pageSize;
+        private final boolean listing;
+        private long waitedNanos;
+        private long items;
+        private boolean recorded;
+
+        private TimedIterator(Iterator<Result<T>> delegate,
+                              String operation,
+                              int pageSize,
+                              boolean listing) {
+            this.delegate = delegate;
+            this.operation = operation;
+            this.pageSize = pageSize;
+            this.listing = listing;
+        }
+
+        @Override
+        public boolean hasNext() {
+            long started = System.nanoTime();
+            boolean hasNext = delegate.hasNext();
+            waitedNanos += System.nanoTime() - started;
+            if (!hasNext) {
+                record(MinioMetrics.SUCCESS);
+            }
+            return hasNext;
+        }
+
+        @Override
+        public Result<T> next() {
+            long started = System.nanoTime();
+            Result<T> result = delegate.next();
+            waitedNanos += System.nanoTime() - started;
+            items++;
+            if (listing) {
+                try {
+                    result.get();
+                } catch (Exception e) {
+                    record(MinioMetrics.outcome(e));
+                }
+            }
+            return result;
+        }
+
+        private void record(String outcome) {
+            if (recorded) {
+                return;
+            }
+            recorded = true;
+            metrics.record(operation, outcome, waitedNanos);
+            if (listing) {
+                metrics.listed(Math.max(1, (items + pageSize - 1) / pageSize), outcome);
+            }
+        }
+    }
+}
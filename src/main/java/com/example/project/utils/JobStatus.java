@@ -0,0 +1,5 @@
+package com.example.project.utils;
+
+public enum JobStatus {
+    RUNNING, COMPLETED, FAILED
+}
@@ -0,0 +1,555 @@
+package com.example.project.utils;
+
+import com.example.project.dto.response.UploadedPartResponse;
+import com.example.project.exceptions.storage.StorageBackendException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.*;
+
+/**
+ * {@link StorageBackend} на локальном диске для небольших узлов без MinIO, включается профилем {@code local-storage}.
+ * Бакет — папка внутри {@code storage.local.root}, ключ — путь в ней. Маркер папки "a/b/" — файл
+ * {@value #DIRECTORY_MARKER} внутри "a/b": обратный слеш запрещён в {@link StoragePath}, так что с файлом пользователя
+ * он не совпадёт. Опустевшие папки удаляются вместе с последним объектом: в S3 папок без объектов не бывает.
+ * <p>
+ * Объект никогда не меняется на месте: запись идёт во временный файл в {@code .staging} и атомарно переименовывается
+ * поверх старого, поэтому читатели не видят недописанных файлов, а копия может быть жёсткой ссылкой.
+ * Скачивание, копирование между разными ФС и сборка multipart-загрузки идут через {@link FileChannel#transferTo}.
+ * В отличие от S3, ключи "a" и "a/b" не могут существовать одновременно
+ */
+@Slf4j
+@Component
+@Profile("local-storage")
+@Qualifier("objectStore")
+public class LocalStorageBackend implements StorageBackend {
+
+    static final String DIRECTORY_MARKER = "\\.folder";
+
+    private static final String STAGING = ".staging";
+    private static final String UPLOADS = ".uploads";
+    private static final int MOVE_ATTEMPTS = 3;
+
+    private final Path root;
+    private final Path staging;
+    private final Path uploads;
+    private final int bufferSize;
+
+    public LocalStorageBackend(@Value("${storage.local.root:./data/storage}") String root,
+                               @Value("${storage.download.buffer-size:64KB}") DataSize bufferSize) {
+        this.root = Path.of(root).toAbsolutePath().normalize();
+        this.staging = this.root.resolve(STAGING);
+        this.uploads = this.root.resolve(UPLOADS);
+        this.bufferSize = (int) bufferSize.toBytes();
+        try {
+            Files.createDirectories(staging);
+            Files.createDirectories(uploads);
+        } catch (IOException e) {
+            throw new IllegalStateException("Не удалось подготовить локальное хранилище " + this.root, e);
+        }
+        if (!StandardCharsets.UTF_8.name().equalsIgnoreCase(System.getProperty("sun.jnu.encoding"))) {
+            log.warn("Имена файлов кодируются в {}, пути не из ASCII сохранить не получится: запускайте с LANG=C.UTF-8",
+                    System.getProperty("sun.jnu.encoding"));
+        }
+        log.info("Файлы хранятся на локальном диске: {}", this.root);
+    }
+
+    @Override
+    public boolean createBucket(String bucketName) throws IOException {
+        Path bucket = bucket(bucketName);
+        try {
+            Files.createDirectory(bucket);
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            if (!Files.isDirectory(bucket, LinkOption.NOFOLLOW_LINKS)) {
+                throw e;
+            }
+            return false;
+        }
+    }
+
+    @Override
+    public boolean bucketExists(String bucketName) {
+        return Files.isDirectory(bucket(bucketName), LinkOption.NOFOLLOW_LINKS);
+    }
+
+    @Override
+    public void removeBucket(String bucketName) throws IOException {
+        Files.delete(bucket(bucketName));
+    }
+
+    @Override
+    public Optional<StoredObject> stat(String bucketName,
+                                       String key) throws IOException {
+        Path file = file(bucketName, key);
+        if (!Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS)) {
+            return Optional.empty();
+        }
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+        String contentType = key.endsWith("/")
+                ? null
+                : MediaTypeFactory.getMediaType(key).map(MediaType::toString).orElse(null);
+        return Optional.of(new StoredObject(key, attributes.size(), etag(attributes),
+                ZonedDateTime.ofInstant(attributes.lastModifiedTime().toInstant(), ZoneOffset.UTC), contentType));
+    }
+
+    /**
+     * Папки читаются по одной по мере обхода, в памяти лежит только содержимое текущей папки и её предков
+     */
+    @Override
+    public Iterable<StoredObject> list(String bucketName,
+                                       String prefix,
+                                       boolean recursive,
+                                       String startAfter,
+                                       int pageSize) {
+        if (!prefix.isEmpty() && !prefix.endsWith("/")) {
+            throw new IllegalArgumentException("Листинг возможен только по префиксу папки: " + prefix);
+        }
+        Path bucket = bucket(bucketName);
+        return () -> new Listing(bucket, prefix, recursive, startAfter);
+    }
+
+    @Override
+    public void read(String bucketName,
+                     String key,
+                     long offset,
+                     long length,
+                     OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(file(bucketName, key), StandardOpenOption.READ)) {
+            transfer(channel, offset, length, Channels.newChannel(out));
+        }
+    }
+
+    @Override
+    public InputStream open(String bucketName,
+                            String key) throws IOException {
+        return Files.newInputStream(file(bucketName, key));
+    }
+
+    /**
+     * Поток не закрывается, как и в MinIO-клиенте: им владеет вызывающий
+     */
+    @Override
+    public long write(String bucketName,
+                      String key,
+                      InputStream stream,
+                      long size,
+                      String contentType) throws IOException {
+        Path target = file(bucketName, key);
+        Path temp = newTemp();
+        try {
+            long written = writeTemp(stream, temp, size, key);
+            moveIntoPlace(temp, target);
+            return written;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Внутри одной ФС копия — жёсткая ссылка на тот же файл, байты не копируются вовсе
+     */
+    @Override
+    public void copy(String sourceBucket,
+                     String sourceKey,
+                     String targetBucket,
+                     String targetKey,
+                     long size) throws IOException {
+        Path source = file(sourceBucket, sourceKey);
+        Path target = file(targetBucket, targetKey);
+        Path temp = newTemp();
+        try {
+            try {
+                Files.createLink(temp, source);
+            } catch (IOException | UnsupportedOperationException e) {
+                try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                     FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                    transfer(in, 0, in.size(), out);
+                }
+            }
+            moveIntoPlace(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Отсутствующий ключ не ошибка, как и в S3
+     */
+    @Override
+    public void remove(String bucketName,
+                       String key) throws IOException {
+        Path file = file(bucketName, key);
+        if (Files.isDirectory(file, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        Files.deleteIfExists(file);
+        pruneEmptyDirectories(file.getParent(), bucket(bucketName));
+    }
+
+    @Override
+    public Map<String, String> removeAll(String bucketName,
+                                         List<String> keys) {
+        Map<String, String> failed = new LinkedHashMap<>();
+        for (String key : keys) {
+            try {
+                remove(bucketName, key);
+            } catch (Exception e) {
+                failed.put(key, e.toString());
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Части лежат файлами в {@code .uploads/{uploadId}/} до завершения или отмены загрузки
+     */
+    @Override
+    public String createMultipartUpload(String bucketName,
+                                        String key,
+                                        String contentType) throws IOException {
+        String uploadId = UUID.randomUUID().toString();
+        Files.createDirectory(uploads.resolve(uploadId));
+        return uploadId;
+    }
+
+    @Override
+    public String uploadPart(String bucketName,
+                             String key,
+                             String uploadId,
+                             int partNumber,
+                             InputStream stream,
+                             long size) throws IOException {
+        Path directory = upload(uploadId);
+        Path part = directory.resolve(Integer.toString(partNumber));
+        Path temp = newTemp();
+        try {
+            writeTemp(stream, temp, size, key);
+            Files.move(temp, part, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return etag(Files.readAttributes(part, BasicFileAttributes.class));
+    }
+
+    /**
+     * Части склеиваются в новый файл через transferTo, ETag каждой части сверяется с выданным при загрузке
+     */
+    @Override
+    public void completeMultipartUpload(String bucketName,
+                                        String key,
+                                        String uploadId,
+                                        List<UploadedPartResponse> parts) throws IOException {
+        Path directory = upload(uploadId);
+        Path target = file(bucketName, key);
+        Path temp = newTemp();
+        try {
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                for (UploadedPartResponse part : parts) {
+                    Path partFile = directory.resolve(Integer.toString(part.number()));
+                    if (!etag(Files.readAttributes(partFile, BasicFileAttributes.class)).equals(part.etag())) {
+                        throw new IOException("Часть " + part.number() + " загрузки " + uploadId + " изменилась");
+                    }
+                    try (FileChannel in = FileChannel.open(partFile, StandardOpenOption.READ)) {
+                        transfer(in, 0, in.size(), out);
+                    }
+                }
+            }
+            moveIntoPlace(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        deleteUpload(directory);
+    }
+
+    @Override
+    public void abortMultipartUpload(String bucketName,
+                                     String key,
+                                     String uploadId) throws IOException {
+        Path directory = upload(uploadId);
+        if (!Files.isDirectory(directory)) {
+            throw new NoSuchFileException("Загрузка " + uploadId + " не найдена");
+        }
+        deleteUpload(directory);
+    }
+
+    private Path bucket(String bucketName) {
+        if (bucketName.isEmpty() || bucketName.startsWith(".")
+                || bucketName.contains("/") || bucketName.contains("\\")) {
+            throw new IllegalArgumentException("Невалидное имя бакета: " + bucketName);
+        }
+        return root.resolve(bucketName);
+    }
+
+    /**
+     * @return файл объекта, для маркера папки — файл {@value #DIRECTORY_MARKER} внутри неё
+     */
+    private Path file(String bucketName,
+                      String key) {
+        Path bucket = bucket(bucketName);
+        boolean marker = key.endsWith("/");
+        Path file = directory(bucket, marker ? key.substring(0, key.length() - 1) : key);
+        return marker ? file.resolve(DIRECTORY_MARKER) : file;
+    }
+
+    /**
+     * Ключи приходят уже проверенными {@link StoragePath}, здесь только защита от выхода за пределы бакета
+     */
+    private static Path directory(Path bucket,
+                                  String path) {
+        if (path.isEmpty()) {
+            return bucket;
+        }
+        Path resolved = bucket.resolve(path);
+        if (path.startsWith("/") || path.contains("\\")
+                || !resolved.startsWith(bucket) || !resolved.normalize().equals(resolved)) {
+            throw new IllegalArgumentException("Невалидный ключ: " + path);
+        }
+        return resolved;
+    }
+
+    private Path upload(String uploadId) {
+        return uploads.resolve(UUID.fromString(uploadId).toString());
+    }
+
+    /**
+     * @param size ожидаемый размер или -1
+     * @return сколько байт записано
+     */
+    private long writeTemp(InputStream stream,
+                           Path temp,
+                           long size,
+                           String key) throws IOException {
+        long written = 0;
+        ReadableByteChannel source = Channels.newChannel(stream);
+        try (SeekableByteChannel channel = Files.newByteChannel(temp,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+            while (source.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    written += channel.write(buffer);
+                }
+                buffer.clear();
+            }
+        }
+        if (size >= 0 && written != size) {
+            throw new EOFException("Ожидалось " + size + " байт объекта '" + key + "', получено " + written);
+        }
+        return written;
+    }
+
+    private Path newTemp() {
+        return staging.resolve(UUID.randomUUID() + ".tmp");
+    }
+
+    /**
+     * Папку могло удалить удаление последнего объекта в ней между созданием и переносом, тогда пробуем снова
+     */
+    private static void moveIntoPlace(Path temp,
+                                      Path target) throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                return;
+            } catch (NoSuchFileException e) {
+                if (attempt == MOVE_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static void pruneEmptyDirectories(Path directory,
+                                              Path bucket) {
+        for (Path current = directory; current != null && current.startsWith(bucket) && !current.equals(bucket);
+             current = current.getParent()) {
+            try {
+                Files.delete(current);
+            } catch (DirectoryNotEmptyException e) {
+                return;
+            } catch (NoSuchFileException e) {
+                // уже удалена, проверяем родителя
+            } catch (IOException e) {
+                log.warn("Не удалось удалить пустую папку '{}': {}", current, e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private static void deleteUpload(Path directory) throws IOException {
+        try (DirectoryStream<Path> parts = Files.newDirectoryStream(directory)) {
+            for (Path part : parts) {
+                Files.deleteIfExists(part);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    /**
+     * Если получатель не файл и не сокет, JDK копирует через промежуточный буфер, но без лишних слоёв потоков
+     */
+    private static void transfer(FileChannel source,
+                                 long position,
+                                 long count,
+                                 WritableByteChannel target) throws IOException {
+        long end = position + count;
+        while (position < end) {
+            long transferred = source.transferTo(position, end - position, target);
+            if (transferred <= 0) {
+                throw new EOFException("Файл короче запрошенного диапазона");
+            }
+            position += transferred;
+        }
+    }
+
+    /**
+     * Объект не меняется на месте, поэтому времени изменения и размера достаточно, чтобы различать версии
+     */
+    private static String etag(BasicFileAttributes attributes) {
+        return Long.toHexString(attributes.lastModifiedTime().toMillis()) + "-" + Long.toHexString(attributes.size());
+    }
+
+    /**
+     * Ленивый обход в порядке возрастания ключей: ключи под одним префиксом идут подряд, поэтому обход в глубину
+     * с отсортированным содержимым каждой папки даёт тот же порядок, что и листинг S3
+     */
+    private final class Listing implements Iterator<StoredObject> {
+
+        private final Path bucket;
+        private final boolean recursive;
+        private final String startAfter;
+        private final Deque<Iterator<Entry>> levels = new ArrayDeque<>();
+        private StoredObject next;
+        private StorageBackendException failure;
+
+        private Listing(Path bucket,
+                        String prefix,
+                        boolean recursive,
+                        String startAfter) {
+            this.bucket = bucket;
+            this.recursive = recursive;
+            this.startAfter = startAfter;
+            descend(prefix);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && failure == null) {
+                advance();
+            }
+            return next != null || failure != null;
+        }
+
+        @Override
+        public StoredObject next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (failure != null) {
+                StorageBackendException e = failure;
+                failure = null;
+                throw e;
+            }
+            StoredObject result = next;
+            next = null;
+            return result;
+        }
+
+        private void advance() {
+            while (!levels.isEmpty()) {
+                Iterator<Entry> level = levels.peek();
+                if (!level.hasNext()) {
+                    levels.pop();
+                    continue;
+                }
+                Entry entry = level.next();
+                if (entry.directory() && recursive) {
+                    // всё поддерево меньше startAfter, если он не лежит внутри него
+                    if (startAfter == null || entry.key().compareTo(startAfter) > 0 || startAfter.startsWith(entry.key())) {
+                        descend(entry.key());
+                        if (failure != null) {
+                            return;
+                        }
+                    }
+                    continue;
+                }
+                if (startAfter != null && entry.key().compareTo(startAfter) <= 0) {
+                    continue;
+                }
+                next = StoredObject.listed(entry.key(), entry.size());
+                return;
+            }
+        }
+
+        private void descend(String prefix) {
+            try {
+                levels.push(readLevel(prefix).iterator());
+            } catch (IOException e) {
+                failure = new StorageBackendException("Ошибка при листинге '" + prefix + "': " + e.getMessage(), e);
+            }
+        }
+
+        private List<Entry> readLevel(String prefix) throws IOException {
+            Path directory = directory(bucket, prefix.isEmpty() ? "" : prefix.substring(0, prefix.length() - 1));
+            if (!Files.isDirectory(directory, LinkOption.NOFOLLOW_LINKS)) {
+                return List.of();
+            }
+            List<Entry> entries = new ArrayList<>();
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(directory)) {
+                for (Path child : children) {
+                    String name = child.getFileName().toString();
+                    BasicFileAttributes attributes;
+                    try {
+                        attributes = Files.readAttributes(child, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    } catch (NoSuchFileException e) {
+                        continue;
+                    }
+                    if (name.equals(DIRECTORY_MARKER)) {
+                        if (!prefix.isEmpty()) {
+                            entries.add(new Entry(prefix, 0, false));
+                        }
+                    } else if (attributes.isDirectory()) {
+                        entries.add(new Entry(prefix + name + "/", 0, true));
+                    } else if (attributes.isRegularFile()) {
+                        entries.add(new Entry(prefix + name, attributes.size(), false));
+                    }
+                }
+            } catch (NoSuchFileException e) {
+                return List.of();
+            }
+            entries.sort(Comparator.comparing(Entry::key));
+            return entries;
+        }
+    }
+
+    private record Entry(String key, long size, boolean directory) {
+    }
+}
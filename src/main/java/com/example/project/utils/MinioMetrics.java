@@ -0,0 +1,164 @@
+package com.example.project.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.minio.errors.ErrorResponseException;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Метрики обращений к MinIO: время каждой операции с тегами operation/outcome,
+ * счётчики переданных байт и распределение числа страниц в листингах
+ */
+@Component
+public class MinioMetrics {
+
+    public static final String SUCCESS = "success";
+    public static final String NOT_FOUND = "not_found";
+    public static final String ERROR = "error";
+
+    private static final Set<String> NOT_FOUND_CODES = Set.of("NoSuchKey", "NoSuchBucket", "NoSuchUpload");
+
+    private final MeterRegistry registry;
+    private final Counter downloadedBytes;
+    private final Counter uploadedBytes;
+
+    public MinioMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.downloadedBytes = Counter.builder("minio.transfer.bytes")
+                .description("Байты, переданные между приложением и MinIO")
+                .baseUnit("bytes")
+                .tag("direction", "download")
+                .register(registry);
+        this.uploadedBytes = Counter.builder("minio.transfer.bytes")
+                .description("Байты, переданные между приложением и MinIO")
+                .baseUnit("bytes")
+                .tag("direction", "upload")
+                .register(registry);
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    public void success(Timer.Sample sample,
+                        String operation) {
+        sample.stop(timer(operation, SUCCESS));
+    }
+
+    public void failure(Timer.Sample sample,
+                        String operation,
+                        Exception e) {
+        sample.stop(timer(operation, outcome(e)));
+    }
+
+    public void record(String operation,
+                       String outcome,
+                       long nanos) {
+        timer(operation, outcome).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public <T> T timed(String operation,
+                       Callable<T> call) throws Exception {
+        Timer.Sample sample = start();
+        try {
+            T result = call.call();
+            success(sample, operation);
+            return result;
+        } catch (Exception e) {
+            failure(sample, operation, e);
+            throw e;
+        }
+    }
+
+    /**
+     * @return поток, каждое чтение из которого засчитывается в скачанные байты
+     */
+    public InputStream countDownloaded(InputStream in) {
+        return new CountingInputStream(in, downloadedBytes);
+    }
+
+    /**
+     * Для записи с неизвестным заранее размером: байты засчитываются по мере того, как SDK читает поток
+     */
+    public InputStream countUploaded(InputStream in) {
+        return new CountingInputStream(in, uploadedBytes);
+    }
+
+    public void uploaded(long bytes) {
+        if (bytes > 0) {
+            uploadedBytes.increment(bytes);
+        }
+    }
+
+    public void listed(long pages,
+                       String outcome) {
+        DistributionSummary.builder("minio.list.pages")
+                .description("Число страниц, прочитанных за один листинг")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(pages);
+    }
+
+    /**
+     * Отсутствующий объект — штатный ответ (так, например, отличаются папки от файлов),
+     * поэтому он не смешивается с настоящими ошибками
+     */
+    public static String outcome(Exception e) {
+        if (e instanceof ErrorResponseException error
+                && NOT_FOUND_CODES.contains(error.errorResponse().code())) {
+            return NOT_FOUND;
+        }
+        return ERROR;
+    }
+
+    private Timer timer(String operation,
+                        String outcome) {
+        return Timer.builder("minio.requests")
+                .description("Время выполнения операций MinIO")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private final Counter counter;
+
+        private CountingInputStream(InputStream in,
+                                    Counter counter) {
+            super(in);
+            this.counter = counter;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                counter.increment();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b,
+                        int off,
+                        int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                counter.increment(read);
+            }
+            return read;
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.example.project.utils;
+
+import com.example.project.dto.response.UploadedPartResponse;
+import com.example.project.exceptions.storage.StorageBackendException;
+import io.minio.*;
+import io.minio.errors.ErrorResponseException;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
+import io.minio.messages.Item;
+import io.minio.messages.Part;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.*;
+
+/**
+ * {@link StorageBackend} поверх MinIO. Работает во всех профилях, кроме {@code local-storage}
+ */
+@Component
+@Profile("!local-storage")
+@Qualifier("objectStore")
+public class MinioStorageBackend implements StorageBackend {
+
+    private static final String BUCKET_OWNED_BY_YOU = "BucketAlreadyOwnedByYou";
+    private static final Set<String> MISSING_OBJECT_CODES = Set.of("NoSuchKey", "NoSuchBucket");
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+    private static final long MAX_PARTS = 10_000;
+
+    /**
+     * Предел одиночного CopyObject в S3
+     */
+    private static final long MAX_SINGLE_COPY_SIZE = 5L * 1024 * 1024 * 1024;
+
+    private final MinioClient minioClient;
+    private final MultipartMinioClient multipartMinioClient;
+    private final MinioMetrics metrics;
+    private final long partSize;
+
+    public MinioStorageBackend(MinioClient minioClient,
+                               MultipartMinioClient multipartMinioClient,
+                               MinioMetrics metrics,
+                               @Value("${storage.upload.part-size:16MB}") DataSize uploadPartSize) {
+        this.minioClient = minioClient;
+        this.multipartMinioClient = multipartMinioClient;
+        this.metrics = metrics;
+        this.partSize = Math.max(MIN_PART_SIZE, uploadPartSize.toBytes());
+    }
+
+    /**
+     * Один makeBucket без предварительной проверки, уже существующий свой бакет считается успехом
+     */
+    @Override
+    public boolean createBucket(String bucketName) throws Exception {
+        try {
+            minioClient.makeBucket(MakeBucketArgs.builder().bucket(bucketName).build());
+            return true;
+        } catch (ErrorResponseException e) {
+            if (BUCKET_OWNED_BY_YOU.equals(e.errorResponse().code())) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean bucketExists(String bucketName) throws Exception {
+        return minioClient.bucketExists(BucketExistsArgs.builder().bucket(bucketName).build());
+    }
+
+    @Override
+    public void removeBucket(String bucketName) throws Exception {
+        minioClient.removeBucket(RemoveBucketArgs.builder().bucket(bucketName).build());
+    }
+
+    /**
+     * Пусто только для NoSuchKey и NoSuchBucket, остальные ошибки MinIO (нет доступа, сбой на его стороне)
+     * пробрасываются, чтобы не выдать их за отсутствие объекта
+     */
+    @Override
+    public Optional<StoredObject> stat(String bucketName,
+                                       String key) throws Exception {
+        try {
+            StatObjectResponse object = minioClient.statObject(StatObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(key)
+                    .build());
+            return Optional.of(new StoredObject(key, object.size(), object.etag(), object.lastModified(),
+                    object.contentType()));
+        } catch (ErrorResponseException e) {
+            if (MISSING_OBJECT_CODES.contains(e.errorResponse().code())) {
+                return Optional.empty();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public Iterable<StoredObject> list(String bucketName,
+                                       String prefix,
+                                       boolean recursive,
+                                       String startAfter,
+                                       int pageSize) {
+        ListObjectsArgs.Builder args = ListObjectsArgs.builder()
+                .bucket(bucketName)
+                .prefix(prefix)
+                .recursive(recursive);
+        if (startAfter != null) {
+            args.startAfter(startAfter);
+        }
+        if (pageSize > 0) {
+            args.maxKeys(Math.min(pageSize, MinioHelperService.MAX_PAGE_SIZE));
+        }
+        Iterable<Result<Item>> results = minioClient.listObjects(args.build());
+        return () -> new Iterator<>() {
+            private final Iterator<Result<Item>> delegate = results.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return delegate.hasNext();
+            }
+
+            @Override
+            public StoredObject next() {
+                try {
+                    return toStoredObject(delegate.next().get());
+                } catch (Exception e) {
+                    throw new StorageBackendException("Ошибка при листинге '" + prefix + "': " + e.getMessage(), e);
+                }
+            }
+        };
+    }
+
+    @Override
+    public void read(String bucketName,
+                     String key,
+                     long offset,
+                     long length,
+                     OutputStream out) throws Exception {
+        try (InputStream in = minioClient.getObject(GetObjectArgs.builder()
+                .bucket(bucketName)
+                .object(key)
+                .offset(offset)
+                .length(length)
+                .build())) {
+            in.transferTo(out);
+        }
+    }
+
+    @Override
+    public InputStream open(String bucketName,
+                            String key) throws Exception {
+        return minioClient.getObject(GetObjectArgs.builder()
+                .bucket(bucketName)
+                .object(key)
+                .build());
+    }
+
+    /**
+     * Если размер заранее неизвестен (chunked), клиент режет поток на части по {@code storage.upload.part-size}
+     */
+    @Override
+    public long write(String bucketName,
+                      String key,
+                      InputStream stream,
+                      long size,
+                      String contentType) throws Exception {
+        long objectPartSize = size > partSize * MAX_PARTS
+                ? -1 // пусть клиент сам подберёт размер части под 10000 частей
+                : partSize;
+        PutObjectArgs.Builder args = PutObjectArgs.builder()
+                .bucket(bucketName)
+                .object(key)
+                .stream(metrics.countUploaded(stream), size, objectPartSize);
+        if (contentType != null) {
+            args.contentType(contentType);
+        }
+        minioClient.putObject(args.build());
+        if (size >= 0) {
+            return size;
+        }
+        return minioClient.statObject(StatObjectArgs.builder()
+                .bucket(bucketName)
+                .object(key)
+                .build()).size();
+    }
+
+    /**
+     * Объекты больше 5 GiB копируются через composeObject (multipart copy)
+     */
+    @Override
+    public void copy(String sourceBucket,
+                     String sourceKey,
+                     String targetBucket,
+                     String targetKey,
+                     long size) throws Exception {
+        if (size > MAX_SINGLE_COPY_SIZE) {
+            minioClient.composeObject(ComposeObjectArgs.builder()
+                    .bucket(targetBucket)
+                    .object(targetKey)
+                    .sources(List.of(ComposeSource.builder()
+                            .bucket(sourceBucket)
+                            .object(sourceKey)
+                            .build()))
+                    .build());
+            return;
+        }
+        minioClient.copyObject(CopyObjectArgs.builder()
+                .bucket(targetBucket)
+                .object(targetKey)
+                .source(CopySource.builder()
+                        .bucket(sourceBucket)
+                        .object(sourceKey)
+                        .build())
+                .build());
+    }
+
+    @Override
+    public void remove(String bucketName,
+                       String key) throws Exception {
+        minioClient.removeObject(RemoveObjectArgs.builder()
+                .bucket(bucketName)
+                .object(key)
+                .build());
+    }
+
+    /**
+     * Один S3 multi-delete на всю пачку
+     */
+    @Override
+    public Map<String, String> removeAll(String bucketName,
+                                         List<String> keys) throws Exception {
+        List<DeleteObject> objects = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            objects.add(new DeleteObject(key));
+        }
+        Map<String, String> failed = new LinkedHashMap<>();
+        for (Result<DeleteError> result : minioClient.removeObjects(RemoveObjectsArgs.builder()
+                .bucket(bucketName)
+                .objects(objects)
+                .build())) {
+            DeleteError error = result.get();
+            failed.put(error.objectName(), error.message());
+        }
+        return failed;
+    }
+
+    @Override
+    public String createMultipartUpload(String bucketName,
+                                        String key,
+                                        String contentType) throws Exception {
+        return multipartMinioClient.createMultipartUpload(bucketName, key, contentType);
+    }
+
+    @Override
+    public String uploadPart(String bucketName,
+                             String key,
+                             String uploadId,
+                             int partNumber,
+                             InputStream stream,
+                             long size) throws Exception {
+        return multipartMinioClient.uploadPart(bucketName, key, uploadId, partNumber, stream, size);
+    }
+
+    @Override
+    public void completeMultipartUpload(String bucketName,
+                                        String key,
+                                        String uploadId,
+                                        List<UploadedPartResponse> parts) throws Exception {
+        Part[] minioParts = new Part[parts.size()];
+        for (int i = 0; i < parts.size(); i++) {
+            minioParts[i] = new Part(parts.get(i).number(), parts.get(i).etag());
+        }
+        multipartMinioClient.completeMultipartUpload(bucketName, key, uploadId, minioParts);
+    }
+
+    @Override
+    public void abortMultipartUpload(String bucketName,
+                                     String key,
+                                     String uploadId) throws Exception {
+        multipartMinioClient.abortMultipartUpload(bucketName, key, uploadId);
+    }
+
+    static StoredObject toStoredObject(Item item) {
+        return StoredObject.listed(item.objectName(), item.size());
+    }
+}
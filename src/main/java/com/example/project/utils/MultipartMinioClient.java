@@ -0,0 +1,143 @@
+package com.example.project.utils;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import io.minio.GetPresignedObjectUrlArgs;
+import io.minio.MinioAsyncClient;
+import io.minio.http.Method;
+import io.minio.messages.Part;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Source;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Открывает низкоуровневые вызовы S3 multipart upload, которые в MinIO SDK защищены.
+ * Нужен для возобновляемой загрузки, где части приходят отдельными запросами.
+ * SDK принимает тело части только массивом байт, поэтому части уходят PUT-запросом по подписанной ссылке
+ * через тот же {@link OkHttpClient}: тело запроса пользователя переливается в MinIO потоком
+ */
+public class MultipartMinioClient extends MinioAsyncClient {
+
+    private static final int PART_URL_EXPIRY_HOURS = 1;
+
+    private final OkHttpClient httpClient;
+    private final MinioMetrics metrics;
+
+    public MultipartMinioClient(MinioAsyncClient client,
+                                OkHttpClient httpClient,
+                                MinioMetrics metrics) {
+        super(client);
+        this.httpClient = httpClient;
+        this.metrics = metrics;
+    }
+
+    public String createMultipartUpload(String bucketName,
+                                        String objectName,
+                                        String contentType) throws Exception {
+        Multimap<String, String> headers = HashMultimap.create();
+        headers.put("Content-Type", contentType);
+        return metrics.timed("multipart_create", () ->
+                createMultipartUploadAsync(bucketName, null, objectName, headers, HashMultimap.create())
+                        .get()
+                        .result()
+                        .uploadId());
+    }
+
+    public String uploadPart(String bucketName,
+                             String objectName,
+                             String uploadId,
+                             int partNumber,
+                             InputStream stream,
+                             long size) throws Exception {
+        String etag = metrics.timed("multipart_part", () -> {
+            String url = getPresignedObjectUrl(GetPresignedObjectUrlArgs.builder()
+                    .method(Method.PUT)
+                    .bucket(bucketName)
+                    .object(objectName)
+                    .extraQueryParams(Map.of(
+                            "partNumber", Integer.toString(partNumber),
+                            "uploadId", uploadId))
+                    .expiry(PART_URL_EXPIRY_HOURS, TimeUnit.HOURS)
+                    .build());
+            Request request = new Request.Builder()
+                    .url(url)
+                    .put(new StreamingBody(stream, size))
+                    .build();
+            try (Response response = httpClient.newCall(request).execute()) {
+                String responseEtag = response.header("ETag");
+                if (!response.isSuccessful() || responseEtag == null) {
+                    throw new IOException(String.format("Часть %d загрузки %s не принята: HTTP %d %s",
+                            partNumber, uploadId, response.code(), response.body() == null ? "" : response.body().string()));
+                }
+                return responseEtag.replace("\"", "");
+            }
+        });
+        metrics.uploaded(size);
+        return etag;
+    }
+
+    public void completeMultipartUpload(String bucketName,
+                                        String objectName,
+                                        String uploadId,
+                                        Part[] parts) throws Exception {
+        metrics.timed("multipart_complete", () ->
+                completeMultipartUploadAsync(bucketName, null, objectName, uploadId, parts,
+                        HashMultimap.create(), HashMultimap.create())
+                        .get());
+    }
+
+    public void abortMultipartUpload(String bucketName,
+                                     String objectName,
+                                     String uploadId) throws Exception {
+        metrics.timed("multipart_abort", () ->
+                abortMultipartUploadAsync(bucketName, null, objectName, uploadId,
+                        HashMultimap.create(), HashMultimap.create())
+                        .get());
+    }
+
+    /**
+     * Тело известной длины, которое читается из потока один раз: повторить такой запрос OkHttp не сможет,
+     * поэтому {@link #isOneShot()}. Если поток короче или длиннее {@code size}, OkHttp обрывает запрос
+     */
+    private static final class StreamingBody extends RequestBody {
+        private final InputStream stream;
+        private final long size;
+
+        private StreamingBody(InputStream stream,
+                              long size) {
+            this.stream = stream;
+            this.size = size;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return null;
+        }
+
+        @Override
+        public long contentLength() {
+            return size;
+        }
+
+        @Override
+        public boolean isOneShot() {
+            return true;
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            Source source = Okio.source(stream);
+            sink.writeAll(source);
+        }
+    }
+}
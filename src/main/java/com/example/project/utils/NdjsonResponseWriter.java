@@ -0,0 +1,56 @@
+package com.example.project.utils;
+
+import com.example.project.dto.response.ResourceInfoResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Пишет ресурсы в ответ как NDJSON (один JSON-объект на строку). Первая строка сбрасывается
+ * клиенту сразу, дальше - пачками, чтобы не отправлять каждую строку отдельным чанком
+ */
+@Component
+@RequiredArgsConstructor
+public class NdjsonResponseWriter {
+
+    private static final int FLUSH_EVERY = 32;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Ошибка записи (например, клиент закрыл соединение) пробрасывается как {@link UncheckedIOException}
+     * и прерывает источник данных
+     */
+    public Consumer<ResourceInfoResponse> open(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        OutputStream out = response.getOutputStream();
+        ObjectWriter writer = objectMapper.writerFor(ResourceInfoResponse.class);
+
+        return new Consumer<>() {
+            private int written;
+
+            @Override
+            public void accept(ResourceInfoResponse resource) {
+                try {
+                    out.write(writer.writeValueAsBytes(resource));
+                    out.write('\n');
+                    if (written++ % FLUSH_EVERY == 0) {
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.project.utils;
+
+import com.example.project.dto.response.DeleteReportResponse;
+import com.example.project.exceptions.storage.MinioNotFoundException;
+import com.example.project.exceptions.storage.StorageBackendException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Перемещение в пределах хранилища пользователя. Копирование идёт внутри хранилища ({@link StorageBackend#copy})
+ * параллельно, не больше {@code storage.move.parallel-copies} объектов одновременно. Исходники удаляются
+ * пачками только после того, как скопировано всё дерево; если какое-то копирование упало, уже созданные копии удаляются,
+ * и исходная папка остаётся нетронутой. Исходники, которые не удалось удалить после копирования, возвращаются в отчёте
+ */
+@Slf4j
+@Component
+public class ObjectMover {
+
+    private final StorageBackend storageBackend;
+    private final ExecutorService storageExecutor;
+    private final BatchObjectRemover batchObjectRemover;
+    private final int parallelCopies;
+
+    public ObjectMover(StorageBackend storageBackend,
+                       ExecutorService storageExecutor,
+                       BatchObjectRemover batchObjectRemover,
+                       @Value("${storage.move.parallel-copies:16}") int parallelCopies) {
+        this.storageBackend = storageBackend;
+        this.storageExecutor = storageExecutor;
+        this.batchObjectRemover = batchObjectRemover;
+        this.parallelCopies = Math.max(1, parallelCopies);
+    }
+
+    public void moveFile(UserStorage storage,
+                         String normalizedOldPath,
+                         String normalizedNewPath,
+                         long size) {
+        String bucketName = storage.bucketName();
+        try {
+            storageBackend.copy(bucketName, storage.key(normalizedOldPath), bucketName, storage.key(normalizedNewPath), size);
+            log.info("Файл успешно скопирован");
+
+            storageBackend.remove(bucketName, storage.key(normalizedOldPath));
+            log.info("Переименование файла прошло успешно");
+        } catch (Exception e) {
+            throw new MinioNotFoundException(String.format("Во время переименования файла произошла ошибка: %s", e.getMessage()));
+        }
+    }
+
+    /**
+     * @return отчёт об удалении исходной папки: непустой {@code failed} значит, что копия создана полностью,
+     * но перечисленные исходные объекты остались на месте
+     */
+    public DeleteReportResponse moveDirectory(UserStorage storage,
+                                              String normalizedOldPath,
+                                              String normalizedNewPath) {
+        String bucketName = storage.bucketName();
+        String oldPrefix = storage.key(normalizedOldPath + "/");
+        String newPrefix = storage.key(normalizedNewPath + "/");
+
+        List<StoredObject> sources = listTree(bucketName, oldPrefix);
+        List<String> copied = copyTree(bucketName, oldPrefix, sources, bucketName, newPrefix);
+        log.info("Скопировано объектов: {}, из '{}' в '{}'", copied.size(), oldPrefix, newPrefix);
+
+        List<String> sourceKeys = new ArrayList<>(sources.size());
+        for (StoredObject source : sources) {
+            sourceKeys.add(source.key());
+        }
+        DeleteReportResponse removal = batchObjectRemover.removeObjects(storage, normalizedOldPath + "/", sourceKeys);
+        if (!removal.failed().isEmpty()) {
+            log.warn("После перемещения в '{}' не удалось удалить {} исходных объектов", oldPrefix, removal.failed().size());
+        }
+        return removal;
+    }
+
+    /**
+     * Копирует всё содержимое бакета в хранилище пользователя, исходный бакет не меняется.
+     * Нужно для переноса файлов между раскладками
+     *
+     * @return ключи исходного бакета, которые скопированы
+     */
+    public List<String> copyBucket(String sourceBucket,
+                                   UserStorage target) {
+        List<StoredObject> sources = listTree(sourceBucket, "");
+        copyTree(sourceBucket, "", sources, target.bucketName(), target.root());
+        List<String> sourceKeys = new ArrayList<>(sources.size());
+        for (StoredObject source : sources) {
+            sourceKeys.add(source.key());
+        }
+        return sourceKeys;
+    }
+
+    private List<StoredObject> listTree(String bucketName,
+                                        String prefix) {
+        List<StoredObject> sources = new ArrayList<>();
+        try {
+            for (StoredObject object : storageBackend.list(bucketName, prefix, true, null, 0)) {
+                sources.add(object);
+            }
+        } catch (StorageBackendException e) {
+            throw new MinioNotFoundException(String.format("Ошибка при обработке директории: %s", e.getMessage()));
+        }
+        return sources;
+    }
+
+    /**
+     * @return созданные ключи; если хоть одно копирование упало, они удаляются и бросается исключение
+     */
+    private List<String> copyTree(String sourceBucket,
+                                  String sourcePrefix,
+                                  List<StoredObject> sources,
+                                  String targetBucket,
+                                  String targetPrefix) {
+        Deque<Future<String>> inFlight = new ArrayDeque<>(parallelCopies);
+        List<String> copied = new ArrayList<>(sources.size());
+        try {
+            for (StoredObject source : sources) {
+                if (inFlight.size() == parallelCopies) {
+                    copied.add(await(inFlight.pollFirst()));
+                }
+                String target = targetPrefix + source.key().substring(sourcePrefix.length());
+                inFlight.addLast(storageExecutor.submit(() -> {
+                    storageBackend.copy(sourceBucket, source.key(), targetBucket, target, source.size());
+                    return target;
+                }));
+            }
+            while (!inFlight.isEmpty()) {
+                copied.add(await(inFlight.pollFirst()));
+            }
+        } catch (Exception e) {
+            drain(inFlight, copied);
+            rollback(targetBucket, targetPrefix, copied);
+            throw new MinioNotFoundException(String.format("Ошибка при обработке директории: %s", e.getMessage()));
+        }
+        return copied;
+    }
+
+    private String await(Future<String> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    /**
+     * Дожидается уже запущенных копирований, чтобы откат знал обо всех созданных объектах
+     */
+    private void drain(Deque<Future<String>> inFlight,
+                       List<String> copied) {
+        for (Future<String> future : inFlight) {
+            try {
+                copied.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                // это копирование тоже не удалось, откатывать нечего
+            }
+        }
+    }
+
+    private void rollback(String bucketName,
+                          String newPrefix,
+                          List<String> copied) {
+        if (copied.isEmpty()) {
+            return;
+        }
+        log.warn("Откат перемещения: удаляем {} скопированных объектов из '{}'", copied.size(), newPrefix);
+        DeleteReportResponse removal = batchObjectRemover.removeObjects(bucketName, newPrefix, copied);
+        if (!removal.failed().isEmpty()) {
+            log.error("Откат перемещения неполный: в '{}' осталось {} объектов", newPrefix, removal.failed().size());
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.project.utils;
+
+import com.example.project.dto.response.FailedObjectResponse;
+import com.example.project.dto.response.ResourceInfoResponse;
+import com.example.project.dto.response.UploadReportResponse;
+import com.example.project.exceptions.storage.ResourceAlreadyExistsException;
+import com.example.project.exceptions.storage.StorageBackendException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Загрузка пачки файлов из одного запроса: существование проверяется одним листингом на каждую
+ * целевую папку, файлы заливаются параллельно (не больше {@code storage.upload.parallel-files} одновременно).
+ * Ошибка загрузки отдельного файла не прерывает остальные, а попадает в отчёт
+ */
+@Slf4j
+@Component
+public class ParallelUploader {
+
+    private final StorageBackend storageBackend;
+    private final ExecutorService storageExecutor;
+    private final int parallelFiles;
+
+    public ParallelUploader(StorageBackend storageBackend,
+                            ExecutorService storageExecutor,
+                            @Value("${storage.upload.parallel-files:8}") int parallelFiles) {
+        this.storageBackend = storageBackend;
+        this.storageExecutor = storageExecutor;
+        this.parallelFiles = Math.max(1, parallelFiles);
+    }
+
+    /**
+     * @param normalizedPath целевая папка, пустая строка или путь со слешем на конце
+     * @return отчёт, в котором загруженные файлы идут в том же порядке, что и в запросе
+     */
+    public UploadReportResponse upload(UserStorage storage,
+                                       String normalizedPath,
+                                       MultipartFile[] files) {
+        // имена файлов могут содержать подпапки, поэтому каждый итоговый путь проверяется целиком до первой записи
+        StoragePath[] paths = new StoragePath[files.length];
+        for (int i = 0; i < files.length; i++) {
+            paths[i] = StoragePath.of(normalizedPath + files[i].getOriginalFilename()).requireNotRoot();
+        }
+        checkConflicts(storage, paths);
+
+        List<ResourceInfoResponse> uploaded = new ArrayList<>(files.length);
+        List<FailedObjectResponse> failed = new ArrayList<>();
+        Deque<Future<UploadResult>> inFlight = new ArrayDeque<>(parallelFiles);
+        try {
+            for (int i = 0; i < files.length; i++) {
+                if (inFlight.size() == parallelFiles) {
+                    collect(inFlight.pollFirst(), uploaded, failed);
+                }
+                StoragePath path = paths[i];
+                MultipartFile file = files[i];
+                inFlight.addLast(storageExecutor.submit(() -> uploadFile(storage, path, file)));
+            }
+            while (!inFlight.isEmpty()) {
+                collect(inFlight.pollFirst(), uploaded, failed);
+            }
+        } finally {
+            for (Future<UploadResult> future : inFlight) {
+                future.cancel(true);
+            }
+        }
+
+        log.info("Загрузка в '{}': успешно {}, ошибок {}", normalizedPath, uploaded.size(), failed.size());
+        return new UploadReportResponse(uploaded, failed);
+    }
+
+    /**
+     * Вместо statObject на каждый файл читаем содержимое каждой затронутой папки один раз
+     */
+    private void checkConflicts(UserStorage storage,
+                                StoragePath[] paths) {
+        Map<String, Set<String>> existingByParent = new HashMap<>();
+        for (StoragePath path : paths) {
+            Set<String> existing = existingByParent.computeIfAbsent(path.parent(), prefix -> listNames(storage, prefix));
+            if (existing.contains(storage.key(path.path()))) {
+                log.error("Файл '{}' уже сущестует", path);
+                throw new ResourceAlreadyExistsException(path.path());
+            }
+        }
+    }
+
+    private Set<String> listNames(UserStorage storage,
+                                  String prefix) {
+        Set<String> names = new HashSet<>();
+        try {
+            for (StoredObject object : storageBackend.list(storage.bucketName(), storage.key(prefix), false, null, 0)) {
+                names.add(object.key());
+            }
+        } catch (StorageBackendException e) {
+            log.error("Ошибка при листинге папки '{}': {}", prefix, e.getMessage());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Ошибка при загрузке ресурса", e);
+        }
+        return names;
+    }
+
+    private UploadResult uploadFile(UserStorage storage,
+                                    StoragePath path,
+                                    MultipartFile file) {
+        try (InputStream stream = file.getInputStream()) {
+            storageBackend.write(storage.bucketName(), storage.key(path.path()), stream, file.getSize(),
+                    file.getContentType());
+        } catch (Exception e) {
+            log.error("Ошибка при загрузке файла '{}' в хранилище: {}", path, e.getMessage());
+            return new UploadResult(null, new FailedObjectResponse(path.path(), e.getMessage()));
+        }
+        return new UploadResult(ResourceInfoResponse.forFile(path.parent(), path.name(), file.getSize()), null);
+    }
+
+    private void collect(Future<UploadResult> future,
+                         List<ResourceInfoResponse> uploaded,
+                         List<FailedObjectResponse> failed) {
+        try {
+            UploadResult result = future.get();
+            if (result.uploaded() != null) {
+                uploaded.add(result.uploaded());
+            } else {
+                failed.add(result.failed());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Загрузка была прервана", e);
+        } catch (ExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Ошибка при загрузке ресурса", e.getCause());
+        }
+    }
+
+    private record UploadResult(ResourceInfoResponse uploaded, FailedObjectResponse failed) {
+    }
+}
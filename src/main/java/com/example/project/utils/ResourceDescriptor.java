@@ -0,0 +1,48 @@
+package com.example.project.utils;
+
+import com.example.project.dto.response.ResourceInfoResponse;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Результат одной проверки пути в MinIO. Определяется один раз в начале запроса и дальше
+ * передаётся по цепочке вызовов, чтобы не делать повторные statObject/listObjects
+ *
+ * @param location уже разобранный путь, имя и родитель берутся из него
+ */
+public record ResourceDescriptor(StoragePath location,
+                                 Resource type,
+                                 long size,
+                                 String etag,
+                                 ZonedDateTime lastModified,
+                                 String contentType) {
+
+    public static ResourceDescriptor directory(StoragePath location) {
+        return new ResourceDescriptor(location, Resource.DIRECTORY, 0, null, null, null);
+    }
+
+    /**
+     * @return нормализованный путь без слеша на конце
+     */
+    public String path() {
+        return location.path();
+    }
+
+    public boolean isFile() {
+        return type == Resource.FILE;
+    }
+
+    public String name() {
+        return location.name();
+    }
+
+    public String parentPath() {
+        return location.parent();
+    }
+
+    public ResourceInfoResponse toResponse() {
+        return isFile()
+                ? ResourceInfoResponse.forFile(parentPath(), name(), size)
+                : ResourceInfoResponse.forDirectory(parentPath(), name() + "/");
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.project.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Локальный кэш ответов "что лежит по пути" (statObject и проверка папки), в том числе отрицательных.
+ * Живёт в памяти узла, ограничен по размеру и по времени. Записи сбрасываются по {@link StorageChangedEvent}:
+ * сам путь и все его предки, а при изменении папки целиком — всё, что под её префиксом.
+ * Изменения с других узлов доходят только по истечении {@code storage.cache.metadata.ttl}
+ */
+@Slf4j
+@Component
+public class ResourceMetadataCache {
+
+    private static final char SEPARATOR = '\0';
+
+    private final Cache<String, Optional<ResourceDescriptor>> cache;
+    private final boolean enabled;
+
+    public ResourceMetadataCache(MeterRegistry meterRegistry,
+                                 @Value("${storage.cache.metadata.enabled:true}") boolean enabled,
+                                 @Value("${storage.cache.metadata.ttl:10s}") Duration ttl,
+                                 @Value("${storage.cache.metadata.max-size:10000}") long maxSize) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "storage.metadata");
+    }
+
+    public Optional<ResourceDescriptor> get(String storageId,
+                                            StoragePath path,
+                                            Supplier<Optional<ResourceDescriptor>> loader) {
+        if (!enabled || path.isRoot()) {
+            return loader.get();
+        }
+        return cache.get(key(storageId, path.path()), key -> loader.get());
+    }
+
+    @EventListener
+    public void onStorageChanged(StorageChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        for (String path : event.paths()) {
+            String normalizedPath = path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+            invalidateWithAncestors(event.storageId(), normalizedPath);
+            if (event.tree()) {
+                // изменение от корня затрагивает всё хранилище
+                String treePrefix = key(event.storageId(), normalizedPath.isEmpty() ? "" : normalizedPath + "/");
+                cache.asMap().keySet().removeIf(key -> key.startsWith(treePrefix));
+            }
+        }
+    }
+
+    /**
+     * Запись файла создаёт неявные папки на пути к нему, удаление может их убрать
+     */
+    private void invalidateWithAncestors(String storageId,
+                                         String normalizedPath) {
+        cache.invalidate(key(storageId, normalizedPath));
+        for (int i = normalizedPath.indexOf('/'); i >= 0; i = normalizedPath.indexOf('/', i + 1)) {
+            cache.invalidate(key(storageId, normalizedPath.substring(0, i)));
+        }
+    }
+
+    private static String key(String storageId,
+                              String path) {
+        return storageId + SEPARATOR + path;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.project.utils;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Один бакет на всех, файлы пользователя лежат под префиксом {@code users/{id}/}.
+ * Число бакетов не растёт с числом пользователей, а регистрации не нужен запрос в MinIO,
+ * кроме первой после старта узла
+ */
+@Component
+@ConditionalOnProperty(name = "storage.layout.type", havingValue = "shared-bucket")
+public class SharedBucketLayout implements StorageLayout {
+
+    private static final String USERS_PREFIX = "users/";
+
+    private final BucketProvisioner bucketProvisioner;
+    private final String bucketName;
+    private volatile boolean provisioned;
+
+    public SharedBucketLayout(BucketProvisioner bucketProvisioner,
+                              @Value("${storage.layout.shared-bucket:user-files}") String bucketName) {
+        this.bucketProvisioner = bucketProvisioner;
+        this.bucketName = bucketName;
+    }
+
+    @Override
+    public UserStorage resolve(int userId,
+                               String username) {
+        return new UserStorage(bucketName, USERS_PREFIX + userId + "/");
+    }
+
+    /**
+     * Папка пользователя в S3 появляется сама с первым объектом, создаётся только общий бакет
+     */
+    @Override
+    public void provision(UserStorage storage) {
+        if (!provisioned) {
+            bucketProvisioner.ensureBucket(bucketName);
+            provisioned = true;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.project.utils;
+
+import com.example.project.dto.response.UploadedPartResponse;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Хранилище объектов в терминах S3: бакеты, ключи, листинги по префиксу и multipart-загрузки.
+ * Через него ходят все помощники, сами они не знают, где лежат байты.
+ * Реализация выбирается профилем: по умолчанию {@link MinioStorageBackend}, с профилем
+ * {@code local-storage} — {@link LocalStorageBackend} на локальном диске без MinIO. Обе реализации помечены
+ * квалификатором {@code objectStore}: с {@code storage.dedup.enabled=true} помощники получают
+ * {@link DeduplicatingStorageBackend}, который хранит байты через них.
+ * Ошибки хранилища пробрасываются как есть; листинг ленивый и при ошибке чтения бросает
+ * {@link com.example.project.exceptions.storage.StorageBackendException} из {@code next()}
+ */
+public interface StorageBackend {
+
+    /**
+     * Идемпотентно
+     *
+     * @return {@code false}, если бакет уже был
+     */
+    boolean createBucket(String bucketName) throws Exception;
+
+    boolean bucketExists(String bucketName) throws Exception;
+
+    /**
+     * Удаляет только пустой бакет
+     */
+    void removeBucket(String bucketName) throws Exception;
+
+    /**
+     * @return пусто, если объекта нет
+     */
+    Optional<StoredObject> stat(String bucketName,
+                                String key) throws Exception;
+
+    /**
+     * @param prefix     пустая строка или префикс папки со слешем на конце
+     * @param recursive  без рекурсии вложенные папки приходят одним элементом с ключом {@code prefix + name + "/"}
+     * @param startAfter ключ, после которого продолжить, или {@code null}
+     * @param pageSize   сколько ключей читать за одно обращение, 0 — по умолчанию. На полноту листинга не влияет
+     * @return объекты в порядке возрастания ключей
+     */
+    Iterable<StoredObject> list(String bucketName,
+                                String prefix,
+                                boolean recursive,
+                                String startAfter,
+                                int pageSize);
+
+    /**
+     * Пишет в {@code out} байты объекта с {@code offset} по {@code offset + length - 1}
+     */
+    void read(String bucketName,
+              String key,
+              long offset,
+              long length,
+              OutputStream out) throws Exception;
+
+    InputStream open(String bucketName,
+                     String key) throws Exception;
+
+    /**
+     * Записывает объект целиком, существующий перезаписывается
+     *
+     * @param size размер или -1, если заранее неизвестен
+     * @return итоговый размер объекта
+     */
+    long write(String bucketName,
+               String key,
+               InputStream stream,
+               long size,
+               String contentType) throws Exception;
+
+    /**
+     * Копия создаётся внутри хранилища, байты через приложение не идут
+     */
+    void copy(String sourceBucket,
+              String sourceKey,
+              String targetBucket,
+              String targetKey,
+              long size) throws Exception;
+
+    void remove(String bucketName,
+                String key) throws Exception;
+
+    /**
+     * Удаляет не больше {@link BatchObjectRemover#BATCH_SIZE} ключей за раз
+     *
+     * @return ключи, которые не удалось удалить, с причиной
+     */
+    Map<String, String> removeAll(String bucketName,
+                                  List<String> keys) throws Exception;
+
+    String createMultipartUpload(String bucketName,
+                                 String key,
+                                 String contentType) throws Exception;
+
+    /**
+     * Часть передаётся потоком и целиком в памяти не держится
+     *
+     * @param size точный размер части; если поток короче или длиннее, часть не загружается
+     * @return ETag части, который нужно передать в {@link #completeMultipartUpload}
+     */
+    String uploadPart(String bucketName,
+                      String key,
+                      String uploadId,
+                      int partNumber,
+                      InputStream stream,
+                      long size) throws Exception;
+
+    /**
+     * @param parts все части по порядку номеров
+     */
+    void completeMultipartUpload(String bucketName,
+                                 String key,
+                                 String uploadId,
+                                 List<UploadedPartResponse> parts) throws Exception;
+
+    void abortMultipartUpload(String bucketName,
+                              String key,
+                              String uploadId) throws Exception;
+}
@@ -0,0 +1,31 @@
+package com.example.project.utils;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Публикуется после каждой записи в хранилище пользователя, по нему сбрасываются кэши метаданных и листингов
+ *
+ * @param storageId {@link UserStorage#id()} хранилища
+ * @param paths ключи изменённых файлов или префиксы папок со слешем на конце
+ * @param tree  {@code true}, если изменилось всё содержимое папок (удаление или перенос)
+ */
+public record StorageChangedEvent(String storageId,
+                                  List<String> paths,
+                                  boolean tree) {
+
+    public static StorageChangedEvent objects(String storageId,
+                                              Collection<String> paths) {
+        return new StorageChangedEvent(storageId, List.copyOf(paths), false);
+    }
+
+    public static StorageChangedEvent object(String storageId,
+                                             String path) {
+        return new StorageChangedEvent(storageId, List.of(path), false);
+    }
+
+    public static StorageChangedEvent tree(String storageId,
+                                           String prefix) {
+        return new StorageChangedEvent(storageId, List.of(prefix), true);
+    }
+}
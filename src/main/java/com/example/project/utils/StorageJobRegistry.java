@@ -0,0 +1,84 @@
+package com.example.project.utils;
+
+import com.example.project.dto.response.DeleteReportResponse;
+import com.example.project.dto.response.StorageJobResponse;
+import com.example.project.exceptions.storage.PathNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * Фоновые задачи хранилища (удаление больших папок). Состояние живёт в памяти узла,
+ * завершённые задачи забываются через {@code storage.jobs.retention}
+ */
+@Slf4j
+@Component
+public class StorageJobRegistry {
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService storageJobExecutor;
+    private final Duration retention;
+
+    public StorageJobRegistry(ExecutorService storageJobExecutor,
+                              @Value("${storage.jobs.retention:1h}") Duration retention) {
+        this.storageJobExecutor = storageJobExecutor;
+        this.retention = retention;
+    }
+
+    public StorageJobResponse submit(int ownerId,
+                                     Supplier<DeleteReportResponse> task) {
+        evictExpired();
+        String id = UUID.randomUUID().toString();
+        Job job = new Job(ownerId);
+        jobs.put(id, job);
+
+        storageJobExecutor.execute(() -> {
+            try {
+                job.report = task.get();
+                job.status = JobStatus.COMPLETED;
+                log.info("Фоновая задача {} завершена", id);
+            } catch (Exception e) {
+                job.message = e.getMessage();
+                job.status = JobStatus.FAILED;
+                log.error("Фоновая задача {} завершилась ошибкой: {}", id, e.getMessage());
+            } finally {
+                job.finishedAt = Instant.now();
+            }
+        });
+        return new StorageJobResponse(id, JobStatus.RUNNING, null, null);
+    }
+
+    public StorageJobResponse get(int ownerId,
+                                  String id) {
+        Job job = jobs.get(id);
+        if (job == null || job.ownerId != ownerId) {
+            throw new PathNotFoundException("Задача не найдена");
+        }
+        return new StorageJobResponse(id, job.status, job.report, job.message);
+    }
+
+    private void evictExpired() {
+        Instant threshold = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(threshold));
+    }
+
+    private static final class Job {
+        private final int ownerId;
+        private volatile JobStatus status = JobStatus.RUNNING;
+        private volatile DeleteReportResponse report;
+        private volatile String message;
+        private volatile Instant finishedAt;
+
+        private Job(int ownerId) {
+            this.ownerId = ownerId;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.project.utils;
+
+/**
+ * Раскладка файлов пользователей по MinIO. Реализация выбирается {@code storage.layout.type}:
+ * {@code bucket-per-user} (по умолчанию) или {@code shared-bucket}
+ */
+public interface StorageLayout {
+
+    UserStorage resolve(int userId,
+                        String username);
+
+    /**
+     * Готовит хранилище нового пользователя. Повторный вызов для того же пользователя безопасен
+     */
+    void provision(UserStorage storage);
+}
@@ -0,0 +1,168 @@
+package com.example.project.utils;
+
+import com.example.project.dto.response.DeleteReportResponse;
+import com.example.project.entity.User;
+import com.example.project.exceptions.storage.StorageBackendException;
+import com.example.project.repositories.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Перенос бакетов пользователей в общий бакет при переходе на {@code storage.layout.type=shared-bucket}.
+ * Включается {@code storage.layout.migration.enabled=true} и выполняется при старте узла, до того как он начнёт
+ * принимать запросы, обходя всех пользователей постранично. Одновременно переносом занят только один узел —
+ * тот, кто взял advisory-блокировку Postgres, остальные стартуют без него. Успешный перенос записывается
+ * в storage_migrations и больше не повторяется, даже если флаг забыли выключить; перенос с ошибками
+ * не записывается и будет повторён при следующем старте.
+ * Объекты копируются внутри хранилища, исходный бакет удаляется только с {@code delete-source=true}
+ * и только если все его объекты скопированы и удалены. Повторный запуск безопасен: копии перезаписываются,
+ * а пользователи без старого бакета пропускаются. Пути в индексе относительные и не меняются.
+ * Флаг стоит включать на одном узле при снятой нагрузке: записи в старый бакет во время переноса потеряются
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "storage.layout.migration.enabled", havingValue = "true")
+public class StorageLayoutMigration implements SmartInitializingSingleton {
+
+    private static final int PAGE_SIZE = 100;
+    private static final String MIGRATION_NAME = "shared-bucket";
+    private static final long LOCK_KEY = "storage_layout_migration".hashCode();
+
+    private final UserRepository userRepository;
+    private final StorageLayout storageLayout;
+    private final ObjectMover objectMover;
+    private final BatchObjectRemover batchObjectRemover;
+    private final StorageBackend storageBackend;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean deleteSource;
+
+    public StorageLayoutMigration(UserRepository userRepository,
+                                  StorageLayout storageLayout,
+                                  ObjectMover objectMover,
+                                  BatchObjectRemover batchObjectRemover,
+                                  StorageBackend storageBackend,
+                                  JdbcTemplate jdbcTemplate,
+                                  @Value("${storage.layout.migration.delete-source:false}") boolean deleteSource) {
+        this.userRepository = userRepository;
+        this.storageLayout = storageLayout;
+        this.objectMover = objectMover;
+        this.batchObjectRemover = batchObjectRemover;
+        this.storageBackend = storageBackend;
+        this.jdbcTemplate = jdbcTemplate;
+        this.deleteSource = deleteSource;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        migrateOnce();
+    }
+
+    /**
+     * @return {@code true}, если этот вызов перенёс все бакеты без ошибок
+     */
+    public boolean migrateOnce() {
+        if (!(storageLayout instanceof SharedBucketLayout)) {
+            log.warn("Перенос бакетов пропущен: он нужен только для storage.layout.type=shared-bucket");
+            return false;
+        }
+        // блокировка сессионная, поэтому всё время переноса держится одно соединение
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            if (!advisoryLock(connection, "pg_try_advisory_lock")) {
+                log.warn("Перенос бакетов пропущен: его выполняет другой узел");
+                return false;
+            }
+            try {
+                if (isCompleted()) {
+                    log.info("Перенос бакетов уже выполнен, флаг storage.layout.migration.enabled можно выключить");
+                    return false;
+                }
+                return migrateAll();
+            } finally {
+                advisoryLock(connection, "pg_advisory_unlock");
+            }
+        }));
+    }
+
+    private boolean migrateAll() {
+        log.info("Начат перенос бакетов пользователей в общий бакет");
+        int migrated = 0;
+        int failed = 0;
+        Page<User> page;
+        int pageNumber = 0;
+        do {
+            page = userRepository.findAll(PageRequest.of(pageNumber++, PAGE_SIZE, Sort.by("id")));
+            for (User user : page) {
+                try {
+                    if (migrate(user)) {
+                        migrated++;
+                    }
+                } catch (Exception e) {
+                    failed++;
+                    log.error("Не удалось перенести бакет пользователя с id {}: {}", user.getId(), e.getMessage());
+                }
+            }
+        } while (page.hasNext());
+        log.info("Перенос бакетов завершён: перенесено {}, ошибок {}", migrated, failed);
+        if (failed > 0) {
+            return false;
+        }
+        jdbcTemplate.update("INSERT INTO storage_migrations (name) VALUES (?) ON CONFLICT DO NOTHING", MIGRATION_NAME);
+        return true;
+    }
+
+    private boolean isCompleted() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM storage_migrations WHERE name = ?)", Boolean.class, MIGRATION_NAME));
+    }
+
+    private static boolean advisoryLock(Connection connection,
+                                        String function) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT " + function + "(?)")) {
+            statement.setLong(1, LOCK_KEY);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    /**
+     * @return {@code false}, если у пользователя нет старого бакета
+     * @throws StorageBackendException если с {@code delete-source=true} удалены не все объекты старого бакета
+     */
+    private boolean migrate(User user) throws Exception {
+        String sourceBucket = BucketPerUserLayout.toValidBucketName(user.getUsername(), user.getId());
+        if (!storageBackend.bucketExists(sourceBucket)) {
+            return false;
+        }
+        UserStorage target = storageLayout.resolve(user.getId(), user.getUsername());
+        storageLayout.provision(target);
+        List<String> copied = objectMover.copyBucket(sourceBucket, target);
+        log.info("Бакет '{}' скопирован в '{}', объектов: {}", sourceBucket, target.id(), copied.size());
+
+        if (deleteSource) {
+            DeleteReportResponse removal = batchObjectRemover.removeObjects(sourceBucket, "", copied);
+            if (!removal.failed().isEmpty()) {
+                // перенос не записывается, чтобы следующий старт удалил оставшиеся объекты
+                throw new StorageBackendException("Бакет '%s' не удалён: не удалось удалить %d объектов"
+                        .formatted(sourceBucket, removal.failed().size()), null);
+            }
+            storageBackend.removeBucket(sourceBucket);
+            log.info("Бакет '{}' удалён", sourceBucket);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.project.utils;
+
+import com.example.project.exceptions.storage.MissingOrInvalidPathException;
+
+/**
+ * Путь внутри бакета пользователя, разобранный один раз на входе запроса.
+ * Хранится без слешей по краям; корень бакета — пустая строка.
+ * Сегменты {@code .} и {@code ..}, пустые сегменты, управляющие символы и обратный слеш отклоняются с 400
+ */
+public final class StoragePath {
+
+    public static final StoragePath ROOT = new StoragePath("", -1);
+
+    private static final String INVALID_PATH = "Невалидный или отсутствующий путь";
+
+    private final String path;
+    private final int lastSlash;
+
+    private StoragePath(String path,
+                        int lastSlash) {
+        this.path = path;
+        this.lastSlash = lastSlash;
+    }
+
+    /**
+     * @param raw путь из запроса, {@code null} и пустая строка означают корень
+     */
+    public static StoragePath of(String raw) {
+        String path = strip(raw);
+        if (path.isEmpty()) {
+            return ROOT;
+        }
+        int lastSlash = -1;
+        int segmentStart = 0;
+        for (int i = 0; i <= path.length(); i++) {
+            if (i == path.length() || path.charAt(i) == '/') {
+                int segmentLength = i - segmentStart;
+                if (segmentLength == 0
+                        || segmentLength == 1 && path.charAt(segmentStart) == '.'
+                        || segmentLength == 2 && path.charAt(segmentStart) == '.' && path.charAt(segmentStart + 1) == '.') {
+                    throw new MissingOrInvalidPathException(INVALID_PATH);
+                }
+                if (i < path.length()) {
+                    lastSlash = i;
+                }
+                segmentStart = i + 1;
+                continue;
+            }
+            char c = path.charAt(i);
+            if (c < 0x20 || c == 0x7F || c == '\\') {
+                throw new MissingOrInvalidPathException(INVALID_PATH);
+            }
+        }
+        return new StoragePath(path, lastSlash);
+    }
+
+    /**
+     * Снимает пробелы и слеши по краям, ничего не проверяя. Годится и для поисковых запросов
+     */
+    public static String strip(String raw) {
+        if (raw == null) {
+            return "";
+        }
+        int start = 0;
+        int end = raw.length();
+        while (start < end && (raw.charAt(start) == '/' || Character.isWhitespace(raw.charAt(start)))) {
+            start++;
+        }
+        while (end > start && (raw.charAt(end - 1) == '/' || Character.isWhitespace(raw.charAt(end - 1)))) {
+            end--;
+        }
+        return raw.substring(start, end);
+    }
+
+    public StoragePath requireNotRoot() {
+        if (isRoot()) {
+            throw new MissingOrInvalidPathException(INVALID_PATH);
+        }
+        return this;
+    }
+
+    public boolean isRoot() {
+        return path.isEmpty();
+    }
+
+    /**
+     * @return ключ объекта-файла: путь без слешей по краям
+     */
+    public String path() {
+        return path;
+    }
+
+    public String name() {
+        return lastSlash < 0 ? path : path.substring(lastSlash + 1);
+    }
+
+    /**
+     * @return путь родительской папки со слешем на конце или пустая строка для корня
+     */
+    public String parent() {
+        return lastSlash < 0 ? "" : path.substring(0, lastSlash + 1);
+    }
+
+    /**
+     * @return префикс содержимого папки: путь со слешем на конце или пустая строка для корня
+     */
+    public String prefix() {
+        return isRoot() ? "" : path + "/";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof StoragePath other && path.equals(other.path);
+    }
+
+    @Override
+    public int hashCode() {
+        return path.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.project.utils;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Объект хранилища в том виде, в каком его отдаёт {@link StorageBackend}. В листингах заполнены только ключ и размер
+ *
+ * @param key полный ключ в бакете; со слешем на конце — маркер папки или, в листинге без рекурсии, вложенная папка
+ */
+public record StoredObject(String key,
+                           long size,
+                           String etag,
+                           ZonedDateTime lastModified,
+                           String contentType) {
+
+    public static StoredObject listed(String key,
+                                      long size) {
+        return new StoredObject(key, size, null, null, null);
+    }
+
+    public boolean isDirectory() {
+        return key.endsWith("/");
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.project.utils;
+
+/**
+ * Состояние возобновляемой загрузки, которое хранится в Redis между запросами.
+ * Хранилище запоминается при создании, чтобы загрузка завершилась туда же, где началась
+ *
+ * @param objectName путь внутри хранилища пользователя
+ */
+public record UploadSession(String id,
+                            int ownerId,
+                            String bucketName,
+                            String root,
+                            String objectName,
+                            String uploadId,
+                            String contentType,
+                            long expiresAt) {
+
+    public UserStorage storage() {
+        return new UserStorage(bucketName, root);
+    }
+
+    public String objectKey() {
+        return storage().key(objectName);
+    }
+}
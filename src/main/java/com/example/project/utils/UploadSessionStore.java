@@ -0,0 +1,116 @@
+package com.example.project.utils;
+
+import com.example.project.dto.response.UploadedPartResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Сессии возобновляемой загрузки в Redis: хэш с параметрами сессии и отдельный хэш с
+ * загруженными частями (номер -> etag и размер). Каждая загруженная часть продлевает сессию
+ * на {@code storage.upload.session-ttl}
+ */
+@Slf4j
+@Component
+public class UploadSessionStore {
+
+    private static final String KEY_PREFIX = "storage:upload:";
+    private static final String PARTS_SUFFIX = ":parts";
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration ttl;
+
+    public UploadSessionStore(StringRedisTemplate redisTemplate,
+                              @Value("${storage.upload.session-ttl:24h}") Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+    }
+
+    public UploadSession create(int ownerId,
+                                UserStorage storage,
+                                String objectName,
+                                String uploadId,
+                                String contentType) {
+        String id = UUID.randomUUID().toString();
+        long expiresAt = System.currentTimeMillis() + ttl.toMillis();
+
+        Map<String, String> fields = new HashMap<>();
+        fields.put("ownerId", String.valueOf(ownerId));
+        fields.put("bucketName", storage.bucketName());
+        fields.put("root", storage.root());
+        fields.put("objectName", objectName);
+        fields.put("uploadId", uploadId);
+        fields.put("contentType", contentType);
+        fields.put("expiresAt", String.valueOf(expiresAt));
+
+        String key = KEY_PREFIX + id;
+        redisTemplate.opsForHash().putAll(key, fields);
+        redisTemplate.expire(key, ttl);
+        log.info("Создана сессия загрузки {} для '{}'", id, objectName);
+        return new UploadSession(id, ownerId, storage.bucketName(), storage.root(), objectName, uploadId,
+                contentType, expiresAt);
+    }
+
+    public Optional<UploadSession> find(String id) {
+        HashOperations<String, String, String> hash = redisTemplate.opsForHash();
+        Map<String, String> fields = hash.entries(KEY_PREFIX + id);
+        if (fields.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(new UploadSession(
+                id,
+                Integer.parseInt(fields.get("ownerId")),
+                fields.get("bucketName"),
+                fields.getOrDefault("root", ""),
+                fields.get("objectName"),
+                fields.get("uploadId"),
+                fields.get("contentType"),
+                Long.parseLong(fields.get("expiresAt"))));
+    }
+
+    /**
+     * Повторная загрузка части с тем же номером перезаписывает её, как и в S3
+     */
+    public UploadSession savePart(UploadSession session,
+                                  UploadedPartResponse part) {
+        String key = KEY_PREFIX + session.id();
+        String partsKey = key + PARTS_SUFFIX;
+        long expiresAt = System.currentTimeMillis() + ttl.toMillis();
+
+        redisTemplate.opsForHash().put(partsKey, String.valueOf(part.number()), part.etag() + ":" + part.size());
+        redisTemplate.opsForHash().put(key, "expiresAt", String.valueOf(expiresAt));
+        redisTemplate.expire(partsKey, ttl);
+        redisTemplate.expire(key, ttl);
+        return new UploadSession(session.id(), session.ownerId(), session.bucketName(), session.root(),
+                session.objectName(), session.uploadId(), session.contentType(), expiresAt);
+    }
+
+    /**
+     * @return части, упорядоченные по номеру
+     */
+    public List<UploadedPartResponse> parts(String id) {
+        HashOperations<String, String, String> hash = redisTemplate.opsForHash();
+        Map<String, String> entries = hash.entries(KEY_PREFIX + id + PARTS_SUFFIX);
+
+        List<UploadedPartResponse> parts = new ArrayList<>(entries.size());
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            String value = entry.getValue();
+            int separator = value.lastIndexOf(':');
+            parts.add(new UploadedPartResponse(
+                    Integer.parseInt(entry.getKey()),
+                    Long.parseLong(value.substring(separator + 1)),
+                    value.substring(0, separator)));
+        }
+        parts.sort(Comparator.comparingInt(UploadedPartResponse::number));
+        return parts;
+    }
+
+    public void delete(String id) {
+        redisTemplate.delete(List.of(KEY_PREFIX + id, KEY_PREFIX + id + PARTS_SUFFIX));
+    }
+}
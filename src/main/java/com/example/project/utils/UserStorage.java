@@ -0,0 +1,37 @@
+package com.example.project.utils;
+
+/**
+ * Где лежат файлы пользователя: бакет и префикс ключей внутри него (пустой, если бакет свой).
+ * Пути в запросах, ответах, индексе и кэшах остаются относительными, ключом MinIO их делает {@link #key}
+ *
+ * @param root префикс со слешем на конце или пустая строка
+ */
+public record UserStorage(String bucketName,
+                          String root) {
+
+    public static UserStorage bucket(String bucketName) {
+        return new UserStorage(bucketName, "");
+    }
+
+    /**
+     * @param path путь внутри хранилища пользователя, пустая строка — корень
+     */
+    public String key(String path) {
+        return root.isEmpty() ? path : root + path;
+    }
+
+    /**
+     * @param key ключ объекта MinIO, начинающийся с {@link #root}
+     */
+    public String relative(String key) {
+        return root.isEmpty() ? key : key.substring(root.length());
+    }
+
+    /**
+     * Уникален для пользователя при любой раскладке, по нему разделяются кэши и события.
+     * Для бакета на пользователя совпадает с именем бакета
+     */
+    public String id() {
+        return root.isEmpty() ? bucketName : bucketName + "/" + root;
+    }
+}
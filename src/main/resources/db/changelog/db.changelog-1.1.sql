@@ -0,0 +1,25 @@
+--liquibase formatted sql
+
+--changeset luntik:2
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+--changeset luntik:3
+CREATE TABLE storage_objects
+(
+    id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    user_id INT NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    object_name VARCHAR(1024) NOT NULL,
+    parent_path VARCHAR(1024) NOT NULL,
+    name VARCHAR(1024) NOT NULL,
+    size BIGINT NOT NULL DEFAULT 0,
+    is_directory BOOLEAN NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE (user_id, object_name)
+);
+
+CREATE INDEX idx_storage_objects_name_trgm ON storage_objects USING gin (lower(name) gin_trgm_ops);
+CREATE INDEX idx_storage_objects_object_name_trgm ON storage_objects USING gin (lower(object_name) gin_trgm_ops);
+CREATE INDEX idx_storage_objects_prefix ON storage_objects (user_id, object_name varchar_pattern_ops);
+
+--changeset luntik:4
+ALTER TABLE users ADD COLUMN storage_indexed BOOLEAN NOT NULL DEFAULT FALSE;
@@ -0,0 +1,27 @@
+--liquibase formatted sql
+
+--changeset luntik:5
+CREATE TABLE content_blobs
+(
+    hash CHAR(64) PRIMARY KEY,
+    size BIGINT NOT NULL,
+    ref_count INT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    released_at TIMESTAMP
+);
+
+CREATE INDEX idx_content_blobs_released ON content_blobs (released_at) WHERE ref_count = 0;
+
+--changeset luntik:6
+CREATE TABLE blob_refs
+(
+    bucket_name VARCHAR(63) NOT NULL,
+    object_key VARCHAR(1024) COLLATE "C" NOT NULL,
+    hash CHAR(64) NOT NULL REFERENCES content_blobs (hash),
+    size BIGINT NOT NULL,
+    content_type VARCHAR(255),
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (bucket_name, object_key)
+);
+
+CREATE INDEX idx_blob_refs_hash ON blob_refs (hash);
@@ -0,0 +1,8 @@
+--liquibase formatted sql
+
+--changeset luntik:7
+CREATE TABLE storage_migrations
+(
+    name VARCHAR(100) PRIMARY KEY,
+    completed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
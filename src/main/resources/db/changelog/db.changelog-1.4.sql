@@ -0,0 +1,4 @@
+--liquibase formatted sql
+
+--changeset luntik:8
+ALTER TABLE users ADD COLUMN storage_index_version BIGINT NOT NULL DEFAULT 0;
@@ -1,9 +1,15 @@
 package com.example.project.config;
 
+import com.example.project.utils.InstrumentedMinioClient;
+import com.example.project.utils.MinioMetrics;
+import com.example.project.utils.MultipartMinioClient;
+import io.minio.MinioAsyncClient;
 import io.minio.MinioClient;
+import okhttp3.OkHttpClient;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
 import org.springframework.context.annotation.Bean;
+import org.testcontainers.containers.GenericContainer;
 import org.testcontainers.containers.MinIOContainer;
 import org.testcontainers.containers.PostgreSQLContainer;
 
@@ -14,6 +20,7 @@ public class TestBeans {
 
     public static final String POSTGRES_IMAGE = "postgres:latest";
     public static final String MINIO_IMAGE = "minio/minio:RELEASE.2025-04-22T22-12-26Z-cpuv1";
+    public static final String REDIS_IMAGE = "redis:7-alpine";
 
     @Bean
     @ServiceConnection
@@ -21,16 +28,35 @@ public class TestBeans {
         return new PostgreSQLContainer<>(parse(POSTGRES_IMAGE));
     }
 
+    /**
+     * Сессии, сессии загрузки и кэш листингов живут в Redis
+     */
+    @Bean
+    @ServiceConnection(name = "redis")
+    public GenericContainer<?> redisContainer() {
+        return new GenericContainer<>(parse(REDIS_IMAGE)).withExposedPorts(6379);
+    }
+
     @Bean
     public MinIOContainer minioContainer() {
         return new MinIOContainer(parse(MINIO_IMAGE));
     }
 
     @Bean
-    public MinioClient minioClient(MinIOContainer minioContainer) {
-        return MinioClient.builder()
+    public MinioClient minioClient(MinIOContainer minioContainer,
+                                   MinioMetrics minioMetrics) {
+        return new InstrumentedMinioClient(MinioClient.builder()
+                .endpoint(minioContainer.getS3URL())
+                .credentials(minioContainer.getUserName(), minioContainer.getPassword())
+                .build(), minioMetrics);
+    }
+
+    @Bean
+    public MultipartMinioClient multipartMinioClient(MinIOContainer minioContainer,
+                                                     MinioMetrics minioMetrics) {
+        return new MultipartMinioClient(MinioAsyncClient.builder()
                 .endpoint(minioContainer.getS3URL())
                 .credentials(minioContainer.getUserName(), minioContainer.getPassword())
-                .build();
+                .build(), new OkHttpClient(), minioMetrics);
     }
 }
\ No newline at end of file
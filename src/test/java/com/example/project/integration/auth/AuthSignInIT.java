@@ -15,6 +15,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
 import org.springframework.test.context.ActiveProfiles;
@@ -91,6 +92,21 @@ public class AuthSignInIT {
 
         assertThat(securityContext).isNull();
     }
+    @Test
+    void shouldRehashLegacyPasswordOnSignIn() throws Exception {
+        UserDTO userDTO = new UserDTO(USERNAME, PASSWORD);
+        userRepository.save(new User(USERNAME, new BCryptPasswordEncoder().encode(PASSWORD), Role.USER));
+
+        mockMvc.perform(post("/api/auth/sign-in")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(userDTO)))
+                .andExpect(status().isOk());
+
+        String passwordHash = userRepository.findByUsername(USERNAME).orElseThrow().getPassword();
+        assertThat(passwordHash).startsWith("{bcrypt}");
+        assertThat(passwordEncoder.matches(PASSWORD, passwordHash)).isTrue();
+    }
+
     @Test
     @Tag("login-validation")
     void shouldFailWhenLoginIsEmpty() throws Exception {
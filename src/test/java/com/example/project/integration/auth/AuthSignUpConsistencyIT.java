@@ -0,0 +1,130 @@
+package com.example.project.integration.auth;
+
+import com.example.project.config.TestBeans;
+import com.example.project.dto.request.UserDTO;
+import com.example.project.exceptions.storage.StorageBackendException;
+import com.example.project.repositories.UserRepository;
+import com.example.project.utils.StorageLayout;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.minio.BucketExistsArgs;
+import io.minio.MinioClient;
+import io.minio.RemoveBucketArgs;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Регистрация без тестовой транзакции: гонка за один логин решается уникальным индексом,
+ * а пользователь без хранилища не остаётся в базе
+ */
+@SpringBootTest(classes = TestBeans.class)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Tag("Auth")
+@Tag("Sign-up")
+public class AuthSignUpConsistencyIT {
+
+    public static final String USERNAME = "luntik";
+    public static final String PASSWORD = "qwerty";
+    private static final int THREADS = 8;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MinioClient minioClient;
+
+    @MockitoSpyBean
+    private StorageLayout storageLayout;
+
+    @BeforeEach
+    @AfterEach
+    void clearBucketAndDatabase() throws Exception {
+        userRepository.deleteAll();
+        if (minioClient.bucketExists(BucketExistsArgs.builder().bucket(USERNAME).build())) {
+            minioClient.removeBucket(RemoveBucketArgs.builder().bucket(USERNAME).build());
+        }
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldRegisterOnlyOneOfConcurrentDuplicates() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> statuses = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int i = 0; i < THREADS; i++) {
+                statuses.add(executor.submit(() -> {
+                    start.await();
+                    return signUp();
+                }));
+            }
+            start.countDown();
+        }
+
+        List<Integer> codes = new ArrayList<>();
+        for (Future<Integer> status : statuses) {
+            codes.add(status.get());
+        }
+        assertThat(codes).containsOnly(201, 409);
+        assertThat(codes).filteredOn(code -> code == 201).hasSize(1);
+        assertThat(userRepository.findByUsername(USERNAME)).isPresent();
+        assertThat(minioClient.bucketExists(BucketExistsArgs.builder().bucket(USERNAME).build())).isTrue();
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldRemoveUserWhenStorageProvisioningFails() {
+        doThrow(new StorageBackendException("MinIO недоступен", new IOException("connection refused")))
+                .when(storageLayout).provision(any());
+
+        mockMvc.perform(post("/api/auth/sign-up")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UserDTO(USERNAME, PASSWORD))))
+                .andExpect(status().isInternalServerError());
+        assertThat(userRepository.findByUsername(USERNAME)).isEmpty();
+
+        Mockito.reset(storageLayout);
+        assertThat(signUp()).isEqualTo(201);
+        assertThat(userRepository.findByUsername(USERNAME)).isPresent();
+    }
+
+    private int signUp() throws Exception {
+        return mockMvc.perform(post("/api/auth/sign-up")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UserDTO(USERNAME, PASSWORD))))
+                .andReturn()
+                .getResponse()
+                .getStatus();
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.project.integration.load;
+
+import com.example.project.config.TestBeans;
+import com.example.project.dto.request.UserDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Нагрузочный прогон: много одновременных скачиваний одного файла через настоящий HTTP.
+ * Пул Tomcat намеренно уменьшен, чтобы упереться в него так же, как в проде упираемся в 200 потоков.
+ * Наследники запускают один и тот же сценарий на платформенных и на виртуальных потоках,
+ * итоговая пропускная способность пишется в лог. Запуск: {@code mvn test -Pload}
+ */
+@Slf4j
+@Testcontainers
+@SpringBootTest(classes = TestBeans.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "server.tomcat.threads.max=" + BaseDownloadLoadTest.TOMCAT_THREADS)
+@ActiveProfiles("test")
+@Tag("Load")
+public abstract class BaseDownloadLoadTest {
+
+    static final int TOMCAT_THREADS = 50;
+
+    private static final int CONCURRENCY = 400;
+    private static final int REQUESTS = 4000;
+    private static final int FILE_SIZE = 1024 * 1024;
+    private static final String FILE_PATH = "load/file.bin";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    protected abstract String mode();
+
+    @Test
+    @SneakyThrows
+    void measureDownloadThroughput() {
+        HttpClient client = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        signUp(client);
+        uploadFile(client);
+
+        HttpRequest download = HttpRequest.newBuilder(uri("/api/resource/download?path=" + FILE_PATH)).GET().build();
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        List<Future<Integer>> results = new ArrayList<>(REQUESTS);
+
+        long started = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < REQUESTS; i++) {
+                inFlight.acquire();
+                results.add(clients.submit(() -> {
+                    try {
+                        return client.send(download, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+        }
+        double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+
+        int ok = 0;
+        for (Future<Integer> result : results) {
+            if (result.get() == 200) {
+                ok++;
+            }
+        }
+        log.info("[{}] {} скачиваний по {} КБ при {} одновременных: {} с, {} запросов/с, {} МБ/с",
+                mode(), REQUESTS, FILE_SIZE / 1024, CONCURRENCY,
+                String.format("%.2f", seconds),
+                String.format("%.0f", REQUESTS / seconds),
+                String.format("%.1f", (double) REQUESTS * FILE_SIZE / seconds / (1024 * 1024)));
+        assertThat(ok).isEqualTo(REQUESTS);
+    }
+
+    @SneakyThrows
+    private void signUp(HttpClient client) {
+        UserDTO user = new UserDTO("load" + System.nanoTime(), "qwerty");
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/api/auth/sign-up"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(user)))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).isEqualTo(201);
+    }
+
+    @SneakyThrows
+    private void uploadFile(HttpClient client) {
+        byte[] content = new byte[FILE_SIZE];
+        new Random(42).nextBytes(content);
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/api/resource/stream?path=" + FILE_PATH))
+                .header("Content-Type", "application/octet-stream")
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(content))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).isEqualTo(201);
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
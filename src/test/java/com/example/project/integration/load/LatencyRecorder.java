@@ -0,0 +1,71 @@
+package com.example.project.integration.load;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Задержки одной фазы прогона. Размер известен заранее, поэтому запись — без блокировок и без боксинга
+ */
+class LatencyRecorder {
+
+    private final String phase;
+    private final AtomicLongArray latencies;
+    private final AtomicInteger recorded = new AtomicInteger();
+    private final AtomicInteger errors = new AtomicInteger();
+
+    LatencyRecorder(String phase,
+                    int requests) {
+        this.phase = phase;
+        this.latencies = new AtomicLongArray(requests);
+    }
+
+    void record(long nanos,
+                int status) {
+        latencies.set(recorded.getAndIncrement(), nanos);
+        if (status < 200 || status >= 300) {
+            errors.incrementAndGet();
+        }
+    }
+
+    int errors() {
+        return errors.get();
+    }
+
+    Result result(long elapsedNanos) {
+        int count = recorded.get();
+        long[] sorted = new long[count];
+        for (int i = 0; i < count; i++) {
+            sorted[i] = latencies.get(i);
+        }
+        Arrays.sort(sorted);
+        return new Result(phase, count, errors.get(),
+                percentile(sorted, 0.50), percentile(sorted, 0.99),
+                count == 0 ? 0 : sorted[count - 1] / 1_000_000.0,
+                count / (elapsedNanos / 1_000_000_000.0));
+    }
+
+    private static double percentile(long[] sorted,
+                                     double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    record Result(String phase,
+                  int requests,
+                  int errors,
+                  double p50Millis,
+                  double p99Millis,
+                  double maxMillis,
+                  double throughput) {
+
+        String toCsv(String label) {
+            return String.format(Locale.ROOT, "%s,%s,%d,%d,%.2f,%.2f,%.2f,%.1f",
+                    label, phase, requests, errors, p50Millis, p99Millis, maxMillis, throughput);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.project.integration.load;
+
+import lombok.SneakyThrows;
+
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+
+/**
+ * HTTP-клиент одного пользователя нагрузочного прогона: своя кука сессии, тела ответов не читаются в память
+ */
+class LoadClient {
+
+    private final HttpClient client;
+    private final String baseUrl;
+
+    LoadClient(int port) {
+        this.client = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.baseUrl = "http://localhost:" + port;
+    }
+
+    @SneakyThrows
+    int signUp(String json) {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/sign-up"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build());
+    }
+
+    int createDirectory(String path) {
+        return send(HttpRequest.newBuilder(uri("/api/directory", "path", path))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build());
+    }
+
+    int upload(String path,
+               byte[] content) {
+        return send(HttpRequest.newBuilder(uri("/api/resource/stream", "path", path))
+                .header("Content-Type", "application/octet-stream")
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(content))
+                .build());
+    }
+
+    int download(String path) {
+        return send(HttpRequest.newBuilder(uri("/api/resource/download", "path", path)).GET().build());
+    }
+
+    int list(String path) {
+        return send(HttpRequest.newBuilder(uri("/api/directory", "path", path)).GET().build());
+    }
+
+    int search(String query) {
+        return send(HttpRequest.newBuilder(uri("/api/resource/search", "query", query)).GET().build());
+    }
+
+    int move(String from,
+             String to) {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/resource/move?from=" + encode(from)
+                + "&to=" + encode(to))).GET().build());
+    }
+
+    int delete(String path) {
+        return send(HttpRequest.newBuilder(uri("/api/resource", "path", path)).DELETE().build());
+    }
+
+    @SneakyThrows
+    private int send(HttpRequest request) {
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private URI uri(String endpoint,
+                    String param,
+                    String value) {
+        return URI.create(baseUrl + endpoint + "?" + param + "=" + encode(value));
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+}
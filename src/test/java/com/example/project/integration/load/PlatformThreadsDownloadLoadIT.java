@@ -0,0 +1,12 @@
+package com.example.project.integration.load;
+
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = "spring.threads.virtual.enabled=false")
+public class PlatformThreadsDownloadLoadIT extends BaseDownloadLoadTest {
+
+    @Override
+    protected String mode() {
+        return "platform threads";
+    }
+}
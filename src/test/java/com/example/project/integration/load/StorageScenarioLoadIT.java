@@ -0,0 +1,186 @@
+package com.example.project.integration.load;
+
+import com.example.project.config.TestBeans;
+import com.example.project.dto.request.UserDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.IntSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Сквозной нагрузочный прогон всех основных операций: много пользователей, у каждого дерево папок и файлы
+ * разного размера. Для каждой фазы в лог пишутся p50/p99 и пропускная способность, строки дописываются
+ * в {@code target/load-report.csv}, чтобы сравнивать прогоны до и после изменения.
+ * Запуск: {@code mvn test -Pload -Dtest=StorageScenarioLoadIT -Dload.label=baseline},
+ * размер прогона меняется через {@code -Dload.users}, {@code -Dload.files}, {@code -Dload.concurrency}
+ */
+@Slf4j
+@Testcontainers
+@SpringBootTest(classes = TestBeans.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@Tag("Load")
+public class StorageScenarioLoadIT {
+
+    private static final int USERS = Integer.getInteger("load.users", 20);
+    private static final int FILES_PER_USER = Integer.getInteger("load.files", 30);
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 64);
+    private static final int READS_PER_USER = Integer.getInteger("load.reads", 20);
+    private static final String LABEL = System.getProperty("load.label", "run");
+    private static final Path REPORT = Path.of("target", "load-report.csv");
+
+    private static final int[] FILE_SIZES = {4 * 1024, 64 * 1024, 256 * 1024, 1024 * 1024};
+    private static final String[] DIRECTORIES = {"docs", "docs/reports", "media", "archive"};
+    private static final String[] UPLOAD_TARGETS = {"docs/", "docs/reports/", "media/"};
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @SneakyThrows
+    void measureStorageScenarios() {
+        List<LoadClient> clients = new ArrayList<>(USERS);
+        List<List<String>> files = new ArrayList<>(USERS);
+        String runId = Long.toString(System.nanoTime(), 36);
+        for (int user = 0; user < USERS; user++) {
+            LoadClient client = new LoadClient(port);
+            UserDTO dto = new UserDTO("load" + runId + "u" + user, "qwerty");
+            assertThat(client.signUp(objectMapper.writeValueAsString(dto))).isEqualTo(201);
+            for (String directory : DIRECTORIES) {
+                assertThat(client.createDirectory(directory)).isEqualTo(201);
+            }
+            clients.add(client);
+            files.add(new ArrayList<>(FILES_PER_USER));
+        }
+
+        Random random = new Random(42);
+        byte[][] contents = new byte[FILE_SIZES.length][];
+        for (int i = 0; i < FILE_SIZES.length; i++) {
+            contents[i] = new byte[FILE_SIZES[i]];
+            random.nextBytes(contents[i]);
+        }
+
+        List<LatencyRecorder.Result> results = new ArrayList<>();
+
+        List<IntSupplier> uploads = new ArrayList<>();
+        for (int user = 0; user < USERS; user++) {
+            for (int file = 0; file < FILES_PER_USER; file++) {
+                String path = UPLOAD_TARGETS[file % UPLOAD_TARGETS.length] + "report-" + file + ".bin";
+                byte[] content = contents[random.nextInt(contents.length)];
+                LoadClient client = clients.get(user);
+                files.get(user).add(path);
+                uploads.add(() -> client.upload(path, content));
+            }
+        }
+        results.add(run("upload", uploads));
+
+        List<IntSupplier> downloads = new ArrayList<>();
+        List<IntSupplier> lists = new ArrayList<>();
+        List<IntSupplier> zips = new ArrayList<>();
+        List<IntSupplier> searches = new ArrayList<>();
+        for (int user = 0; user < USERS; user++) {
+            LoadClient client = clients.get(user);
+            List<String> userFiles = files.get(user);
+            for (int i = 0; i < READS_PER_USER; i++) {
+                String path = userFiles.get(random.nextInt(userFiles.size()));
+                String directory = i % 2 == 0 ? "docs" : "media";
+                String query = "report-" + random.nextInt(FILES_PER_USER);
+                downloads.add(() -> client.download(path));
+                lists.add(() -> client.list(directory));
+                searches.add(() -> client.search(query));
+            }
+            zips.add(() -> client.download("docs/reports/"));
+        }
+        results.add(run("download", downloads));
+        results.add(run("list", lists));
+        results.add(run("search", searches));
+        results.add(run("folder-zip", zips));
+
+        List<IntSupplier> moves = new ArrayList<>();
+        List<IntSupplier> deletes = new ArrayList<>();
+        for (int user = 0; user < USERS; user++) {
+            LoadClient client = clients.get(user);
+            for (String path : files.get(user)) {
+                if (path.startsWith("media/")) {
+                    String target = "archive/" + path.substring("media/".length());
+                    moves.add(() -> client.move(path, target));
+                    deletes.add(() -> client.delete(target));
+                }
+            }
+        }
+        results.add(run("move", moves));
+        results.add(run("delete", deletes));
+
+        report(results);
+        for (LatencyRecorder.Result result : results) {
+            assertThat(result.errors()).as("ошибки в фазе %s", result.phase()).isZero();
+        }
+    }
+
+    @SneakyThrows
+    private LatencyRecorder.Result run(String phase,
+                                       List<IntSupplier> requests) {
+        LatencyRecorder recorder = new LatencyRecorder(phase, requests.size());
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        long started = System.nanoTime();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (IntSupplier request : requests) {
+                inFlight.acquire();
+                workers.execute(() -> {
+                    long requestStarted = System.nanoTime();
+                    int status;
+                    try {
+                        status = request.getAsInt();
+                    } catch (RuntimeException e) {
+                        status = -1;
+                    } finally {
+                        inFlight.release();
+                    }
+                    recorder.record(System.nanoTime() - requestStarted, status);
+                });
+            }
+        }
+        return recorder.result(System.nanoTime() - started);
+    }
+
+    @SneakyThrows
+    private void report(List<LatencyRecorder.Result> results) {
+        log.info("Нагрузочный прогон '{}': {} пользователей, {} файлов на пользователя, {} одновременных запросов",
+                LABEL, USERS, FILES_PER_USER, CONCURRENCY);
+        List<String> lines = new ArrayList<>();
+        for (LatencyRecorder.Result result : results) {
+            log.info("{}: {} запросов, ошибок {}, p50 {} мс, p99 {} мс, max {} мс, {} запросов/с",
+                    String.format("%-10s", result.phase()), result.requests(), result.errors(),
+                    String.format("%.1f", result.p50Millis()), String.format("%.1f", result.p99Millis()),
+                    String.format("%.1f", result.maxMillis()), String.format("%.0f", result.throughput()));
+            lines.add(result.toCsv(LABEL));
+        }
+        Files.createDirectories(REPORT.getParent());
+        if (Files.notExists(REPORT)) {
+            Files.writeString(REPORT, "label,phase,requests,errors,p50_ms,p99_ms,max_ms,throughput_rps\n");
+        }
+        Files.write(REPORT, lines, StandardOpenOption.APPEND);
+    }
+}
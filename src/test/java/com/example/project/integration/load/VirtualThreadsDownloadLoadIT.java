@@ -0,0 +1,15 @@
+package com.example.project.integration.load;
+
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = {
+        "spring.threads.virtual.enabled=true",
+        "storage.diagnostics.pinning.enabled=true"
+})
+public class VirtualThreadsDownloadLoadIT extends BaseDownloadLoadTest {
+
+    @Override
+    protected String mode() {
+        return "virtual threads";
+    }
+}
@@ -2,6 +2,9 @@ package com.example.project.integration.storage;
 
 
 import com.example.project.config.TestBeans;
+import com.example.project.exceptions.storage.StorageBackendException;
+import com.example.project.utils.StorageBackend;
+import com.example.project.utils.StoredObject;
 import io.minio.PutObjectArgs;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,9 +16,16 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpSession;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
 
 import java.io.ByteArrayInputStream;
+import java.util.Iterator;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -27,6 +37,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @Tag("createEmptyFolder")
 public class CreateEmptyFolderIT extends BaseStorageTest {
 
+    @MockitoSpyBean
+    private StorageBackend storageBackend;
+
     @BeforeEach
     void clearBucketRemoveBucketClearDatabase() {
         clearBucketAndDatabase();
@@ -102,6 +115,32 @@ public class CreateEmptyFolderIT extends BaseStorageTest {
                 .andExpect(jsonPath("$.statusCode").value(HttpStatus.NOT_FOUND.value()));
     }
 
+    @Test
+    @SneakyThrows
+    void ошибкаЛистингаРодительскойПапкиНеВыдаётсяЗаЕёОтсутствие() {
+        MockHttpSession session = authorizated();
+        mockMvc.perform(post("/api/directory")
+                        .param("path", "docs")
+                        .session(session))
+                .andExpect(status().isCreated());
+        doAnswer(invocation -> (Iterable<StoredObject>) () -> new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public StoredObject next() {
+                throw new StorageBackendException("Соединение с хранилищем прервано", null);
+            }
+        }).when(storageBackend).list(anyString(), anyString(), eq(false), any(), anyInt());
+
+        mockMvc.perform(post("/api/directory")
+                        .param("path", "docs/inner")
+                        .session(session))
+                .andExpect(status().isInternalServerError());
+    }
+
     @Test
     @SneakyThrows
     void папкаСТакимЖеНазваниемУжеСуществует() {
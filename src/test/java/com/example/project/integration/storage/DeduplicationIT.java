@@ -0,0 +1,232 @@
+package com.example.project.integration.storage;
+
+import com.example.project.config.TestBeans;
+import com.example.project.dto.response.UploadedPartResponse;
+import com.example.project.services.ContentStoreService;
+import com.example.project.utils.BucketPerUserLayout;
+import com.example.project.utils.DeduplicatingStorageBackend;
+import com.example.project.utils.StorageBackend;
+import io.minio.ListObjectsArgs;
+import io.minio.PutObjectArgs;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Одинаковые файлы хранятся одним блобом, а перенос и удаление меняют только ссылки
+ */
+@SpringBootTest(classes = TestBeans.class,
+        properties = {"storage.dedup.enabled=true", "storage.dedup.min-size=0B"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Tag("Storage")
+@Tag("deduplication")
+public class DeduplicationIT extends BaseStorageTest {
+
+    private static final String CONTENT_BUCKET = "content-blobs";
+    private static final byte[] CONTENT = "одинаковое содержимое".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] REPLACEMENT = "другое содержимое".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StorageBackend storageBackend;
+
+    @Autowired
+    @Qualifier("objectStore")
+    private StorageBackend objectStore;
+
+    @Autowired
+    private ContentStoreService contentStoreService;
+
+    @BeforeEach
+    void clearBucketRemoveBucketClearDatabase() {
+        clearBucketAndDatabase();
+        jdbcTemplate.update("DELETE FROM blob_refs");
+        jdbcTemplate.update("DELETE FROM content_blobs");
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldStoreSameContentOnce() {
+        MockHttpSession session = authorizated();
+        upload(session, "a.txt");
+        upload(session, "copy/b.txt");
+
+        assertThat(blobCount()).isEqualTo(1);
+        assertThat(refCount()).isEqualTo(2);
+
+        mockMvc.perform(get("/api/resource/download")
+                        .param("path", "copy/b.txt")
+                        .session(session))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(CONTENT));
+        mockMvc.perform(get("/api/directory")
+                        .param("path", "")
+                        .session(session))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldMoveAndRemoveByReference() {
+        MockHttpSession session = authorizated();
+        upload(session, "a.txt");
+        upload(session, "b.txt");
+
+        mockMvc.perform(get("/api/resource/move")
+                        .param("from", "a.txt")
+                        .param("to", "moved/a.txt")
+                        .session(session))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.path").value("moved/"))
+                .andExpect(jsonPath("$.size").value(CONTENT.length));
+        mockMvc.perform(delete("/api/resource")
+                        .param("path", "b.txt")
+                        .session(session))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/resource/download")
+                        .param("path", "moved/a.txt")
+                        .session(session))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(CONTENT));
+        assertThat(refCount()).isEqualTo(1);
+        assertThat(blobCount()).isEqualTo(1);
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldDropReferenceWhenSmallFileIsWrittenOverIt() {
+        MockHttpSession session = authorizated();
+        upload(session, "a.txt");
+        StorageBackend smallFilesAsIs = new DeduplicatingStorageBackend(objectStore, contentStoreService,
+                CONTENT_BUCKET, DataSize.ofKilobytes(64));
+
+        smallFilesAsIs.write(userBucket(), "a.txt", new ByteArrayInputStream(REPLACEMENT), REPLACEMENT.length,
+                "text/plain");
+
+        assertThat(referenceRows()).isZero();
+        assertThat(refCount()).isZero();
+        expectDownload(session, "a.txt", REPLACEMENT);
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldDropReferenceWhenMultipartUploadCompletesOverIt() {
+        MockHttpSession session = authorizated();
+        upload(session, "a.txt");
+        String bucket = userBucket();
+
+        String uploadId = storageBackend.createMultipartUpload(bucket, "a.txt", "text/plain");
+        String etag = storageBackend.uploadPart(bucket, "a.txt", uploadId, 1,
+                new ByteArrayInputStream(REPLACEMENT), REPLACEMENT.length);
+        storageBackend.completeMultipartUpload(bucket, "a.txt", uploadId,
+                List.of(new UploadedPartResponse(1, REPLACEMENT.length, etag)));
+
+        assertThat(referenceRows()).isZero();
+        assertThat(refCount()).isZero();
+        expectDownload(session, "a.txt", REPLACEMENT);
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldRemovePlainObjectWhenReferenceIsWrittenOverIt() {
+        MockHttpSession session = authorizated();
+        String bucket = userBucket();
+        minioClient.putObject(PutObjectArgs.builder()
+                .bucket(bucket)
+                .object("a.txt")
+                .stream(new ByteArrayInputStream(REPLACEMENT), REPLACEMENT.length, -1)
+                .contentType("text/plain")
+                .build());
+
+        storageBackend.write(bucket, "a.txt", new ByteArrayInputStream(CONTENT), CONTENT.length, "text/plain");
+
+        assertThat(objectStore.stat(bucket, "a.txt")).isEmpty();
+        assertThat(referenceRows()).isEqualTo(1);
+        expectDownload(session, "a.txt", CONTENT);
+
+        // после удаления ссылки старый объект не должен снова появиться
+        mockMvc.perform(delete("/api/resource")
+                        .param("path", "a.txt")
+                        .session(session))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/resource")
+                        .param("path", "a.txt")
+                        .session(session))
+                .andExpect(status().isNotFound());
+    }
+
+    private String userBucket() {
+        int userId = userRepository.findByUsername(USERNAME).orElseThrow().getId();
+        return BucketPerUserLayout.toValidBucketName(USERNAME, userId);
+    }
+
+    @SneakyThrows
+    private void expectDownload(MockHttpSession session,
+                                String path,
+                                byte[] expected) {
+        mockMvc.perform(get("/api/resource/download")
+                        .param("path", path)
+                        .session(session))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(expected));
+    }
+
+    @SneakyThrows
+    private void upload(MockHttpSession session,
+                        String path) {
+        mockMvc.perform(put("/api/resource/stream")
+                        .param("path", path)
+                        .content(CONTENT)
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .session(session))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.size").value(CONTENT.length));
+    }
+
+    private int blobCount() {
+        int count = 0;
+        for (var ignored : minioClient.listObjects(ListObjectsArgs.builder()
+                .bucket(CONTENT_BUCKET)
+                .prefix("sha256/")
+                .recursive(true)
+                .build())) {
+            count++;
+        }
+        return count;
+    }
+
+    private Integer referenceRows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM blob_refs", Integer.class);
+    }
+
+    private Integer refCount() {
+        return jdbcTemplate.queryForObject("SELECT ref_count FROM content_blobs", Integer.class);
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.project.integration.storage;
 
 import com.example.project.config.TestBeans;
+import com.example.project.exceptions.storage.StorageBackendException;
+import com.example.project.utils.StorageBackend;
+import com.example.project.utils.StoredObject;
 import io.minio.PutObjectArgs;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,10 +15,20 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpSession;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
 
 import java.io.ByteArrayInputStream;
+import java.util.Iterator;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -26,6 +39,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @Tag("directoryContents")
 public class DirectoryContentsIT extends BaseStorageTest {
 
+    @MockitoSpyBean
+    private StorageBackend storageBackend;
+
     @BeforeEach
     void clearBucketRemoveBucketClearDatabase() {
         clearBucketAndDatabase();
@@ -48,6 +64,36 @@ public class DirectoryContentsIT extends BaseStorageTest {
 
     }
 
+    @Test
+    @SneakyThrows
+    void содержимоеПапкиОбновляетсяПослеЗагрузки() {
+        MockHttpSession session = authorizated();
+
+        mockMvc.perform(post("/api/directory")
+                        .param("path", "cached")
+                        .session(session))
+                .andExpect(status().isCreated());
+        mockMvc.perform(get("/api/directory")
+                        .param("path", "cached")
+                        .session(session))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+
+        mockMvc.perform(put("/api/resource/stream")
+                        .param("path", "cached/file.txt")
+                        .session(session)
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("hello world"))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/directory")
+                        .param("path", "cached")
+                        .session(session))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("file.txt"));
+    }
+
     @Test
     @SneakyThrows
     void папкиНеСуществует() { //404
@@ -61,6 +107,49 @@ public class DirectoryContentsIT extends BaseStorageTest {
                 .andExpect(jsonPath("$.message").value("Папка не существует"))
                 .andExpect(jsonPath("$.statusCode").value(HttpStatus.NOT_FOUND.value()));
     }
+    @Test
+    @SneakyThrows
+    void постраничнаяВыдача() {
+        MockHttpSession session = authorizated();
+        addDirectoryToBucket();
+        addDirectoryToBucket();
+
+        mockMvc.perform(get("/api/directory")
+                        .param("path", "")
+                        .param("limit", "1")
+                        .session(session))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("X-Continuation-Token"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].type").value("DIRECTORY"));
+    }
+
+    @Test
+    @SneakyThrows
+    @SuppressWarnings("unchecked")
+    void страницаНеОбрезаетсяПриОшибкеЛистинга() { // 500
+        MockHttpSession session = authorizated();
+        for (String path : new String[]{"a.txt", "b.txt", "c.txt"}) {
+            mockMvc.perform(put("/api/resource/stream")
+                            .param("path", path)
+                            .session(session)
+                            .contentType(MediaType.TEXT_PLAIN)
+                            .content("hello world"))
+                    .andExpect(status().isCreated());
+        }
+        doAnswer(invocation -> {
+            Iterable<StoredObject> listing = (Iterable<StoredObject>) invocation.callRealMethod();
+            return (Iterable<StoredObject>) () -> failingAfterFirst(listing.iterator());
+        }).when(storageBackend).list(anyString(), anyString(), anyBoolean(), any(), anyInt());
+
+        mockMvc.perform(get("/api/directory")
+                        .param("path", "")
+                        .param("limit", "2")
+                        .session(session))
+                .andExpect(status().isInternalServerError())
+                .andExpect(header().doesNotExist("X-Continuation-Token"));
+    }
+
     @Test
     @SneakyThrows
     void пользоватльНеАвторизирован() {
@@ -70,4 +159,27 @@ public class DirectoryContentsIT extends BaseStorageTest {
                 .andExpect(jsonPath("$.message").value("Пользователь не авторизован"))
                 .andExpect(jsonPath("$.statusCode").value(HttpStatus.UNAUTHORIZED.value()));
     }
+
+    /**
+     * Отдаёт первый объект листинга, а на следующем падает, как оборвавшийся листинг MinIO
+     */
+    private static Iterator<StoredObject> failingAfterFirst(Iterator<StoredObject> objects) {
+        return new Iterator<>() {
+            private boolean first = true;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public StoredObject next() {
+                if (first) {
+                    first = false;
+                    return objects.next();
+                }
+                throw new StorageBackendException("Соединение с хранилищем прервано", null);
+            }
+        };
+    }
 }
@@ -0,0 +1,261 @@
+package com.example.project.integration.storage;
+
+import com.example.project.config.TestBeans;
+import com.example.project.exceptions.storage.StorageBackendException;
+import com.example.project.utils.BucketPerUserLayout;
+import com.example.project.utils.DirectoryListingCache;
+import com.example.project.utils.StorageBackend;
+import com.example.project.utils.StorageChangedEvent;
+import com.example.project.utils.StoredObject;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Кэш листингов в настоящем Redis: что попадает в кэш и что его сбрасывает
+ */
+@SpringBootTest(classes = TestBeans.class)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Tag("Storage")
+@Tag("directoryListingCache")
+public class DirectoryListingCacheIT extends BaseStorageTest {
+
+    private static final String STORAGE_ID = "listing-cache-test";
+
+    @MockitoSpyBean
+    private StringRedisTemplate redisTemplate;
+
+    @MockitoSpyBean
+    private StorageBackend storageBackend;
+
+    @Autowired
+    private DirectoryListingCache directoryListingCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @BeforeEach
+    void clearBucketRemoveBucketClearDatabase() {
+        clearBucketAndDatabase();
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldEvictCachedListingAfterUpload() {
+        MockHttpSession session = authorizated();
+        upload(session, "a.txt");
+
+        expectListing(session, "", "a.txt");
+        assertThat(redisTemplate.hasKey(listingKey(""))).isTrue();
+
+        upload(session, "b.txt");
+        assertThat(redisTemplate.hasKey(listingKey(""))).isFalse();
+        expectListing(session, "", "a.txt", "b.txt");
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldEvictCachedListingsAfterDelete() {
+        MockHttpSession session = authorizated();
+        upload(session, "docs/a.txt");
+        upload(session, "docs/b.txt");
+
+        expectListing(session, "", "docs/");
+        expectListing(session, "docs/", "a.txt", "b.txt");
+
+        mockMvc.perform(delete("/api/resource")
+                        .param("path", "docs/a.txt")
+                        .session(session))
+                .andExpect(status().isNoContent());
+        expectListing(session, "docs/", "b.txt");
+
+        mockMvc.perform(delete("/api/resource")
+                        .param("path", "docs/")
+                        .session(session))
+                .andExpect(status().isNoContent());
+        assertThat(redisTemplate.hasKey(listingKey("docs/"))).isFalse();
+        mockMvc.perform(get("/api/directory")
+                        .param("path", "docs/")
+                        .session(session))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/directory")
+                        .param("path", "")
+                        .session(session))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldEvictCachedListingsAfterMove() {
+        MockHttpSession session = authorizated();
+        upload(session, "docs/a.txt");
+
+        expectListing(session, "", "docs/");
+        expectListing(session, "docs/", "a.txt");
+
+        mockMvc.perform(get("/api/resource/move")
+                        .param("from", "docs/")
+                        .param("to", "archive/")
+                        .session(session))
+                .andExpect(status().isOk());
+
+        assertThat(redisTemplate.hasKey(listingKey(""))).isFalse();
+        assertThat(redisTemplate.hasKey(listingKey("docs/"))).isFalse();
+        expectListing(session, "", "archive/");
+        expectListing(session, "archive/", "a.txt");
+        mockMvc.perform(get("/api/directory")
+                        .param("path", "docs/")
+                        .session(session))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldNotCacheListingReadBeforeChange() {
+        long generation = directoryListingCache.generation(STORAGE_ID);
+
+        eventPublisher.publishEvent(StorageChangedEvent.object(STORAGE_ID, "a.txt"));
+        directoryListingCache.put(STORAGE_ID, "", generation, "[]");
+
+        assertThat(directoryListingCache.find(STORAGE_ID, "")).isEmpty();
+        assertThat(redisTemplate.hasKey(listingKey(STORAGE_ID, ""))).isFalse();
+
+        directoryListingCache.put(STORAGE_ID, "", directoryListingCache.generation(STORAGE_ID), "[]");
+        assertThat(directoryListingCache.find(STORAGE_ID, "")).contains("[]");
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldBypassCacheUntilFailedEvictionIsRetried() {
+        MockHttpSession session = authorizated();
+        upload(session, "a.txt");
+        expectListing(session, "", "a.txt");
+
+        doThrow(new RedisConnectionFailureException("Redis недоступен"))
+                .when(redisTemplate).execute(any(RedisScript.class), anyList(), any(Object[].class));
+        upload(session, "b.txt");
+
+        // устаревший листинг остался в Redis, но узел его не отдаёт
+        assertThat(redisTemplate.hasKey(listingKey(""))).isTrue();
+        expectListing(session, "", "a.txt", "b.txt");
+
+        Mockito.reset(redisTemplate);
+        directoryListingCache.retryFailedEvictions();
+
+        assertThat(redisTemplate.hasKey(listingKey(""))).isFalse();
+        expectListing(session, "", "a.txt", "b.txt");
+        assertThat(redisTemplate.hasKey(listingKey(""))).isTrue();
+    }
+
+    @Test
+    @SneakyThrows
+    @SuppressWarnings("unchecked")
+    void shouldNotCacheListingCutShortByStorageError() {
+        MockHttpSession session = authorizated();
+        upload(session, "a.txt");
+        upload(session, "b.txt");
+        doAnswer(invocation -> {
+            Iterable<StoredObject> listing = (Iterable<StoredObject>) invocation.callRealMethod();
+            return (Iterable<StoredObject>) () -> failingAfterFirst(listing.iterator());
+        }).when(storageBackend).list(anyString(), anyString(), anyBoolean(), any(), anyInt());
+
+        mockMvc.perform(get("/api/directory")
+                        .param("path", "")
+                        .session(session))
+                .andExpect(status().isInternalServerError());
+        assertThat(redisTemplate.hasKey(listingKey(""))).isFalse();
+
+        Mockito.reset(storageBackend);
+        expectListing(session, "", "a.txt", "b.txt");
+    }
+
+    /**
+     * Отдаёт первый объект листинга, а на следующем падает, как оборвавшийся листинг MinIO
+     */
+    private static Iterator<StoredObject> failingAfterFirst(Iterator<StoredObject> objects) {
+        return new Iterator<>() {
+            private boolean first = true;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public StoredObject next() {
+                if (first) {
+                    first = false;
+                    return objects.next();
+                }
+                throw new StorageBackendException("Соединение с хранилищем прервано", null);
+            }
+        };
+    }
+
+    /**
+     * Ключ листинга папки пользователя в раскладке "бакет на пользователя"
+     */
+    private String listingKey(String prefix) {
+        int userId = userRepository.findByUsername(USERNAME).orElseThrow().getId();
+        return listingKey(BucketPerUserLayout.toValidBucketName(USERNAME, userId), prefix);
+    }
+
+    private static String listingKey(String storageId,
+                                     String prefix) {
+        return "storage:listing:" + storageId + ":" + prefix;
+    }
+
+    @SneakyThrows
+    private void upload(MockHttpSession session,
+                        String path) {
+        mockMvc.perform(put("/api/resource/stream")
+                        .param("path", path)
+                        .content(path.getBytes(StandardCharsets.UTF_8))
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .session(session))
+                .andExpect(status().isCreated());
+    }
+
+    @SneakyThrows
+    private void expectListing(MockHttpSession session,
+                               String path,
+                               String... names) {
+        mockMvc.perform(get("/api/directory")
+                        .param("path", path)
+                        .session(session))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].name", containsInAnyOrder(names)));
+    }
+}
@@ -8,14 +8,25 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpSession;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -43,6 +54,62 @@ public class DownloadResourceIT extends BaseStorageTest {
                         .contentType(MediaType.APPLICATION_OCTET_STREAM_VALUE))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    @SneakyThrows
+    void shouldDownloadFileRangeSuccessfully() {
+        MockHttpSession session = authorizated();
+        String filePath = addFileToBucket();
+        mockMvc.perform(get("/api/resource/download")
+                        .param("path", filePath)
+                        .header(HttpHeaders.RANGE, "bytes=0-4")
+                        .session(session))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 0-4/11"))
+                .andExpect(content().string("hello"));
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldMergeOverlappingRanges() {
+        MockHttpSession session = authorizated();
+        String filePath = addFileToBucket();
+        mockMvc.perform(get("/api/resource/download")
+                        .param("path", filePath)
+                        .header(HttpHeaders.RANGE, "bytes=2-6,0-4")
+                        .session(session))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 0-6/11"))
+                .andExpect(content().string("hello w"));
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldIgnoreRangesLargerThanFile() {
+        MockHttpSession session = authorizated();
+        String filePath = addFileToBucket();
+        mockMvc.perform(get("/api/resource/download")
+                        .param("path", filePath)
+                        .header(HttpHeaders.RANGE, "bytes=0-9,0-9,0-9")
+                        .session(session))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+                .andExpect(content().string("hello world"));
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldRejectUnsatisfiableRange() {
+        MockHttpSession session = authorizated();
+        String filePath = addFileToBucket();
+        mockMvc.perform(get("/api/resource/download")
+                        .param("path", filePath)
+                        .header(HttpHeaders.RANGE, "bytes=20-30")
+                        .session(session))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */11"));
+    }
+
     @Test
     @SneakyThrows
     void shouldDownloadDirectorySuccessfully() {
@@ -55,6 +122,46 @@ public class DownloadResourceIT extends BaseStorageTest {
                 .andExpect(status().isOk());
     }
 
+    /**
+     * Файлов больше, чем окно предзагрузки: архив собирается в несколько проходов окна,
+     * а повторное скачивание проверяет, что бюджет памяти вернулся целиком
+     */
+    @Test
+    @SneakyThrows
+    void shouldZipDirectoryLargerThanPrefetchWindow() {
+        MockHttpSession session = authorizated();
+        Map<String, String> expected = new HashMap<>();
+        for (int i = 0; i < 20; i++) {
+            String name = i % 5 == 0 ? "inner/image-" + i + ".png" : "file-" + i + ".txt";
+            expected.put(name, "содержимое " + i);
+            mockMvc.perform(put("/api/resource/stream")
+                            .param("path", "docs/" + name)
+                            .content(expected.get(name).getBytes(StandardCharsets.UTF_8))
+                            .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                            .session(session))
+                    .andExpect(status().isCreated());
+        }
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            byte[] archive = mockMvc.perform(get("/api/resource/download")
+                            .param("path", "docs")
+                            .session(session))
+                    .andExpect(status().isOk())
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsByteArray();
+
+            Map<String, String> actual = new HashMap<>();
+            try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(archive))) {
+                ZipEntry entry;
+                while ((entry = zip.getNextEntry()) != null) {
+                    actual.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+                }
+            }
+            assertThat(actual).isEqualTo(expected);
+        }
+    }
+
     @Test
     @SneakyThrows
     void shouldReturnUnauthorizedForNoSession() {
@@ -0,0 +1,138 @@
+package com.example.project.integration.storage;
+
+import com.example.project.dto.response.UploadedPartResponse;
+import com.example.project.utils.LocalStorageBackend;
+import com.example.project.utils.StoredObject;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Локальный бэкенд проверяется без контейнеров: та же семантика ключей, что у MinIO, на временной папке
+ */
+@Tag("Storage")
+@Tag("localBackend")
+public class LocalStorageBackendIT {
+
+    private static final String BUCKET = "luntik";
+
+    @TempDir
+    Path root;
+
+    private LocalStorageBackend backend;
+
+    @BeforeEach
+    @SneakyThrows
+    void createBucket() {
+        backend = new LocalStorageBackend(root.toString(), DataSize.ofKilobytes(4));
+        assertThat(backend.createBucket(BUCKET)).isTrue();
+        assertThat(backend.createBucket(BUCKET)).isFalse();
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldWriteAndReadRange() {
+        put("docs/hello.txt", "hello world");
+
+        StoredObject object = backend.stat(BUCKET, "docs/hello.txt").orElseThrow();
+        assertThat(object.size()).isEqualTo(11);
+        assertThat(object.etag()).isNotBlank();
+        assertThat(object.contentType()).isEqualTo("text/plain");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        backend.read(BUCKET, "docs/hello.txt", 6, 5, out);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("world");
+        assertThat(backend.stat(BUCKET, "docs")).isEmpty();
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldListLikeS3() {
+        put("docs/", "");
+        put("docs/b.txt", "b");
+        put("docs/a/inner.txt", "inner");
+        put("docs-old.txt", "old");
+
+        assertThat(keys(backend.list(BUCKET, "docs/", false, null, 0)))
+                .containsExactly("docs/", "docs/a/", "docs/b.txt");
+        assertThat(keys(backend.list(BUCKET, "", true, null, 0)))
+                .containsExactly("docs-old.txt", "docs/", "docs/a/inner.txt", "docs/b.txt");
+        assertThat(keys(backend.list(BUCKET, "", true, "docs/", 0)))
+                .containsExactly("docs/a/inner.txt", "docs/b.txt");
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldCopyAndRemoveEmptyDirectories() {
+        put("docs/a/inner.txt", "inner");
+
+        backend.copy(BUCKET, "docs/a/inner.txt", BUCKET, "moved/inner.txt", 5);
+        assertThat(backend.removeAll(BUCKET, List.of("docs/a/inner.txt"))).isEmpty();
+
+        assertThat(keys(backend.list(BUCKET, "", true, null, 0))).containsExactly("moved/inner.txt");
+        assertThat(Files.exists(root.resolve(BUCKET).resolve("docs"))).isFalse();
+        try (InputStream in = backend.open(BUCKET, "moved/inner.txt")) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("inner");
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldAssembleMultipartUpload() {
+        String uploadId = backend.createMultipartUpload(BUCKET, "video.mp4", "video/mp4");
+        String second = backend.uploadPart(BUCKET, "video.mp4", uploadId, 2,
+                new ByteArrayInputStream("world".getBytes(StandardCharsets.UTF_8)), 5);
+        String first = backend.uploadPart(BUCKET, "video.mp4", uploadId, 1,
+                new ByteArrayInputStream("hello ".getBytes(StandardCharsets.UTF_8)), 6);
+        assertThatThrownBy(() -> backend.uploadPart(BUCKET, "video.mp4", uploadId, 3,
+                new ByteArrayInputStream("short".getBytes(StandardCharsets.UTF_8)), 10))
+                .isInstanceOf(EOFException.class);
+
+        backend.completeMultipartUpload(BUCKET, "video.mp4", uploadId, List.of(
+                new UploadedPartResponse(1, 6, first),
+                new UploadedPartResponse(2, 5, second)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        backend.read(BUCKET, "video.mp4", 0, 11, out);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("hello world");
+        assertThatThrownBy(() -> backend.abortMultipartUpload(BUCKET, "video.mp4", uploadId))
+                .isInstanceOf(Exception.class);
+    }
+
+    @Test
+    void shouldRejectKeysOutsideBucket() {
+        assertThatThrownBy(() -> backend.stat(BUCKET, "../other/secret.txt"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @SneakyThrows
+    private void put(String key,
+                     String content) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        backend.write(BUCKET, key, new ByteArrayInputStream(bytes), bytes.length, null);
+    }
+
+    private static List<String> keys(Iterable<StoredObject> objects) {
+        List<String> keys = new ArrayList<>();
+        for (StoredObject object : objects) {
+            keys.add(object.key());
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.project.integration.storage;
+
+import com.example.project.config.TestBeans;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Счётчики байт и таймеры MinIO после настоящей загрузки и скачивания
+ */
+@SpringBootTest(classes = TestBeans.class)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Tag("Storage")
+@Tag("minioMetrics")
+public class MinioMetricsIT extends BaseStorageTest {
+
+    private static final byte[] CONTENT = "байты для подсчёта".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void clearBucketRemoveBucketClearDatabase() {
+        clearBucketAndDatabase();
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldCountUploadedAndDownloadedBytes() {
+        MockHttpSession session = authorizated();
+        double uploadedBefore = transferred("upload");
+        double downloadedBefore = transferred("download");
+        long putsBefore = requests("put");
+        long getsBefore = requests("get");
+
+        mockMvc.perform(put("/api/resource/stream")
+                        .param("path", "metrics.txt")
+                        .content(CONTENT)
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .session(session))
+                .andExpect(status().isCreated());
+        mockMvc.perform(get("/api/resource/download")
+                        .param("path", "metrics.txt")
+                        .session(session))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(CONTENT));
+
+        assertThat(transferred("upload") - uploadedBefore).isEqualTo(CONTENT.length);
+        assertThat(transferred("download") - downloadedBefore).isEqualTo(CONTENT.length);
+        assertThat(requests("put") - putsBefore).isEqualTo(1);
+        assertThat(requests("get") - getsBefore).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldHidePrometheusFromAnonymousUsers() {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().is4xxClientError());
+    }
+
+    private double transferred(String direction) {
+        Counter counter = meterRegistry.find("minio.transfer.bytes").tag("direction", direction).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private long requests(String operation) {
+        Timer timer = meterRegistry.find("minio.requests")
+                .tag("operation", operation)
+                .tag("outcome", "success")
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
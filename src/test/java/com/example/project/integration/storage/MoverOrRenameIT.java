@@ -1,7 +1,9 @@
 package com.example.project.integration.storage;
 
 import com.example.project.config.TestBeans;
+import com.example.project.utils.StorageBackend;
 import io.minio.PutObjectArgs;
+import io.minio.RemoveObjectArgs;
 import io.minio.StatObjectArgs;
 import lombok.SneakyThrows;
 import lombok.ToString;
@@ -15,12 +17,23 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpSession;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -31,6 +44,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @Tag("moverOrRename")
 public class MoverOrRenameIT extends BaseStorageTest {
 
+    @MockitoSpyBean
+    private StorageBackend storageBackend;
+
     @BeforeEach
     void clearBucketRemoveBucketClearDatabase() {
         clearBucketAndDatabase();
@@ -218,5 +234,110 @@ public class MoverOrRenameIT extends BaseStorageTest {
                 .andExpect(jsonPath("$.statusCode").value(HttpStatus.CONFLICT.value()));
     }
 
+    @Test
+    @SneakyThrows
+    void shouldFailMoveDirectoryIntoItself() {
+        MockHttpSession session = authorizated();
+        upload(session, "a/x.txt");
+
+        mockMvc.perform(get("/api/resource/move")
+                        .param("from", "a/")
+                        .param("to", "a/b/")
+                        .session(session))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Нельзя переместить папку внутрь самой себя"))
+                .andExpect(jsonPath("$.statusCode").value(HttpStatus.BAD_REQUEST.value()));
+
+        expectDownload(session, "a/x.txt", HttpStatus.OK);
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldRollbackDirectoryMoveWhenCopyFails() {
+        MockHttpSession session = authorizated();
+        upload(session, "docs/a.txt");
+        upload(session, "docs/b.txt");
+        upload(session, "docs/c.txt");
+        doThrow(new IllegalStateException("Копирование не удалось"))
+                .when(storageBackend).copy(anyString(), anyString(), anyString(), endsWith("moved/b.txt"), anyLong());
+
+        mockMvc.perform(get("/api/resource/move")
+                        .param("from", "docs/")
+                        .param("to", "moved/")
+                        .session(session))
+                .andExpect(status().isInternalServerError());
 
+        expectDownload(session, "docs/a.txt", HttpStatus.OK);
+        expectDownload(session, "docs/b.txt", HttpStatus.OK);
+        expectDownload(session, "docs/c.txt", HttpStatus.OK);
+        expectDownload(session, "moved/a.txt", HttpStatus.NOT_FOUND);
+        expectDownload(session, "moved/c.txt", HttpStatus.NOT_FOUND);
+        mockMvc.perform(get("/api/directory")
+                        .param("path", "moved/")
+                        .session(session))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @SneakyThrows
+    @SuppressWarnings("unchecked")
+    void shouldReportSourcesLeftAfterDirectoryMove() {
+        MockHttpSession session = authorizated();
+        upload(session, "docs/a.txt");
+        upload(session, "docs/b.txt");
+        // хранилище отказывает в удалении docs/b.txt, остальные исходники удаляются по-настоящему
+        doAnswer(invocation -> {
+            String bucket = invocation.getArgument(0);
+            String lockedKey = null;
+            for (String key : (List<String>) invocation.getArgument(1)) {
+                if (key.endsWith("docs/b.txt")) {
+                    lockedKey = key;
+                    continue;
+                }
+                minioClient.removeObject(RemoveObjectArgs.builder().bucket(bucket).object(key).build());
+            }
+            return lockedKey == null ? Map.of() : Map.of(lockedKey, "Access Denied.");
+        }).when(storageBackend).removeAll(anyString(), anyList());
+
+        mockMvc.perform(get("/api/resource/move")
+                        .param("from", "docs/")
+                        .param("to", "moved/")
+                        .session(session))
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$.moved.type").value("DIRECTORY"))
+                .andExpect(jsonPath("$.failed.length()").value(1))
+                .andExpect(jsonPath("$.failed[0].path").value("docs/b.txt"));
+
+        expectDownload(session, "moved/a.txt", HttpStatus.OK);
+        expectDownload(session, "moved/b.txt", HttpStatus.OK);
+        expectDownload(session, "docs/a.txt", HttpStatus.NOT_FOUND);
+        expectDownload(session, "docs/b.txt", HttpStatus.OK);
+        // индекс не считает оставшийся исходник перемещённым
+        mockMvc.perform(get("/api/resource/search")
+                        .param("query", "b.txt")
+                        .session(session))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @SneakyThrows
+    private void upload(MockHttpSession session,
+                        String path) {
+        mockMvc.perform(put("/api/resource/stream")
+                        .param("path", path)
+                        .content("содержимое".getBytes(StandardCharsets.UTF_8))
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .session(session))
+                .andExpect(status().isCreated());
+    }
+
+    @SneakyThrows
+    private void expectDownload(MockHttpSession session,
+                                String path,
+                                HttpStatus expected) {
+        mockMvc.perform(get("/api/resource/download")
+                        .param("path", path)
+                        .session(session))
+                .andExpect(status().is(expected.value()));
+    }
 }
@@ -1,6 +1,9 @@
 package com.example.project.integration.storage;
 
 import com.example.project.config.TestBeans;
+import com.example.project.exceptions.storage.StorageBackendException;
+import com.example.project.utils.StorageBackend;
+import com.example.project.utils.StoredObject;
 import io.minio.ListObjectsArgs;
 import io.minio.messages.Item;
 import lombok.SneakyThrows;
@@ -13,12 +16,27 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpSession;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -29,6 +47,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @Tag("removeResource")
 public class RemoveResourceIT extends BaseStorageTest{
 
+    @MockitoSpyBean
+    private StorageBackend storageBackend;
 
     @BeforeEach
     void clearBucketRemoveBucketClearDatabase() {
@@ -98,6 +118,124 @@ public class RemoveResourceIT extends BaseStorageTest{
 
     }
 
+    @Test
+    @SneakyThrows
+    void shouldFailWhenJobNotFound() {
+        MockHttpSession session = authorizated();
+
+        mockMvc.perform(get("/api/resource/jobs/{id}", UUID.randomUUID())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .session(session))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Задача не найдена"))
+                .andExpect(jsonPath("$.statusCode").value(HttpStatus.NOT_FOUND.value()));
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldReportPartiallyDeletedDirectory() {
+        MockHttpSession session = authorizated();
+        upload(session, "docs/a.txt");
+        upload(session, "docs/b.txt");
+        doAnswer(invocation -> {
+            String bucketName = invocation.getArgument(0);
+            List<String> keys = invocation.getArgument(1);
+            for (String key : keys) {
+                if (!key.endsWith("b.txt")) {
+                    storageBackend.remove(bucketName, key);
+                }
+            }
+            return keys.stream()
+                    .filter(key -> key.endsWith("b.txt"))
+                    .collect(Collectors.toMap(key -> key, key -> "AccessDenied"));
+        }).when(storageBackend).removeAll(anyString(), anyList());
+
+        mockMvc.perform(delete("/api/resource")
+                        .param("path", "docs/")
+                        .session(session))
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$.path").value("docs/"))
+                .andExpect(jsonPath("$.failed.length()").value(1))
+                .andExpect(jsonPath("$.failed[0].path").value("docs/b.txt"))
+                .andExpect(jsonPath("$.failed[0].message").value("AccessDenied"));
+
+        expectDownload(session, "docs/a.txt", HttpStatus.NOT_FOUND);
+        expectDownload(session, "docs/b.txt", HttpStatus.OK);
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldReportDirectoryWhenListingFails() {
+        MockHttpSession session = authorizated();
+        upload(session, "docs/a.txt");
+        upload(session, "docs/b.txt");
+        doAnswer(invocation -> {
+            @SuppressWarnings("unchecked")
+            Iterator<StoredObject> objects = ((Iterable<StoredObject>) invocation.callRealMethod()).iterator();
+            return (Iterable<StoredObject>) () -> new Iterator<>() {
+                private boolean served;
+
+                @Override
+                public boolean hasNext() {
+                    return true;
+                }
+
+                @Override
+                public StoredObject next() {
+                    if (served) {
+                        throw new StorageBackendException("Соединение с хранилищем разорвано", null);
+                    }
+                    served = true;
+                    return objects.next();
+                }
+            };
+        }).when(storageBackend).list(anyString(), endsWith("docs/"), eq(true), isNull(), eq(0));
+
+        mockMvc.perform(delete("/api/resource")
+                        .param("path", "docs/")
+                        .session(session))
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$.deleted").value(1))
+                .andExpect(jsonPath("$.failed.length()").value(1))
+                .andExpect(jsonPath("$.failed[0].path").value("docs/"));
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldDeleteDirectoryInBackground() {
+        MockHttpSession session = authorizated();
+        upload(session, "docs/a.txt");
+        upload(session, "docs/b.txt");
+
+        MvcResult accepted = mockMvc.perform(delete("/api/resource")
+                        .param("path", "docs/")
+                        .param("async", "true")
+                        .session(session))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.status").value("RUNNING"))
+                .andReturn();
+        String id = objectMapper.readTree(accepted.getResponse().getContentAsString()).get("id").asText();
+
+        Map<?, ?> job = Map.of();
+        for (int attempt = 0; attempt < 50; attempt++) {
+            MvcResult result = mockMvc.perform(get("/api/resource/jobs/{id}", id)
+                            .session(session))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            job = objectMapper.readValue(result.getResponse().getContentAsString(), Map.class);
+            if (!"RUNNING".equals(job.get("status"))) {
+                break;
+            }
+            Thread.sleep(100);
+        }
+
+        assertThat(job.get("status")).isEqualTo("COMPLETED");
+        assertThat((Map<?, ?>) job.get("report")).containsEntry("path", "docs/");
+        assertThat((List<?>) ((Map<?, ?>) job.get("report")).get("failed")).isEmpty();
+        expectDownload(session, "docs/a.txt", HttpStatus.NOT_FOUND);
+        expectDownload(session, "docs/b.txt", HttpStatus.NOT_FOUND);
+    }
+
     @SneakyThrows
     @Test
     void shouldFailWithUnauthorizedAccess() {
@@ -126,6 +264,24 @@ public class RemoveResourceIT extends BaseStorageTest{
                 .andExpect(jsonPath("$.statusCode").value(HttpStatus.BAD_REQUEST.value()));
     }
 
+    @SneakyThrows
+    private void upload(MockHttpSession session,
+                        String path) {
+        mockMvc.perform(put("/api/resource/stream")
+                        .param("path", path)
+                        .content("содержимое".getBytes(StandardCharsets.UTF_8))
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .session(session))
+                .andExpect(status().isCreated());
+    }
 
-
+    @SneakyThrows
+    private void expectDownload(MockHttpSession session,
+                                String path,
+                                HttpStatus expected) {
+        mockMvc.perform(get("/api/resource/download")
+                        .param("path", path)
+                        .session(session))
+                .andExpect(status().is(expected.value()));
+    }
 }
@@ -1,6 +1,9 @@
 package com.example.project.integration.storage;
 
 import com.example.project.config.TestBeans;
+import com.example.project.exceptions.storage.StorageBackendException;
+import com.example.project.utils.StorageBackend;
+import com.example.project.utils.StoredObject;
 import io.minio.*;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
@@ -11,10 +14,18 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpSession;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.Iterator;
 
 
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doReturn;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -27,6 +38,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @Tag("resourceInfo")
 public class ResourceInfoIT extends BaseStorageTest {
 
+    @MockitoSpyBean
+    private StorageBackend storageBackend;
+
     @BeforeEach
     void clearBucketRemoveBucketClearDatabase() {
         clearBucketAndDatabase();
@@ -133,4 +147,28 @@ public class ResourceInfoIT extends BaseStorageTest {
                 .bucket(USERNAME)
                 .build())).isTrue();
     }
+
+    @SneakyThrows
+    @Test
+    void shouldNotReportMissingResourceWhenListingFails() {
+        MockHttpSession session = authorizated();
+        Iterable<StoredObject> broken = () -> new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public StoredObject next() {
+                throw new StorageBackendException("Хранилище недоступно", null);
+            }
+        };
+        doReturn(broken).when(storageBackend).list(anyString(), anyString(), eq(false), isNull(), anyInt());
+
+        mockMvc.perform(get("/api/resource")
+                        .param("path", "docs/")
+                        .session(session))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.statusCode").value(HttpStatus.INTERNAL_SERVER_ERROR.value()));
+    }
 }
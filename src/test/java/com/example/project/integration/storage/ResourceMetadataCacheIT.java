@@ -0,0 +1,172 @@
+package com.example.project.integration.storage;
+
+import com.example.project.config.TestBeans;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Кэш метаданных узла: повторный запрос отдаётся из кэша, а запись через сервис сразу его сбрасывает,
+ * в том числе закэшированное "ресурса нет"
+ */
+@SpringBootTest(classes = TestBeans.class)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Tag("Storage")
+@Tag("resourceMetadataCache")
+public class ResourceMetadataCacheIT extends BaseStorageTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void clearBucketRemoveBucketClearDatabase() {
+        clearBucketAndDatabase();
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldServeRepeatedLookupFromCache() {
+        MockHttpSession session = authorizated();
+        upload(session, "a.txt");
+        expectFile(session, "a.txt");
+        double hitsBefore = hits();
+
+        expectFile(session, "a.txt");
+
+        assertThat(hits() - hitsBefore).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldForgetCachedAbsenceAfterUpload() {
+        MockHttpSession session = authorizated();
+        expectMissing(session, "docs/a.txt");
+        expectMissing(session, "docs/");
+
+        upload(session, "docs/a.txt");
+
+        expectFile(session, "docs/a.txt");
+        mockMvc.perform(get("/api/resource")
+                        .param("path", "docs/")
+                        .session(session))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.type").value("DIRECTORY"));
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldFollowMovedFile() {
+        MockHttpSession session = authorizated();
+        upload(session, "a.txt");
+        expectFile(session, "a.txt");
+        expectMissing(session, "b.txt");
+
+        mockMvc.perform(get("/api/resource/move")
+                        .param("from", "a.txt")
+                        .param("to", "b.txt")
+                        .session(session))
+                .andExpect(status().isOk());
+
+        expectMissing(session, "a.txt");
+        expectFile(session, "b.txt");
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldFollowMovedDirectory() {
+        MockHttpSession session = authorizated();
+        upload(session, "docs/a.txt");
+        expectFile(session, "docs/a.txt");
+        expectMissing(session, "archive/a.txt");
+
+        mockMvc.perform(get("/api/resource/move")
+                        .param("from", "docs/")
+                        .param("to", "archive/")
+                        .session(session))
+                .andExpect(status().isOk());
+
+        expectMissing(session, "docs/a.txt");
+        expectMissing(session, "docs/");
+        expectFile(session, "archive/a.txt");
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldForgetDeletedFileAndDirectory() {
+        MockHttpSession session = authorizated();
+        upload(session, "docs/a.txt");
+        upload(session, "docs/inner/b.txt");
+        expectFile(session, "docs/a.txt");
+        expectFile(session, "docs/inner/b.txt");
+
+        mockMvc.perform(delete("/api/resource")
+                        .param("path", "docs/a.txt")
+                        .session(session))
+                .andExpect(status().isNoContent());
+        expectMissing(session, "docs/a.txt");
+
+        mockMvc.perform(delete("/api/resource")
+                        .param("path", "docs/")
+                        .session(session))
+                .andExpect(status().isNoContent());
+        expectMissing(session, "docs/inner/b.txt");
+        expectMissing(session, "docs/");
+    }
+
+    @SneakyThrows
+    private void upload(MockHttpSession session,
+                        String path) {
+        mockMvc.perform(put("/api/resource/stream")
+                        .param("path", path)
+                        .content(path.getBytes(StandardCharsets.UTF_8))
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .session(session))
+                .andExpect(status().isCreated());
+    }
+
+    @SneakyThrows
+    private void expectFile(MockHttpSession session,
+                            String path) {
+        mockMvc.perform(get("/api/resource")
+                        .param("path", path)
+                        .session(session))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.type").value("FILE"));
+    }
+
+    @SneakyThrows
+    private void expectMissing(MockHttpSession session,
+                               String path) {
+        mockMvc.perform(get("/api/resource")
+                        .param("path", path)
+                        .session(session))
+                .andExpect(status().isNotFound());
+    }
+
+    private double hits() {
+        FunctionCounter counter = meterRegistry.find("cache.gets")
+                .tag("cache", "storage.metadata")
+                .tag("result", "hit")
+                .functionCounter();
+        return counter == null ? 0 : counter.count();
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.project.integration.storage;
 
 import com.example.project.config.TestBeans;
+import com.example.project.utils.StorageBackend;
+import com.example.project.utils.StoredObject;
 import io.minio.PutObjectArgs;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,11 +14,25 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpSession;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
 
 
 import java.io.ByteArrayInputStream;
-
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -28,6 +44,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @Tag("searchResource")
 public class SearchResourceIT extends BaseStorageTest{
 
+    @MockitoSpyBean
+    private StorageBackend storageBackend;
+
     @BeforeEach
     void clearBucketRemoveBucketClearDatabase() {
         clearBucketAndDatabase();
@@ -68,6 +87,95 @@ public class SearchResourceIT extends BaseStorageTest{
                 .andExpect(jsonPath("$.statusCode").value(HttpStatus.BAD_REQUEST.value()));
     }
 
+    @Test
+    @SneakyThrows
+    void shouldFailSearchWithInvalidPagination() {
+        MockHttpSession session = authorizated();
+
+        mockMvc.perform(get("/api/resource/search")
+                        .param("query", "file")
+                        .param("limit", "0")
+                        .param("offset", "-1")
+                        .session(session)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Невалидные параметры постраничной выдачи"))
+                .andExpect(jsonPath("$.statusCode").value(HttpStatus.BAD_REQUEST.value()));
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldStreamSearchResults() {
+        MockHttpSession session = authorizated();
+
+        String fileFullPathInDirectory = addDirectoryToBucket();
+        String fileName = fileFullPathInDirectory.substring(fileFullPathInDirectory.lastIndexOf("/") + 1);
+
+        mockMvc.perform(get("/api/resource/search/stream")
+                        .param("query", fileName)
+                        .param("limit", "1")
+                        .session(session))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(containsString("\"name\":\"" + fileName + "\"")));
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldFindUploadedFileAndForgetItAfterMove() {
+        MockHttpSession session = authorizated();
+        uploadFile(session, "docs/report.txt");
+
+        expectFound(session, "report", "docs/", "report.txt");
+
+        mockMvc.perform(get("/api/resource/move")
+                        .param("from", "docs/report.txt")
+                        .param("to", "archive/summary.txt")
+                        .session(session))
+                .andExpect(status().isOk());
+
+        expectNotFound(session, "report");
+        expectFound(session, "summary", "archive/", "summary.txt");
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldForgetFileAfterDelete() {
+        MockHttpSession session = authorizated();
+        uploadFile(session, "docs/report.txt");
+        expectFound(session, "report", "docs/", "report.txt");
+
+        mockMvc.perform(delete("/api/resource")
+                        .param("path", "docs/report.txt")
+                        .session(session))
+                .andExpect(status().isNoContent());
+
+        expectNotFound(session, "report");
+    }
+
+    @Test
+    @SneakyThrows
+    @SuppressWarnings("unchecked")
+    void shouldNotCommitRebuildThatMissedConcurrentUpload() {
+        MockHttpSession session = authorizated();
+        uploadFile(session, "docs/report.txt");
+        userRepository.updateStorageIndexed(userRepository.findByUsername(USERNAME).orElseThrow().getId(), false);
+
+        // загрузка приходит, когда листинг для перестройки уже прочитан
+        AtomicBoolean uploaded = new AtomicBoolean();
+        doAnswer(invocation -> {
+            List<StoredObject> listed = new ArrayList<>();
+            ((Iterable<StoredObject>) invocation.callRealMethod()).forEach(listed::add);
+            if (uploaded.compareAndSet(false, true)) {
+                uploadFile(session, "docs/late.txt");
+            }
+            return listed;
+        }).when(storageBackend).list(anyString(), anyString(), eq(true), any(), anyInt());
+
+        expectFound(session, "report", "docs/", "report.txt");
+        expectFound(session, "late", "docs/", "late.txt");
+    }
+
     @Test
     @SneakyThrows
     void shouldFailSearchWhenUserNotAuthorized() {
@@ -78,4 +186,37 @@ public class SearchResourceIT extends BaseStorageTest{
                 .andExpect(jsonPath("$.statusCode").value(HttpStatus.UNAUTHORIZED.value()));
     }
 
+    @SneakyThrows
+    private void uploadFile(MockHttpSession session,
+                            String path) {
+        mockMvc.perform(put("/api/resource/stream")
+                        .param("path", path)
+                        .content("содержимое".getBytes(StandardCharsets.UTF_8))
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .session(session))
+                .andExpect(status().isCreated());
+    }
+
+    @SneakyThrows
+    private void expectFound(MockHttpSession session,
+                             String query,
+                             String path,
+                             String name) {
+        mockMvc.perform(get("/api/resource/search")
+                        .param("query", query)
+                        .session(session))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].path").value(path))
+                .andExpect(jsonPath("$[0].name").value(name));
+    }
+
+    @SneakyThrows
+    private void expectNotFound(MockHttpSession session,
+                                String query) {
+        mockMvc.perform(get("/api/resource/search")
+                        .param("query", query)
+                        .session(session))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -0,0 +1,181 @@
+package com.example.project.integration.storage;
+
+import com.example.project.config.TestBeans;
+import com.example.project.dto.request.UserDTO;
+import io.minio.BucketExistsArgs;
+import io.minio.ListObjectsArgs;
+import io.minio.RemoveObjectArgs;
+import io.minio.Result;
+import io.minio.messages.Item;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Основные сценарии при общем бакете: файлы лежат под users/{id}/, а клиент видит те же пути, что и раньше
+ */
+@SpringBootTest(classes = TestBeans.class, properties = "storage.layout.type=shared-bucket")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Tag("Storage")
+@Tag("sharedBucket")
+public class SharedBucketLayoutIT extends BaseStorageTest {
+
+    static final String SHARED_BUCKET = "user-files";
+
+    private static final byte[] CONTENT = "общий бакет".getBytes(StandardCharsets.UTF_8);
+
+    @BeforeEach
+    @AfterEach
+    void clearSharedBucketAndDatabase() {
+        clearBucketAndDatabase();
+        clearSharedBucket();
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldKeepFilesUnderUserPrefix() {
+        MockHttpSession session = authorizated();
+        String root = "users/" + userId(USERNAME) + "/";
+        upload(session, "docs/a.txt");
+
+        assertThat(sharedKeys()).contains(root + "docs/a.txt");
+        mockMvc.perform(get("/api/resource")
+                        .param("path", "docs/a.txt")
+                        .session(session))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.path").value("docs/"))
+                .andExpect(jsonPath("$.name").value("a.txt"))
+                .andExpect(jsonPath("$.size").value(CONTENT.length));
+        mockMvc.perform(get("/api/directory")
+                        .param("path", "")
+                        .session(session))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].name", containsInAnyOrder("docs/")))
+                .andExpect(jsonPath("$[0].path").value(""));
+        mockMvc.perform(get("/api/resource/download")
+                        .param("path", "docs/a.txt")
+                        .session(session))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(CONTENT));
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldMoveSearchAndDeleteInsideUserPrefix() {
+        MockHttpSession session = authorizated();
+        String root = "users/" + userId(USERNAME) + "/";
+        upload(session, "docs/a.txt");
+
+        mockMvc.perform(get("/api/resource/move")
+                        .param("from", "docs/")
+                        .param("to", "archive/")
+                        .session(session))
+                .andExpect(status().isOk());
+        assertThat(sharedKeys()).contains(root + "archive/a.txt").noneMatch(key -> key.startsWith(root + "docs/"));
+
+        mockMvc.perform(get("/api/resource/search")
+                        .param("query", "a.txt")
+                        .session(session))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].path").value("archive/"))
+                .andExpect(jsonPath("$[0].name").value("a.txt"));
+
+        mockMvc.perform(delete("/api/resource")
+                        .param("path", "archive/")
+                        .session(session))
+                .andExpect(status().isNoContent());
+        assertThat(sharedKeys()).noneMatch(key -> key.startsWith(root));
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldIsolateUsersInSharedBucket() {
+        MockHttpSession owner = authorizated();
+        upload(owner, "secret.txt");
+
+        MockHttpSession stranger = signUp("kuzya");
+        mockMvc.perform(get("/api/directory")
+                        .param("path", "")
+                        .session(stranger))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+        mockMvc.perform(get("/api/resource")
+                        .param("path", "secret.txt")
+                        .session(stranger))
+                .andExpect(status().isNotFound());
+    }
+
+    private int userId(String username) {
+        return userRepository.findByUsername(username).orElseThrow().getId();
+    }
+
+    @SneakyThrows
+    private MockHttpSession signUp(String username) {
+        MvcResult result = mockMvc.perform(post("/api/auth/sign-up")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UserDTO(username, PASSWORD))))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return (MockHttpSession) result.getRequest().getSession(false);
+    }
+
+    @SneakyThrows
+    private void upload(MockHttpSession session,
+                        String path) {
+        mockMvc.perform(put("/api/resource/stream")
+                        .param("path", path)
+                        .content(CONTENT)
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .session(session))
+                .andExpect(status().isCreated());
+    }
+
+    @SneakyThrows
+    private List<String> sharedKeys() {
+        List<String> keys = new ArrayList<>();
+        if (!minioClient.bucketExists(BucketExistsArgs.builder().bucket(SHARED_BUCKET).build())) {
+            return keys;
+        }
+        for (Result<Item> result : minioClient.listObjects(ListObjectsArgs.builder()
+                .bucket(SHARED_BUCKET)
+                .recursive(true)
+                .build())) {
+            keys.add(result.get().objectName());
+        }
+        return keys;
+    }
+
+    @SneakyThrows
+    private void clearSharedBucket() {
+        for (String key : sharedKeys()) {
+            minioClient.removeObject(RemoveObjectArgs.builder()
+                    .bucket(SHARED_BUCKET)
+                    .object(key)
+                    .build());
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.project.integration.storage;
+
+import com.example.project.config.TestBeans;
+import com.example.project.dto.response.DeleteReportResponse;
+import com.example.project.dto.response.FailedObjectResponse;
+import com.example.project.utils.BatchObjectRemover;
+import com.example.project.utils.BucketPerUserLayout;
+import com.example.project.utils.StorageLayoutMigration;
+import io.minio.BucketExistsArgs;
+import io.minio.ListObjectsArgs;
+import io.minio.MakeBucketArgs;
+import io.minio.PutObjectArgs;
+import io.minio.RemoveBucketArgs;
+import io.minio.RemoveObjectArgs;
+import io.minio.Result;
+import io.minio.messages.Item;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Перенос бакета "на пользователя" в общий бакет: файлы доступны по прежним путям, перенос не повторяется
+ * и не запускается, пока блокировку держит другой узел
+ */
+@SpringBootTest(classes = TestBeans.class, properties = {
+        "storage.layout.type=shared-bucket",
+        "storage.layout.migration.enabled=true",
+        "storage.layout.migration.delete-source=true"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Tag("Storage")
+@Tag("storageLayoutMigration")
+public class StorageLayoutMigrationIT extends BaseStorageTest {
+
+    private static final long LOCK_KEY = "storage_layout_migration".hashCode();
+    private static final byte[] CONTENT = "старый бакет".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private StorageLayoutMigration storageLayoutMigration;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @MockitoSpyBean
+    private BatchObjectRemover batchObjectRemover;
+
+    private String legacyBucket;
+
+    @BeforeEach
+    void clearBucketRemoveBucketClearDatabase() {
+        clearBucketAndDatabase();
+    }
+
+    /**
+     * Общий бакет только очищается: узел считает его уже созданным
+     */
+    @AfterEach
+    @SneakyThrows
+    void removeBuckets() {
+        if (legacyBucket != null && minioClient.bucketExists(BucketExistsArgs.builder().bucket(legacyBucket).build())) {
+            clearBucket(legacyBucket);
+            minioClient.removeBucket(RemoveBucketArgs.builder().bucket(legacyBucket).build());
+        }
+        clearBucket(SharedBucketLayoutIT.SHARED_BUCKET);
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldMoveLegacyBucketIntoSharedBucket() {
+        MockHttpSession session = authorizated();
+        putLegacyObjects("docs/a.txt", "b.txt");
+        jdbcTemplate.update("DELETE FROM storage_migrations");
+
+        assertThat(storageLayoutMigration.migrateOnce()).isTrue();
+
+        assertThat(minioClient.bucketExists(BucketExistsArgs.builder().bucket(legacyBucket).build())).isFalse();
+        assertThat(isCompleted()).isTrue();
+        mockMvc.perform(get("/api/directory")
+                        .param("path", "")
+                        .session(session))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].name", containsInAnyOrder("docs/", "b.txt")));
+        mockMvc.perform(get("/api/resource/download")
+                        .param("path", "docs/a.txt")
+                        .session(session))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(CONTENT));
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldNotRepeatCompletedMigration() {
+        MockHttpSession session = authorizated();
+        putLegacyObjects("b.txt");
+        jdbcTemplate.update("DELETE FROM storage_migrations");
+        assertThat(storageLayoutMigration.migrateOnce()).isTrue();
+
+        putLegacyObjects("late.txt");
+        assertThat(storageLayoutMigration.migrateOnce()).isFalse();
+
+        assertThat(minioClient.bucketExists(BucketExistsArgs.builder().bucket(legacyBucket).build())).isTrue();
+        mockMvc.perform(get("/api/resource")
+                        .param("path", "late.txt")
+                        .session(session))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldNotRecordMigrationWhenSourceRemovalFails() {
+        authorizated();
+        putLegacyObjects("b.txt");
+        jdbcTemplate.update("DELETE FROM storage_migrations");
+        doReturn(new DeleteReportResponse("", 0, List.of(new FailedObjectResponse("b.txt", "Access Denied"))))
+                .when(batchObjectRemover).removeObjects(anyString(), anyString(), anyList());
+
+        assertThat(storageLayoutMigration.migrateOnce()).isFalse();
+
+        assertThat(isCompleted()).isFalse();
+        assertThat(minioClient.bucketExists(BucketExistsArgs.builder().bucket(legacyBucket).build())).isTrue();
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldSkipMigrationWhileAnotherNodeHoldsLock() {
+        authorizated();
+        putLegacyObjects("b.txt");
+        jdbcTemplate.update("DELETE FROM storage_migrations");
+
+        try (Connection otherNode = dataSource.getConnection()) {
+            advisoryLock(otherNode, "pg_advisory_lock");
+            assertThat(storageLayoutMigration.migrateOnce()).isFalse();
+            advisoryLock(otherNode, "pg_advisory_unlock");
+        }
+
+        assertThat(isCompleted()).isFalse();
+        assertThat(minioClient.bucketExists(BucketExistsArgs.builder().bucket(legacyBucket).build())).isTrue();
+    }
+
+    private boolean isCompleted() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM storage_migrations)", Boolean.class));
+    }
+
+    @SneakyThrows
+    private void putLegacyObjects(String... keys) {
+        int userId = userRepository.findByUsername(USERNAME).orElseThrow().getId();
+        legacyBucket = BucketPerUserLayout.toValidBucketName(USERNAME, userId);
+        minioClient.makeBucket(MakeBucketArgs.builder().bucket(legacyBucket).build());
+        for (String key : keys) {
+            minioClient.putObject(PutObjectArgs.builder()
+                    .bucket(legacyBucket)
+                    .object(key)
+                    .stream(new ByteArrayInputStream(CONTENT), CONTENT.length, -1)
+                    .contentType("text/plain")
+                    .build());
+        }
+    }
+
+    @SneakyThrows
+    private void clearBucket(String bucket) {
+        if (!minioClient.bucketExists(BucketExistsArgs.builder().bucket(bucket).build())) {
+            return;
+        }
+        for (Result<Item> result : minioClient.listObjects(ListObjectsArgs.builder()
+                .bucket(bucket)
+                .recursive(true)
+                .build())) {
+            minioClient.removeObject(RemoveObjectArgs.builder()
+                    .bucket(bucket)
+                    .object(result.get().objectName())
+                    .build());
+        }
+    }
+
+    @SneakyThrows
+    private static void advisoryLock(Connection connection,
+                                     String function) {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT " + function + "(?)")) {
+            statement.setLong(1, LOCK_KEY);
+            statement.executeQuery().close();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.project.integration.storage;
+
+import com.example.project.exceptions.storage.MissingOrInvalidPathException;
+import com.example.project.utils.StoragePath;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Разбор путей без контейнеров: каждая строка таблицы — путь из запроса и то, что из него должно получиться
+ */
+@Tag("Storage")
+@Tag("storagePath")
+public class StoragePathIT {
+
+    @ParameterizedTest(name = "''{0}'' -> ''{1}''")
+    @CsvSource(delimiter = '|', quoteCharacter = '"', textBlock = """
+            # запрос                 | путь                  | имя              | родитель          | префикс
+            docs                     | docs                  | docs             | ""                | docs/
+            docs/                    | docs                  | docs             | ""                | docs/
+            /docs/report.txt         | docs/report.txt       | report.txt       | docs/             | docs/report.txt/
+            "  /a/b/c/  "            | a/b/c                 | c                | a/b/              | a/b/c/
+            папка/файл.txt           | папка/файл.txt        | файл.txt         | папка/            | папка/файл.txt/
+            a.b/..c/...              | a.b/..c/...           | ...              | a.b/..c/          | a.b/..c/.../
+            "dir with spaces/f 1.txt"| dir with spaces/f 1.txt | f 1.txt        | dir with spaces/  | dir with spaces/f 1.txt/
+            """)
+    void shouldParseValidPath(String raw,
+                              String path,
+                              String name,
+                              String parent,
+                              String prefix) {
+        StoragePath storagePath = StoragePath.of(raw);
+
+        assertThat(storagePath.isRoot()).isFalse();
+        assertThat(storagePath.path()).isEqualTo(path);
+        assertThat(storagePath.name()).isEqualTo(name);
+        assertThat(storagePath.parent()).isEqualTo(parent);
+        assertThat(storagePath.prefix()).isEqualTo(prefix);
+        assertThat(storagePath).isEqualTo(StoragePath.of(path));
+    }
+
+    @ParameterizedTest(name = "''{0}'' -> корень")
+    @NullAndEmptySource
+    @ValueSource(strings = {"/", "//", "  ", " / "})
+    void shouldParseRoot(String raw) {
+        StoragePath storagePath = StoragePath.of(raw);
+
+        assertThat(storagePath.isRoot()).isTrue();
+        assertThat(storagePath.path()).isEmpty();
+        assertThat(storagePath.name()).isEmpty();
+        assertThat(storagePath.parent()).isEmpty();
+        assertThat(storagePath.prefix()).isEmpty();
+        assertThatThrownBy(storagePath::requireNotRoot)
+                .isInstanceOf(MissingOrInvalidPathException.class);
+    }
+
+    @ParameterizedTest(name = "''{0}'' отклоняется")
+    @ValueSource(strings = {
+            "a//b",
+            ".",
+            "./a",
+            "a/.",
+            "a/./b",
+            "..",
+            "../secret",
+            "a/../b",
+            "a\\b",
+            "a\tb",
+            "a\u0000b",
+            "a\u007Fb"
+    })
+    void shouldRejectInvalidPath(String raw) {
+        assertThatThrownBy(() -> StoragePath.of(raw))
+                .isInstanceOf(MissingOrInvalidPathException.class)
+                .hasMessage("Невалидный или отсутствующий путь");
+    }
+
+    @Test
+    void shouldStripWithoutValidation() {
+        assertThat(StoragePath.strip(" /a//b/ ")).isEqualTo("a//b");
+        assertThat(StoragePath.strip(null)).isEmpty();
+    }
+}
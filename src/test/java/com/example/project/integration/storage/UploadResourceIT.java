@@ -1,6 +1,7 @@
 package com.example.project.integration.storage;
 
 import com.example.project.config.TestBeans;
+import com.example.project.utils.StorageBackend;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
@@ -13,14 +14,25 @@ import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpSession;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.Arrays;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest(classes = TestBeans.class)
@@ -30,6 +42,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @Tag("uploadResource")
 public class UploadResourceIT extends BaseStorageTest {
 
+    @MockitoSpyBean
+    private StorageBackend storageBackend;
 
     @BeforeEach
     void clearBucketRemoveBucketClearDatabase() {
@@ -96,4 +110,69 @@ public class UploadResourceIT extends BaseStorageTest {
                 .andExpect(jsonPath("$.message").value("Пользователь не авторизован"))
                 .andExpect(jsonPath("$.statusCode").value(HttpStatus.UNAUTHORIZED.value()));
     }
+
+    @Test
+    @SneakyThrows
+    void shouldStreamFileSuccessfully() {
+        MockHttpSession session = authorizated();
+        byte[] content = "потоковый файл".getBytes();
+
+        mockMvc.perform(put("/api/resource/stream")
+                        .param("path", "stream/file.txt")
+                        .content(content)
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .session(session))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.path").value("stream/"))
+                .andExpect(jsonPath("$.name").value("file.txt"))
+                .andExpect(jsonPath("$.size").value(content.length))
+                .andExpect(jsonPath("$.type").value("FILE"));
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldReportFailedFileAndKeepTheRest() {
+        MockHttpSession session = authorizated();
+        doThrow(new IllegalStateException("Соединение с хранилищем прервано"))
+                .when(storageBackend).write(anyString(), endsWith("file2.txt"), any(), anyLong(), any());
+
+        mockMvc.perform(multipart("/api/resource")
+                        .file(new MockMultipartFile("object", "file1.txt", MediaType.TEXT_PLAIN_VALUE, "файл 1".getBytes()))
+                        .file(new MockMultipartFile("object", "file2.txt", MediaType.TEXT_PLAIN_VALUE, "файл 2".getBytes()))
+                        .file(new MockMultipartFile("object", "file3.txt", MediaType.TEXT_PLAIN_VALUE, "файл 3".getBytes()))
+                        .param("path", "")
+                        .session(session))
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$.uploaded.length()").value(2))
+                .andExpect(jsonPath("$.uploaded[0].name").value("file1.txt"))
+                .andExpect(jsonPath("$.uploaded[1].name").value("file3.txt"))
+                .andExpect(jsonPath("$.failed.length()").value(1))
+                .andExpect(jsonPath("$.failed[0].path").value("file2.txt"))
+                .andExpect(jsonPath("$.failed[0].message").value("Соединение с хранилищем прервано"));
+
+        mockMvc.perform(get("/api/resource")
+                        .param("path", "file3.txt")
+                        .session(session))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/resource")
+                        .param("path", "file2.txt")
+                        .session(session))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldNotStreamFileWhenExistenceCheckFails() {
+        MockHttpSession session = authorizated();
+        doThrow(new IllegalStateException("MinIO недоступен"))
+                .when(storageBackend).stat(anyString(), endsWith("stream/file.txt"));
+
+        mockMvc.perform(put("/api/resource/stream")
+                        .param("path", "stream/file.txt")
+                        .content("потоковый файл".getBytes())
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .session(session))
+                .andExpect(status().isInternalServerError());
+        verify(storageBackend, never()).write(anyString(), endsWith("stream/file.txt"), any(), anyLong(), any());
+    }
 }
@@ -0,0 +1,181 @@
+package com.example.project.integration.storage;
+
+import com.example.project.config.TestBeans;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = TestBeans.class)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Tag("Storage")
+@Tag("uploadSession")
+public class UploadSessionIT extends BaseStorageTest {
+
+    private static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+    private static final byte[] FIRST_PART = filled(MIN_PART_SIZE, (byte) 'a');
+    private static final byte[] LAST_PART = "хвост файла".getBytes(StandardCharsets.UTF_8);
+
+    @BeforeEach
+    void clearBucketRemoveBucketClearDatabase() {
+        clearBucketAndDatabase();
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldAssemblePartsUploadedOutOfOrder() {
+        MockHttpSession session = authorizated();
+        String id = initiate(session, "video/movie.bin");
+
+        uploadPart(session, id, 2, LAST_PART);
+        uploadPart(session, id, 1, FIRST_PART);
+
+        mockMvc.perform(get("/api/resource/uploads/{id}", id)
+                        .session(session))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.path").value("video/"))
+                .andExpect(jsonPath("$.name").value("movie.bin"))
+                .andExpect(jsonPath("$.parts.length()").value(2))
+                .andExpect(jsonPath("$.parts[0].number").value(1))
+                .andExpect(jsonPath("$.parts[0].size").value(FIRST_PART.length))
+                .andExpect(jsonPath("$.parts[1].number").value(2))
+                .andExpect(jsonPath("$.parts[1].size").value(LAST_PART.length));
+
+        mockMvc.perform(post("/api/resource/uploads/{id}/complete", id)
+                        .session(session))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.path").value("video/"))
+                .andExpect(jsonPath("$.name").value("movie.bin"))
+                .andExpect(jsonPath("$.size").value(FIRST_PART.length + LAST_PART.length));
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write(FIRST_PART);
+        expected.write(LAST_PART);
+        mockMvc.perform(get("/api/resource/download")
+                        .param("path", "video/movie.bin")
+                        .session(session))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(expected.toByteArray()));
+        mockMvc.perform(get("/api/resource/uploads/{id}", id)
+                        .session(session))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldFailCompleteWithMissingPart() {
+        MockHttpSession session = authorizated();
+        String id = initiate(session, "movie.bin");
+        uploadPart(session, id, 2, LAST_PART);
+
+        mockMvc.perform(post("/api/resource/uploads/{id}/complete", id)
+                        .session(session))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Не загружена часть 1"));
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldFailCompleteWithTooSmallPart() {
+        MockHttpSession session = authorizated();
+        String id = initiate(session, "movie.bin");
+        uploadPart(session, id, 1, LAST_PART);
+        uploadPart(session, id, 2, LAST_PART);
+
+        mockMvc.perform(post("/api/resource/uploads/{id}/complete", id)
+                        .session(session))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Все части, кроме последней, должны быть не меньше 5MB"));
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldFailCompleteWhenPathTakenDuringUpload() {
+        MockHttpSession session = authorizated();
+        String id = initiate(session, "movie.bin");
+        uploadPart(session, id, 1, LAST_PART);
+
+        mockMvc.perform(put("/api/resource/stream")
+                        .param("path", "movie.bin")
+                        .content(FIRST_PART)
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .session(session))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(post("/api/resource/uploads/{id}/complete", id)
+                        .session(session))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.statusCode").value(HttpStatus.CONFLICT.value()));
+        mockMvc.perform(get("/api/resource/download")
+                        .param("path", "movie.bin")
+                        .session(session))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(FIRST_PART));
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldFailEmptyPart() {
+        MockHttpSession session = authorizated();
+        String id = initiate(session, "movie.bin");
+
+        mockMvc.perform(put("/api/resource/uploads/{id}/parts/{partNumber}", id, 1)
+                        .content(new byte[0])
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .session(session))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Пустая часть"));
+    }
+
+    @SneakyThrows
+    private String initiate(MockHttpSession session,
+                            String path) {
+        MvcResult result = mockMvc.perform(post("/api/resource/uploads")
+                        .param("path", path)
+                        .session(session))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.parts.length()").value(0))
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("id").asText();
+    }
+
+    @SneakyThrows
+    private void uploadPart(MockHttpSession session,
+                            String id,
+                            int partNumber,
+                            byte[] data) {
+        mockMvc.perform(put("/api/resource/uploads/{id}/parts/{partNumber}", id, partNumber)
+                        .content(data)
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .session(session))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.number").value(partNumber))
+                .andExpect(jsonPath("$.size").value(data.length));
+    }
+
+    private static byte[] filled(int size,
+                                 byte value) {
+        byte[] data = new byte[size];
+        Arrays.fill(data, value);
+        return data;
+    }
+}